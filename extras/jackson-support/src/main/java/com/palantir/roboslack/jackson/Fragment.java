@@ -0,0 +1,55 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.roboslack.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+/**
+ * The serialized JSON of a value, along with the configuration it was written with: the generator's features and
+ * character escapes, and the provider's {@link com.fasterxml.jackson.databind.SerializationConfig}, which changes
+ * whenever a writer is reconfigured. A fragment is only spliced into output written the same way.
+ */
+final class Fragment {
+
+    private final SerializedString json;
+    private final Object config;
+    private final int featureMask;
+    private final Object characterEscapes;
+
+    Fragment(SerializedString json, JsonGenerator gen, SerializerProvider provider) {
+        this.json = json;
+        this.config = provider.getConfig();
+        this.featureMask = gen.getFeatureMask();
+        this.characterEscapes = gen.getCharacterEscapes();
+    }
+
+    SerializedString json() {
+        return json;
+    }
+
+    /**
+     * Returns true if this fragment can be spliced into output written by {@code gen} and {@code provider}.
+     */
+    boolean writtenLike(JsonGenerator gen, SerializerProvider provider) {
+        return config == provider.getConfig() && featureMask == gen.getFeatureMask()
+                && characterEscapes == gen.getCharacterEscapes();
+    }
+
+}
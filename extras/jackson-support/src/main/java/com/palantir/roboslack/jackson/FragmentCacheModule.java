@@ -0,0 +1,125 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.jackson;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Caches the serialized JSON of {@link CacheableFragment} types, keyed by the identity of the values, so writing an
+ * instance that was written before, with the same writer configuration, splices the cached JSON into the output
+ * instead of serializing it again. Keys are compared by reference and hashed with {@link System#identityHashCode}, so
+ * a lookup never walks the value, and sharing instances, eg. constants or interned components, is what makes values
+ * hit. A value is only cached once it has been seen twice, so one-off values cost no more than a hash lookup.
+ * Fragments are dropped once their value is garbage collected, and the least recently used ones are evicted once they
+ * exceed {@code maximumSize} characters in total.
+ * <p>
+ * Fragments are cached per module, so each module must only be registered with one {@link
+ * com.fasterxml.jackson.databind.ObjectMapper}. Values written with a pretty printer, a serialization view or
+ * {@link com.fasterxml.jackson.annotation.JsonUnwrapped} are serialized as usual.
+ *
+ * @since 1.1.0
+ */
+public final class FragmentCacheModule extends SimpleModule {
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 1L << 20;
+
+    private static final long serialVersionUID = 1L;
+    private static final int DOORKEEPER_SIZE = 1 << 12;
+
+    private final transient Cache<Object, Fragment> fragments;
+    /**
+     * Identity hashes of recently seen values, one per slot. Racing writes only cost a missed or premature admission.
+     */
+    private final transient int[] doorkeeper = new int[DOORKEEPER_SIZE];
+
+    public FragmentCacheModule() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Creates a module caching at most {@code maximumSize} characters of serialized JSON.
+     *
+     * @param maximumSize the maximum total length of the cached fragments
+     */
+    public FragmentCacheModule(long maximumSize) {
+        super(FragmentCacheModule.class.getSimpleName());
+        checkArgument(maximumSize > 0, "Maximum fragment cache size must be positive");
+        this.fragments = CacheBuilder.newBuilder()
+                .weakKeys()
+                .maximumWeight(maximumSize)
+                .weigher((Object value, Fragment fragment) -> fragment.json().charLength())
+                .recordStats()
+                .build();
+        setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription description,
+                    JsonSerializer<?> serializer) {
+                return description.getClassAnnotations().get(CacheableFragment.class) != null
+                        ? new FragmentCachingSerializer(serializer, FragmentCacheModule.this)
+                        : serializer;
+            }
+        });
+    }
+
+    /**
+     * The hit and miss statistics of this module's fragment cache.
+     *
+     * @return the {@link CacheStats}
+     */
+    public CacheStats stats() {
+        return fragments.stats();
+    }
+
+    /**
+     * Looks up the cached JSON of {@code value}, if it was written the same way as {@code gen} and {@code provider}
+     * will write it.
+     */
+    SerializedString fragment(Object value, JsonGenerator gen, SerializerProvider provider) {
+        Fragment fragment = fragments.getIfPresent(value);
+        return fragment != null && fragment.writtenLike(gen, provider) ? fragment.json() : null;
+    }
+
+    void cache(Object value, Fragment fragment) {
+        fragments.put(value, fragment);
+    }
+
+    /**
+     * Records {@code value} as seen, returning whether it was already seen recently and should be cached.
+     */
+    boolean admit(Object value) {
+        int hash = System.identityHashCode(value);
+        int slot = (hash ^ (hash >>> 16)) & (DOORKEEPER_SIZE - 1);
+        if (doorkeeper[slot] == hash) {
+            return true;
+        }
+        doorkeeper[slot] = hash;
+        return false;
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * Wraps the serializer of a {@link CacheableFragment} type, writing values from the {@link FragmentCacheModule}.
+ */
+final class FragmentCachingSerializer extends JsonSerializer<Object>
+        implements ContextualSerializer, ResolvableSerializer {
+
+    private final JsonSerializer<Object> delegate;
+    private final FragmentCacheModule module;
+
+    @SuppressWarnings("unchecked")
+    FragmentCachingSerializer(JsonSerializer<?> delegate, FragmentCacheModule module) {
+        this.delegate = (JsonSerializer<Object>) delegate;
+        this.module = module;
+    }
+
+    @Override
+    public void serialize(Object value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (!isCacheable(gen, provider)) {
+            delegate.serialize(value, gen, provider);
+            return;
+        }
+        SerializedString fragment = module.fragment(value, gen, provider);
+        if (fragment == null) {
+            if (!module.admit(value)) {
+                delegate.serialize(value, gen, provider);
+                return;
+            }
+            fragment = render(value, gen, provider);
+            module.cache(value, new Fragment(fragment, gen, provider));
+        }
+        gen.writeRawValue(fragment);
+    }
+
+    private static boolean isCacheable(JsonGenerator gen, SerializerProvider provider) {
+        return gen.getPrettyPrinter() == null && gen.getCodec() != null && provider.getActiveView() == null;
+    }
+
+    private SerializedString render(Object value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        ObjectCodec codec = gen.getCodec();
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator fragmentGen = codec.getFactory().createGenerator(writer)) {
+            fragmentGen.setCodec(codec);
+            fragmentGen.overrideStdFeatures(gen.getFeatureMask(), ~0);
+            if (gen.getCharacterEscapes() != null) {
+                fragmentGen.setCharacterEscapes(gen.getCharacterEscapes());
+            }
+            delegate.serialize(value, fragmentGen, provider);
+        }
+        return new SerializedString(writer.toString());
+    }
+
+    @Override
+    public void serializeWithType(Object value, JsonGenerator gen, SerializerProvider provider,
+            TypeSerializer typeSerializer) throws IOException {
+        delegate.serializeWithType(value, gen, provider, typeSerializer);
+    }
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property)
+            throws JsonMappingException {
+        if (!(delegate instanceof ContextualSerializer)) {
+            return this;
+        }
+        JsonSerializer<?> contextual = ((ContextualSerializer) delegate).createContextual(provider, property);
+        return contextual == delegate ? this : new FragmentCachingSerializer(contextual, module);
+    }
+
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+        if (delegate instanceof ResolvableSerializer) {
+            ((ResolvableSerializer) delegate).resolve(provider);
+        }
+    }
+
+    @Override
+    public JsonSerializer<Object> unwrappingSerializer(NameTransformer unwrapper) {
+        return delegate.unwrappingSerializer(unwrapper);
+    }
+
+    @Override
+    public boolean isEmpty(SerializerProvider provider, Object value) {
+        return delegate.isEmpty(provider, value);
+    }
+
+    @Override
+    public boolean usesObjectId() {
+        return delegate.usesObjectId();
+    }
+
+    @Override
+    public Class<Object> handledType() {
+        return delegate.handledType();
+    }
+
+    @Override
+    public JsonSerializer<?> getDelegatee() {
+        return delegate;
+    }
+
+}
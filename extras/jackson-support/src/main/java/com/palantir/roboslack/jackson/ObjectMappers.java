@@ -19,21 +19,82 @@ package com.palantir.roboslack.jackson;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.guava.GuavaModule;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Creates and shares the {@link ObjectMapper}s used for (de)serializing RoboSlack types.
+ *
+ * @since 1.0.0
+ */
 public final class ObjectMappers {
 
+    private static final ObjectMapper SHARED = newObjectMapper();
+
+    private static final ConcurrentMap<Class<?>, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
+
     private ObjectMappers() {}
 
+    /**
+     * Gets the process-wide {@link ObjectMapper}, configured the same as {@link #newObjectMapper()}. Sharing it lets
+     * every client reuse one set of serializer and deserializer caches instead of repeating Jackson introspection.
+     * <b>It must not be reconfigured</b>; use {@link #newObjectMapper()} when different settings are needed.
+     *
+     * @return the shared {@link ObjectMapper}
+     */
+    public static ObjectMapper sharedObjectMapper() {
+        return SHARED;
+    }
+
+    /**
+     * Gets the cached {@link ObjectWriter} for {@code type} from the {@link #sharedObjectMapper()}, with its root
+     * serializer already resolved.
+     *
+     * @param type the {@link Class} to write
+     * @return the {@link ObjectWriter} for {@code type}
+     */
+    public static ObjectWriter writerFor(Class<?> type) {
+        return WRITERS.computeIfAbsent(type, SHARED::writerFor);
+    }
+
+    /**
+     * Gets the cached {@link ObjectReader} for {@code type} from the {@link #sharedObjectMapper()}, with its root
+     * deserializer already resolved.
+     *
+     * @param type the {@link Class} to read
+     * @return the {@link ObjectReader} for {@code type}
+     */
+    public static ObjectReader readerFor(Class<?> type) {
+        return READERS.computeIfAbsent(type, SHARED::readerFor);
+    }
+
+    /**
+     * Eagerly resolves the {@link ObjectWriter}s and {@link ObjectReader}s for {@code types}, populating the serializer
+     * caches of the {@link #sharedObjectMapper()} up front rather than on the first message sent.
+     *
+     * @param types the {@link Class}es to prepare
+     */
+    public static void warmUp(Class<?>... types) {
+        for (Class<?> type : types) {
+            writerFor(type);
+            readerFor(type);
+        }
+    }
+
     public static ObjectMapper newObjectMapper() {
         return new ObjectMapper().registerModule(new GuavaModule())
                 .registerModule(new Jdk8Module().configureAbsentsAsNulls(true))
                 .registerModule(new AfterburnerModule())
                 .registerModule(new JavaTimeModule())
+                .registerModule(new FragmentCacheModule())
                 .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
                 .disable(DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE)
                 .disable(DeserializationFeature.WRAP_EXCEPTIONS)
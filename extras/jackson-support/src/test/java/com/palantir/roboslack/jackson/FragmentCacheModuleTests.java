@@ -0,0 +1,179 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.roboslack.jackson;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import org.junit.jupiter.api.Test;
+
+class FragmentCacheModuleTests {
+
+    private static final ObjectMapper UNCACHED = new ObjectMapper();
+
+    @CacheableFragment
+    static class Badge {
+
+        private final String label;
+        private final String link;
+
+        Badge(String label, String link) {
+            this.label = label;
+            this.link = link;
+        }
+
+        @JsonProperty("label")
+        public String label() {
+            return label;
+        }
+
+        @JsonProperty("link")
+        public String link() {
+            return link;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Badge && label.equals(((Badge) other).label) && link.equals(((Badge) other).link);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(label, link);
+        }
+
+    }
+
+    /**
+     * A badge that fails if the cache ever compares or hashes it.
+     */
+    static final class ExplodingBadge extends Badge {
+
+        ExplodingBadge() {
+            super("Equal", "https://example.com");
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            throw new AssertionError("Fragments must be looked up by identity");
+        }
+
+        @Override
+        public int hashCode() {
+            throw new AssertionError("Fragments must be looked up by identity");
+        }
+
+    }
+
+    static final class Card {
+
+        private final String text;
+        private final List<Badge> badges;
+
+        Card(String text, Badge badge) {
+            this(text, ImmutableList.of(badge, badge, badge, new Badge(text, text)));
+        }
+
+        Card(String text, List<Badge> badges) {
+            this.text = text;
+            this.badges = badges;
+        }
+
+        @JsonProperty("text")
+        public String text() {
+            return text;
+        }
+
+        @JsonProperty("badges")
+        public List<Badge> badges() {
+            return badges;
+        }
+
+    }
+
+    private static final Badge RUNBOOK = new Badge("Runbook → \"deploy\"", "https://wiki.example.com/deploys");
+
+    private static Card card(String text) {
+        return new Card(text, RUNBOOK);
+    }
+
+    @Test
+    void testRepeatedFragmentsAreSpliced() throws IOException {
+        FragmentCacheModule module = new FragmentCacheModule();
+        ObjectMapper mapper = new ObjectMapper().registerModule(module);
+        String expected = UNCACHED.writeValueAsString(card("first"));
+        assertThat(mapper.writeValueAsString(card("first")), is(equalTo(expected)));
+        // the shared badge is seen, then admitted on its second occurrence, then spliced on the third
+        assertThat(module.stats().hitCount(), is(1L));
+        assertThat(mapper.writeValueAsString(card("first")), is(equalTo(expected)));
+        assertThat(module.stats().hitCount(), is(4L));
+        assertThat(mapper.writeValueAsString(card("second")), is(equalTo(UNCACHED.writeValueAsString(card("second")))));
+    }
+
+    @Test
+    void testFragmentsAreLookedUpByIdentity() throws IOException {
+        FragmentCacheModule module = new FragmentCacheModule();
+        ObjectMapper mapper = new ObjectMapper().registerModule(module);
+        Card card = new Card("text", ImmutableList.of(new ExplodingBadge(), new ExplodingBadge()));
+        for (int i = 0; i < 3; i++) {
+            assertThat(mapper.writeValueAsString(card), is(equalTo(UNCACHED.writeValueAsString(card))));
+        }
+        // equal but distinct instances are cached separately, without ever being compared or hashed
+        assertThat(module.stats().hitCount(), is(2L));
+    }
+
+    @Test
+    void testFragmentsAreNotSharedBetweenWriterConfigurations() throws IOException {
+        FragmentCacheModule module = new FragmentCacheModule();
+        ObjectMapper mapper = new ObjectMapper().registerModule(module);
+        mapper.writeValueAsString(card("text"));
+        mapper.writeValueAsString(card("text"));
+        assertThat(mapper.writer().with(JsonGenerator.Feature.ESCAPE_NON_ASCII).writeValueAsString(card("text")),
+                is(equalTo(UNCACHED.writer().with(JsonGenerator.Feature.ESCAPE_NON_ASCII)
+                        .writeValueAsString(card("text")))));
+        assertThat(mapper.writeValueAsString(card("text")), is(equalTo(UNCACHED.writeValueAsString(card("text")))));
+    }
+
+    @Test
+    void testPrettyPrintingBypassesCache() throws IOException {
+        FragmentCacheModule module = new FragmentCacheModule();
+        ObjectMapper mapper = new ObjectMapper().registerModule(module);
+        mapper.writeValueAsString(card("text"));
+        assertThat(mapper.writerWithDefaultPrettyPrinter().writeValueAsString(card("text")),
+                is(equalTo(UNCACHED.writerWithDefaultPrettyPrinter().writeValueAsString(card("text")))));
+    }
+
+    @Test
+    void testOversizedFragmentsAreNotRetained() throws IOException {
+        FragmentCacheModule module = new FragmentCacheModule(1);
+        ObjectMapper mapper = new ObjectMapper().registerModule(module);
+        for (int i = 0; i < 3; i++) {
+            assertThat(mapper.writeValueAsString(card("text")), is(equalTo(UNCACHED.writeValueAsString(card("text")))));
+        }
+        assertThat(module.stats().hitCount(), is(0L));
+    }
+
+}
@@ -34,6 +34,9 @@ public final class SlackClients {
 
     private static final String DEFAULT_USER_AGENT = "RoboSlack/1.0.0";
 
+    private static final Converter.Factory JACKSON_CONVERTER_FACTORY =
+            JacksonConverterFactory.create(ObjectMappers.sharedObjectMapper());
+
     private SlackClients() {}
 
     private static String addTrailingSlash(String uri) {
@@ -53,7 +56,7 @@ public final class SlackClients {
                 .baseUrl(addTrailingSlash(uri))
                 .client(createOkHttpClient(userAgent));
         Stream.of(specialPurposeConverters).forEach(retrofit::addConverterFactory);
-        retrofit.addConverterFactory(JacksonConverterFactory.create(ObjectMappers.newObjectMapper()));
+        retrofit.addConverterFactory(JACKSON_CONVERTER_FACTORY);
         return retrofit.build().create(clazz);
     }
 
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.api.markdown;
+
+import com.google.common.base.Strings;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares {@link MarkdownScanner} against {@link SlackMarkdown#PATTERN} on 40 KB inputs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MarkdownScannerBenchmark {
+
+    private static final int INPUT_LENGTH = 40 * 1024;
+
+    @Param({"PLAIN", "LOG_EXCERPT", "UNCLOSED_DECORATIONS"})
+    private Input input;
+
+    private String text;
+
+    public enum Input {
+        /**
+         * Text containing no markdown at all, forcing a full scan.
+         */
+        PLAIN("The quick brown fox jumps over the lazy dog. "),
+        /**
+         * Log-like lines separated by carriage returns, with single decoration characters on every line.
+         */
+        LOG_EXCERPT("INFO worker 1 finished request *42 in 12 ms\r"),
+        /**
+         * One long line opening every decoration once, which the pattern scans to the end of the line per decoration.
+         */
+        UNCLOSED_DECORATIONS("*a_b~c`d:e");
+
+        private final String unit;
+
+        Input(String unit) {
+            this.unit = unit;
+        }
+    }
+
+    @Setup
+    public final void before() {
+        if (input == Input.UNCLOSED_DECORATIONS) {
+            text = input.unit + Strings.repeat("x", INPUT_LENGTH - input.unit.length());
+        } else {
+            text = Strings.repeat(input.unit, INPUT_LENGTH / input.unit.length());
+        }
+    }
+
+    @Benchmark
+    public final boolean scanner() {
+        return MarkdownScanner.containsMarkdown(text);
+    }
+
+    @Benchmark
+    public final boolean pattern() {
+        return SlackMarkdown.PATTERN.matcher(text).find();
+    }
+
+}
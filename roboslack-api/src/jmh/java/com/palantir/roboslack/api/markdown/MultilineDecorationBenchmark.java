@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.api.markdown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Finds the crossover between sequential and {@link ParallelDecorator} multiline decoration, which backs {@link
+ * ParallelDecorator#DEFAULT_PARALLEL_THRESHOLD}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MultilineDecorationBenchmark {
+
+    private static final String LINE = "2017-07-01 12:00:00 INFO worker finished request in 12 ms";
+
+    @Param({"3", "64", "1024", "4096", "16384"})
+    private int lines;
+
+    private List<String> inputs;
+    private ForkJoinPool pool;
+    private ParallelDecorator parallel;
+
+    @Setup
+    public final void before() {
+        inputs = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            inputs.add(LINE + i);
+        }
+        pool = new ForkJoinPool();
+        parallel = ParallelDecorator.builder()
+                .executor(pool)
+                .parallelThreshold(1)
+                .build();
+    }
+
+    @TearDown
+    public final void after() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public final String sequential() {
+        return SlackMarkdown.LIST_SINGLE_LEVEL.decorateMultiline(inputs);
+    }
+
+    @Benchmark
+    public final String parallel() {
+        return parallel.decorateMultiline(SlackMarkdown.LIST_SINGLE_LEVEL, inputs);
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.roboslack.api.time;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.chrono.HijrahDate;
+import java.time.temporal.Temporal;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the per-call cost of {@link EpochTimestamps#convert(Temporal)} for directly handled and field based types.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EpochTimestampsBenchmark {
+
+    private static final long EPOCH_SECONDS = 1392734382L;
+
+    @Param({"Instant", "LocalDate", "LocalDateTime", "LocalTime", "ZonedDateTime", "Year", "HijrahDate"})
+    private String type;
+
+    private Temporal temporal;
+
+    @Setup
+    public final void before() {
+        LocalDateTime dateTime = LocalDateTime.ofEpochSecond(EPOCH_SECONDS, 0, ZoneOffset.UTC);
+        switch (type) {
+            case "Instant":
+                temporal = Instant.ofEpochSecond(EPOCH_SECONDS);
+                break;
+            case "LocalDate":
+                temporal = dateTime.toLocalDate();
+                break;
+            case "LocalDateTime":
+                temporal = dateTime;
+                break;
+            case "LocalTime":
+                temporal = dateTime.toLocalTime();
+                break;
+            case "ZonedDateTime":
+                temporal = ZonedDateTime.of(dateTime, ZoneOffset.UTC);
+                break;
+            case "Year":
+                temporal = Year.from(dateTime);
+                break;
+            default:
+                temporal = HijrahDate.from(dateTime.toLocalDate());
+                break;
+        }
+    }
+
+    @Benchmark
+    public final long convert() {
+        return EpochTimestamps.convert(temporal);
+    }
+
+}
@@ -18,13 +18,17 @@ package com.palantir.roboslack.api;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
 import com.palantir.roboslack.api.attachments.Attachment;
 import com.palantir.roboslack.api.markdown.SlackMarkdown;
+import com.palantir.roboslack.utils.MoreUris;
+import java.net.URI;
 import java.net.URL;
 import java.util.List;
 import java.util.Optional;
@@ -62,13 +66,16 @@ public abstract class MessageRequest {
     private static final String MARKDOWN_FIELD = "mrkdwn";
     private static final String ATTACHMENTS_FIELD = "attachments";
 
+    private static final String ATTACHMENTS_COUNT_ERROR_FORMAT =
+            "Cannot exceed %s attachments for one message, %s were found";
+
     /**
      * Generate a new {@link MessageRequest.Builder}.
      *
      * @return the newly created {@link MessageRequest.Builder}
      */
     public static Builder builder() {
-        return ImmutableMessageRequest.builder();
+        return new NormalizingBuilder(ImmutableMessageRequest.builder());
     }
 
     /**
@@ -140,42 +147,83 @@ public abstract class MessageRequest {
         return ImmutableList.of();
     }
 
+    /**
+     * Whether this {@link MessageRequest} comes from a trusted producer, such as internal code or a validated template,
+     * and should skip its checks when built. Normalization still applies. Untrusted messages can be checked in full
+     * with {@link #validate()}. Not sent to Slack.
+     *
+     * @return true to skip checks when building, false otherwise
+     */
+    @JsonIgnore
+    @Value.Default
+    @Value.Auxiliary
+    public boolean trusted() {
+        return false;
+    }
+
     /**
      * Checks to see if this MessageRequest adheres to Slack's guidelines and limitations.
      */
     @Value.Check
     final void check() {
-        checkArgument(attachments().size() <= MAX_ATTACHMENTS_COUNT,
-                "Cannot exceed %s attachments for one message, %s were found",
-                MAX_ATTACHMENTS_COUNT, attachments().size());
+        if (!trusted()) {
+            checkArgument(attachments().size() <= MAX_ATTACHMENTS_COUNT, ATTACHMENTS_COUNT_ERROR_FORMAT,
+                    MAX_ATTACHMENTS_COUNT, attachments().size());
+        }
     }
 
+    private static String normalizeIconEmoji(String iconEmoji) {
+        return SlackMarkdown.EMOJI.decorate(iconEmoji);
+    }
+
+    /**
+     * Normalizes messages that were not created through {@link #builder()}, such as deserialized ones; the builder
+     * normalizes as values are set, so built messages are constructed once.
+     */
     @Value.Check
     final MessageRequest normalizedCopy() {
-        if (iconEmoji().isPresent()) {
-            if (iconEmoji().get().equals(SlackMarkdown.EMOJI.decorate(iconEmoji().get()))) {
-                return this;
+        if (!iconEmoji().isPresent()) {
+            return this;
+        }
+        String iconEmoji = normalizeIconEmoji(iconEmoji().get());
+        return iconEmoji.equals(iconEmoji().get())
+                ? this
+                : ImmutableMessageRequest.copyOf(this).withIconEmoji(iconEmoji);
+    }
+
+    /**
+     * Collects every violation of Slack's guidelines and limitations by this {@link MessageRequest} and its {@link
+     * Attachment}s, including any that were skipped because they were built as {@link #trusted()}.
+     *
+     * @return the violations, or an empty {@link List} if there are none
+     */
+    public final List<String> violations() {
+        ImmutableList.Builder<String> violations = ImmutableList.builder();
+        if (attachments().size() > MAX_ATTACHMENTS_COUNT) {
+            violations.add(String.format(ATTACHMENTS_COUNT_ERROR_FORMAT, MAX_ATTACHMENTS_COUNT, attachments().size()));
+        }
+        for (int i = 0; i < attachments().size(); i++) {
+            for (String violation : attachments().get(i).violations()) {
+                violations.add(String.format("%s[%s]: %s", ATTACHMENTS_FIELD, i, violation));
             }
-            return builderClone().iconEmoji(SlackMarkdown.EMOJI.decorate(iconEmoji().get()))
-                    .build();
         }
-        return this;
+        return violations.build();
     }
 
-    private Builder builderClone() {
-        Builder builder = builder();
-        iconUrl().ifPresent(builder::iconUrl);
-        iconEmoji().ifPresent(builder::iconEmoji);
-        channel().ifPresent(builder::channel);
-        return builder
-                .linkNames(linkNames())
-                .unfurlMedia(unfurlMedia())
-                .unfurlLinks(unfurlLinks())
-                .markdownEnabled(markdownEnabled())
-                .parse(parse())
-                .attachments(attachments())
-                .text(text())
-                .username(username());
+    /**
+     * Checks this {@link MessageRequest} and its {@link Attachment}s, reporting all violations at once.
+     *
+     * @return this {@link MessageRequest}
+     * @throws IllegalArgumentException listing every violation, if there are any
+     * @see #violations()
+     */
+    public final MessageRequest validate() {
+        List<String> violations = violations();
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(String.format("Invalid MessageRequest, %s violation(s): %s",
+                    violations.size(), Joiner.on("; ").join(violations)));
+        }
+        return this;
     }
 
     public interface Builder {
@@ -189,13 +237,126 @@ public abstract class MessageRequest {
         Builder addAttachments(Attachment... attachments);
         Builder text(String text);
         Builder iconEmoji(String iconEmoji);
-        Builder iconUrl(URL iconUrl);
+        Builder iconUrl(URI iconUrl);
+        default Builder iconUrl(URL iconUrl) {
+            return iconUrl(MoreUris.fromUrl(iconUrl));
+        }
         Builder username(String username);
         Builder channel(String channel);
+        Builder trusted(boolean trusted);
         Builder from(MessageRequest messageRequest);
         MessageRequest build();
     }
 
+    /**
+     * A {@link Builder} that normalizes the {@code iconEmoji} as it is set, so that {@link #normalizedCopy()} never
+     * has to build a second instance.
+     */
+    private static final class NormalizingBuilder implements Builder {
+
+        private final ImmutableMessageRequest.Builder delegate;
+
+        NormalizingBuilder(ImmutableMessageRequest.Builder delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Builder linkNames(boolean linkNames) {
+            delegate.linkNames(linkNames);
+            return this;
+        }
+
+        @Override
+        public Builder unfurlMedia(boolean unfurlMedia) {
+            delegate.unfurlMedia(unfurlMedia);
+            return this;
+        }
+
+        @Override
+        public Builder unfurlLinks(boolean unfurlLinks) {
+            delegate.unfurlLinks(unfurlLinks);
+            return this;
+        }
+
+        @Override
+        public Builder markdownEnabled(boolean markdownEnabled) {
+            delegate.markdownEnabled(markdownEnabled);
+            return this;
+        }
+
+        @Override
+        public Builder parse(ParseMode parseMode) {
+            delegate.parse(parseMode);
+            return this;
+        }
+
+        @Override
+        public Builder attachments(Iterable<? extends Attachment> attachments) {
+            delegate.attachments(attachments);
+            return this;
+        }
+
+        @Override
+        public Builder addAttachments(Attachment attachment) {
+            delegate.addAttachments(attachment);
+            return this;
+        }
+
+        @Override
+        public Builder addAttachments(Attachment... attachments) {
+            delegate.addAttachments(attachments);
+            return this;
+        }
+
+        @Override
+        public Builder text(String text) {
+            delegate.text(text);
+            return this;
+        }
+
+        @Override
+        public Builder iconEmoji(String iconEmoji) {
+            delegate.iconEmoji(normalizeIconEmoji(iconEmoji));
+            return this;
+        }
+
+        @Override
+        public Builder iconUrl(URI iconUrl) {
+            delegate.iconUrl(iconUrl);
+            return this;
+        }
+
+        @Override
+        public Builder username(String username) {
+            delegate.username(username);
+            return this;
+        }
+
+        @Override
+        public Builder channel(String channel) {
+            delegate.channel(channel);
+            return this;
+        }
+
+        @Override
+        public Builder trusted(boolean trusted) {
+            delegate.trusted(trusted);
+            return this;
+        }
+
+        @Override
+        public Builder from(MessageRequest messageRequest) {
+            delegate.from(messageRequest);
+            return this;
+        }
+
+        @Override
+        public MessageRequest build() {
+            return delegate.build();
+        }
+
+    }
+
     /**
      * The raw text content fromString this {@link MessageRequest}, which can contain formatted {@link
      * com.palantir.roboslack.api.markdown.SlackMarkdown}.
@@ -214,12 +375,12 @@ public abstract class MessageRequest {
     public abstract Optional<String> iconEmoji();
 
     /**
-     * {@link URL} to an image to use for the icon fromString this {@link MessageRequest}.
+     * {@link URI} to an image to use for the icon fromString this {@link MessageRequest}.
      *
      * @return the icon url
      */
     @JsonProperty(ICON_URL_FIELD)
-    public abstract Optional<URL> iconUrl();
+    public abstract Optional<URI> iconUrl();
 
     /**
      * The username to render for this {@link MessageRequest}.
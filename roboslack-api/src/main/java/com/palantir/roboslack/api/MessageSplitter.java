@@ -0,0 +1,247 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.api;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.roboslack.api.attachments.Attachment;
+import com.palantir.roboslack.api.attachments.components.Author;
+import com.palantir.roboslack.api.attachments.components.Field;
+import com.palantir.roboslack.api.attachments.components.Footer;
+import com.palantir.roboslack.api.attachments.components.Title;
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+import org.immutables.value.Value;
+
+/**
+ * Splits an oversized logical message into the fewest {@link MessageRequest}s that Slack will accept, instead of
+ * failing with {@code msg_too_long} or exceeding the attachment limit.
+ * <p>
+ * Text is split on line boundaries (lines longer than a whole message are split within the line), and any {@link
+ * com.palantir.roboslack.api.markdown.SlackMarkdown#PREFORMAT_MULTILINE} block spanning a split is closed and reopened
+ * so that each message renders correctly. Each message's text and {@link Attachment}s share a budget of {@link
+ * #maxMessageSize()}: text chunks fill the leading messages in order, and attachments are packed greedily, in order,
+ * into the room each message has left. Sizes are estimated from the JSON-escaped length of the text and of every
+ * attachment property, without serializing any requests.
+ *
+ * @since 1.1.0
+ */
+@Value.Immutable
+public abstract class MessageSplitter {
+
+    /**
+     * Slack truncates message text beyond 40,000 characters.
+     */
+    public static final int DEFAULT_MAX_TEXT_SIZE = 40000;
+
+    /**
+     * Smallest supported text size, leaving room for reopened preformat blocks.
+     */
+    private static final int MIN_TEXT_SIZE = 64;
+
+    /**
+     * Upper bounds on the JSON around attachment values: an attachment's braces and {@code mrkdwn_in} flags, a
+     * property's key, quotes and separators, and a field's braces, keys and {@code short} flag.
+     */
+    private static final int ATTACHMENT_OVERHEAD = 64;
+    private static final int PROPERTY_OVERHEAD = 32;
+    private static final int FIELD_OVERHEAD = 48;
+
+    public static Builder builder() {
+        return ImmutableMessageSplitter.builder();
+    }
+
+    public static MessageSplitter of() {
+        return builder().build();
+    }
+
+    /**
+     * The maximum estimated serialized size of the text in each {@link MessageRequest}.
+     *
+     * @return the maximum text size
+     */
+    @Value.Default
+    public int maxTextSize() {
+        return DEFAULT_MAX_TEXT_SIZE;
+    }
+
+    /**
+     * The maximum estimated serialized size of the text and {@link Attachment}s together in each {@link
+     * MessageRequest}. A single attachment larger than this is sent in a message of its own. Defaults to the {@link
+     * #maxTextSize()}.
+     *
+     * @return the maximum message size
+     */
+    @Value.Default
+    public int maxMessageSize() {
+        return maxTextSize();
+    }
+
+    /**
+     * The maximum number of {@link Attachment}s in each {@link MessageRequest}.
+     *
+     * @return the maximum attachment count
+     */
+    @Value.Default
+    public int maxAttachments() {
+        return MessageRequest.MAX_ATTACHMENTS_COUNT;
+    }
+
+    @Value.Check
+    protected final void check() {
+        checkArgument(maxTextSize() >= MIN_TEXT_SIZE, "Max text size must be at least %s", MIN_TEXT_SIZE);
+        checkArgument(maxMessageSize() >= maxTextSize(), "Max message size must be at least the max text size");
+        checkArgument(maxAttachments() > 0 && maxAttachments() <= MessageRequest.MAX_ATTACHMENTS_COUNT,
+                "Max attachments must be between 1 and %s", MessageRequest.MAX_ATTACHMENTS_COUNT);
+    }
+
+    /**
+     * Estimates the length of {@code text} once escaped in a JSON string.
+     *
+     * @param text the text to measure
+     * @return the estimated serialized size
+     */
+    public static int estimateSerializedSize(CharSequence text) {
+        return TextChunker.serializedSize(text, 0, text.length());
+    }
+
+    /**
+     * Estimates the length of {@code attachment} once serialized as JSON. The estimate is exact for its text, and an
+     * upper bound for the JSON around it.
+     *
+     * @param attachment the {@link Attachment} to measure
+     * @return the estimated serialized size
+     */
+    public static int estimateSerializedSize(Attachment attachment) {
+        int size = ATTACHMENT_OVERHEAD + propertySize(attachment.fallback()) + propertySize(attachment.pretext())
+                + propertySize(attachment.text()) + uriSize(attachment.imageUrl()) + uriSize(attachment.thumbUrl());
+        if (attachment.color() != null) {
+            size += propertySize(attachment.color().value());
+        }
+        Author author = attachment.author();
+        if (author != null) {
+            size += propertySize(author.name()) + uriSize(author.link()) + uriSize(author.icon());
+        }
+        Title title = attachment.title();
+        if (title != null) {
+            size += propertySize(title.text()) + uriSize(title.link());
+        }
+        Footer footer = attachment.footer();
+        if (footer != null) {
+            size += propertySize(footer.text()) + uriSize(footer.icon())
+                    + (footer.timestamp().isPresent() ? PROPERTY_OVERHEAD : 0);
+        }
+        for (Field field : attachment.fields()) {
+            size += FIELD_OVERHEAD + estimateSerializedSize(field.title()) + estimateSerializedSize(field.value());
+        }
+        return size;
+    }
+
+    private static int propertySize(CharSequence value) {
+        return PROPERTY_OVERHEAD + estimateSerializedSize(value);
+    }
+
+    private static int propertySize(Optional<String> value) {
+        return value.map(MessageSplitter::propertySize).orElse(0);
+    }
+
+    private static int uriSize(Optional<URI> value) {
+        return value.map(uri -> propertySize(uri.toString())).orElse(0);
+    }
+
+    /**
+     * Sums the estimated sizes of {@code attachments}, stopping early once the sum exceeds {@code limit}.
+     */
+    private static int attachmentsSize(List<Attachment> attachments, int limit) {
+        int size = 0;
+        for (int i = 0; i < attachments.size() && size <= limit; i++) {
+            size += estimateSerializedSize(attachments.get(i));
+        }
+        return size;
+    }
+
+    /**
+     * Splits the text of {@code message} into as many {@link MessageRequest}s as needed.
+     *
+     * @param message the {@link MessageRequest} to split
+     * @return {@code message} itself if it needs no splitting, otherwise the split {@link MessageRequest}s in order
+     */
+    public final List<MessageRequest> split(MessageRequest message) {
+        checkNotNull(message, "Message cannot be null");
+        int textSize = estimateSerializedSize(message.text());
+        if (message.attachments().size() <= maxAttachments() && textSize <= maxTextSize()
+                && textSize + attachmentsSize(message.attachments(), maxMessageSize() - textSize)
+                <= maxMessageSize()) {
+            return ImmutableList.of(message);
+        }
+        return split(message, message.text(), message.attachments());
+    }
+
+    /**
+     * Splits {@code text} and {@code attachments}, which may exceed what a single {@link MessageRequest} can hold,
+     * into as many {@link MessageRequest}s as needed. Text fills the leading messages, and attachments are packed in
+     * order into the room left in each message by its text; every other property is copied from {@code template}.
+     *
+     * @param template the {@link MessageRequest} whose username, channel, icon and other properties are copied
+     * @param text the complete message text
+     * @param attachments every {@link Attachment} to send
+     * @return the split {@link MessageRequest}s, in order
+     */
+    public final List<MessageRequest> split(MessageRequest template, String text,
+            Iterable<? extends Attachment> attachments) {
+        checkNotNull(template, "Template message cannot be null");
+        checkNotNull(text, "Text cannot be null");
+        List<String> texts = TextChunker.split(text, maxTextSize());
+        List<Attachment> remaining = ImmutableList.copyOf(attachments);
+        ImmutableList.Builder<MessageRequest> messages = ImmutableList.builder();
+        int next = 0;
+        for (int i = 0; i < texts.size() || next < remaining.size(); i++) {
+            String chunk = i < texts.size() ? texts.get(i) : "";
+            int budget = maxMessageSize() - estimateSerializedSize(chunk);
+            int first = next;
+            while (next < remaining.size() && next - first < maxAttachments()) {
+                int size = estimateSerializedSize(remaining.get(next));
+                // An attachment too large for any message still gets one to itself
+                if (size > budget && (next > first || !chunk.isEmpty())) {
+                    break;
+                }
+                budget -= size;
+                next++;
+            }
+            messages.add(MessageRequest.builder()
+                    .from(template)
+                    .text(chunk)
+                    .attachments(remaining.subList(first, next))
+                    .build());
+        }
+        return messages.build();
+    }
+
+    public interface Builder {
+        Builder maxTextSize(int maxTextSize);
+
+        Builder maxMessageSize(int maxMessageSize);
+
+        Builder maxAttachments(int maxAttachments);
+
+        MessageSplitter build();
+    }
+
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.api;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.roboslack.api.attachments.Attachment;
+import com.palantir.roboslack.api.attachments.components.Field;
+import com.palantir.roboslack.jackson.ObjectMappers;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link MessageRequest} shape that is validated and serialized once, then rendered many times with different
+ * parameters. Any string in the shape, such as the message text, an {@link Attachment}'s text or a {@link Field}'s
+ * value, may contain {@code {{name}}} placeholders. Compiling the template splits its serialized JSON into constant
+ * byte segments around the placeholders, so rendering only JSON-escapes and copies the parameter values.
+ * <p>
+ * Because the shape is validated and inspected once, properties derived from its content, such as an attachment's
+ * {@code mrkdwn_in} inputs, reflect the template rather than the rendered values. Parameter values are inserted as-is;
+ * escape untrusted values with {@link com.palantir.roboslack.api.markdown.SlackEscaper} first.
+ *
+ * @since 1.1.0
+ */
+public final class MessageTemplate {
+
+    private static final byte[] OPEN = {'{', '{'};
+    private static final byte[] CLOSE = {'}', '}'};
+    private static final int VALUE_LENGTH_ESTIMATE = 32;
+
+    private final List<byte[]> segments;
+    private final List<String> placeholders;
+    private final Set<String> parameterNames;
+    private final int constantLength;
+
+    private MessageTemplate(List<byte[]> segments, List<String> placeholders) {
+        this.segments = segments;
+        this.placeholders = placeholders;
+        this.parameterNames = ImmutableSet.copyOf(placeholders);
+        this.constantLength = segments.stream().mapToInt(segment -> segment.length).sum();
+    }
+
+    /**
+     * Compiles {@code shape}, a fully built and therefore validated {@link MessageRequest} whose strings may contain
+     * {@code {{name}}} placeholders.
+     *
+     * @param shape the {@link MessageRequest} to compile
+     * @return the compiled {@link MessageTemplate}
+     */
+    public static MessageTemplate compile(MessageRequest shape) {
+        checkNotNull(shape, "Template message cannot be null");
+        byte[] json;
+        try {
+            json = ObjectMappers.writerFor(MessageRequest.class).writeValueAsBytes(shape);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize template message", e);
+        }
+        ImmutableList.Builder<byte[]> segments = ImmutableList.builder();
+        ImmutableList.Builder<String> placeholders = ImmutableList.builder();
+        int segmentStart = 0;
+        int open = indexOf(json, OPEN, 0);
+        while (open >= 0) {
+            int close = indexOf(json, CLOSE, open + OPEN.length);
+            if (close < 0) {
+                break;
+            }
+            String name = placeholderName(json, open + OPEN.length, close);
+            if (name == null) {
+                open = indexOf(json, OPEN, open + 1);
+            } else {
+                segments.add(Arrays.copyOfRange(json, segmentStart, open));
+                placeholders.add(name);
+                segmentStart = close + CLOSE.length;
+                open = indexOf(json, OPEN, segmentStart);
+            }
+        }
+        segments.add(Arrays.copyOfRange(json, segmentStart, json.length));
+        return new MessageTemplate(segments.build(), placeholders.build());
+    }
+
+    /**
+     * The names of the placeholders in this template.
+     *
+     * @return the parameter names
+     */
+    public Set<String> parameterNames() {
+        return parameterNames;
+    }
+
+    /**
+     * Renders this template to JSON with {@code parameters} substituted for its placeholders.
+     *
+     * @param parameters the value for each of {@link #parameterNames()}, rendered with {@link String#valueOf(Object)}
+     * @return the UTF-8 encoded JSON message
+     * @throws IllegalArgumentException if a parameter is missing
+     */
+    public byte[] render(Map<String, ?> parameters) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(
+                constantLength + placeholders.size() * VALUE_LENGTH_ESTIMATE);
+        try {
+            renderTo(parameters, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Renders this template to JSON with {@code parameters} substituted for its placeholders, writing straight into
+     * {@code out}.
+     *
+     * @param parameters the value for each of {@link #parameterNames()}, rendered with {@link String#valueOf(Object)}
+     * @param out the {@link OutputStream} to write the UTF-8 encoded JSON message to
+     * @throws IOException if {@code out} fails to write
+     * @throws IllegalArgumentException if a parameter is missing
+     */
+    public void renderTo(Map<String, ?> parameters, OutputStream out) throws IOException {
+        checkNotNull(parameters, "Parameters cannot be null");
+        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        for (int i = 0; i < placeholders.size(); i++) {
+            out.write(segments.get(i));
+            Object value = parameters.get(placeholders.get(i));
+            checkArgument(value != null, "No value for template parameter '%s'", placeholders.get(i));
+            out.write(encoder.quoteAsUTF8(String.valueOf(value)));
+        }
+        out.write(segments.get(placeholders.size()));
+    }
+
+    private static String placeholderName(byte[] json, int start, int end) {
+        if (start == end) {
+            return null;
+        }
+        for (int i = start; i < end; i++) {
+            if (!isNameByte(json[i])) {
+                return null;
+            }
+        }
+        return new String(json, start, end - start, StandardCharsets.US_ASCII);
+    }
+
+    private static boolean isNameByte(byte value) {
+        return (value >= 'a' && value <= 'z') || (value >= 'A' && value <= 'Z') || (value >= '0' && value <= '9')
+                || value == '_' || value == '.' || value == '-';
+    }
+
+    private static int indexOf(byte[] bytes, byte[] target, int from) {
+        for (int i = from; i <= bytes.length - target.length; i++) {
+            int matched = 0;
+            while (matched < target.length && bytes[i + matched] == target[matched]) {
+                matched++;
+            }
+            if (matched == target.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
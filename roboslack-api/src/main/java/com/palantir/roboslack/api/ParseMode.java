@@ -17,11 +17,14 @@
 package com.palantir.roboslack.api;
 
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.palantir.roboslack.utils.EnumLookup;
+import java.util.Locale;
 import javax.annotation.CheckForNull;
 
 /**
@@ -47,20 +50,21 @@ public enum ParseMode {
     FULL,
     NONE;
 
+    private static final EnumLookup<ParseMode> LOOKUP = EnumLookup.of(ParseMode.class, ParseMode::toString);
+
+    private final String wireName = name().toLowerCase(Locale.ROOT);
+
     @JsonCreator
     public static ParseMode of(@CheckForNull String value) {
         checkNotNull(value, "ParseMode value cannot be null");
-        for (ParseMode parseMode : ParseMode.values()) {
-            if (parseMode.toString().equalsIgnoreCase(value)) {
-                return parseMode;
-            }
-        }
-        throw new IllegalArgumentException(String.format("ParseMode value '%s' is not a valid", value));
+        ParseMode parseMode = LOOKUP.getIfPresent(value);
+        checkArgument(parseMode != null, "ParseMode value '%s' is not a valid", value);
+        return parseMode;
     }
 
     @Override
     public String toString() {
-        return super.toString().toLowerCase();
+        return wireName;
     }
 
 }
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.api;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.roboslack.api.markdown.SlackMarkdown;
+import java.util.List;
+
+/**
+ * Splits text into chunks whose estimated serialized size fits a budget, breaking on line boundaries where possible.
+ * A chunk that ends inside a {@link SlackMarkdown#PREFORMAT_MULTILINE} block is closed, and the block is reopened at
+ * the start of the next chunk, so that every chunk renders on its own.
+ */
+final class TextChunker {
+
+    private static final String FENCE = SlackMarkdown.PREFORMAT_MULTILINE_DECORATION;
+    private static final int NEWLINE_SIZE = serializedSize('\n');
+    private static final int CLOSING_FENCE_SIZE = NEWLINE_SIZE + FENCE.length();
+    private static final int ESCAPED_SIZE = 2;
+    private static final int UNICODE_ESCAPED_SIZE = 6;
+
+    private final int budget;
+    private final ImmutableList.Builder<String> chunks = ImmutableList.builder();
+    private final StringBuilder chunk = new StringBuilder();
+    private int chunkSize;
+    private boolean hasLines;
+    private boolean inFence;
+
+    private TextChunker(int maxSize) {
+        this.budget = maxSize - CLOSING_FENCE_SIZE;
+    }
+
+    static List<String> split(String text, int maxSize) {
+        if (serializedSize(text, 0, text.length()) <= maxSize) {
+            return ImmutableList.of(text);
+        }
+        TextChunker chunker = new TextChunker(maxSize);
+        int start = 0;
+        while (start <= text.length()) {
+            int end = text.indexOf('\n', start);
+            if (end < 0) {
+                end = text.length();
+            }
+            chunker.addLine(text, start, end);
+            start = end + 1;
+        }
+        chunker.chunks.add(chunker.chunk.toString());
+        return chunker.chunks.build();
+    }
+
+    /**
+     * Estimates how many characters {@code character} occupies once escaped in a JSON string.
+     */
+    static int serializedSize(char character) {
+        if (character == '"' || character == '\\') {
+            return ESCAPED_SIZE;
+        }
+        if (character >= ' ') {
+            return 1;
+        }
+        switch (character) {
+            case '\n':
+            case '\r':
+            case '\t':
+            case '\b':
+            case '\f':
+                return ESCAPED_SIZE;
+            default:
+                return UNICODE_ESCAPED_SIZE;
+        }
+    }
+
+    /**
+     * Estimates how many characters the region of {@code text} occupies once escaped in a JSON string.
+     */
+    static int serializedSize(CharSequence text, int start, int end) {
+        int size = 0;
+        for (int i = start; i < end; i++) {
+            size += serializedSize(text.charAt(i));
+        }
+        return size;
+    }
+
+    /**
+     * Returns true if the next line must be separated from the chunk so far: the chunk has lines, which may be blank,
+     * or starts with a reopened preformatted block fence.
+     */
+    private boolean needsSeparator() {
+        return hasLines || chunk.length() > 0;
+    }
+
+    private int separatorSize() {
+        return needsSeparator() ? NEWLINE_SIZE : 0;
+    }
+
+    private void addLine(String text, int start, int end) {
+        int size = serializedSize(text, start, end);
+        if (hasLines && chunkSize + NEWLINE_SIZE + size > budget) {
+            flush();
+        }
+        if (chunkSize + separatorSize() + size <= budget) {
+            append(text, start, end, size);
+            return;
+        }
+        int pieceStart = start;
+        while (pieceStart < end) {
+            int pieceEnd = fit(text, pieceStart, end, budget - chunkSize - separatorSize());
+            if (pieceEnd == pieceStart) {
+                flush();
+            } else {
+                append(text, pieceStart, pieceEnd, serializedSize(text, pieceStart, pieceEnd));
+                pieceStart = pieceEnd;
+            }
+        }
+    }
+
+    /**
+     * Returns the end of the longest region of {@code text} from {@code start} that fits {@code room}, without
+     * splitting a surrogate pair.
+     */
+    private static int fit(String text, int start, int end, int room) {
+        int used = 0;
+        int index = start;
+        while (index < end && used + serializedSize(text.charAt(index)) <= room) {
+            used += serializedSize(text.charAt(index));
+            index++;
+        }
+        if (index > start && index < end && Character.isHighSurrogate(text.charAt(index - 1))) {
+            index--;
+        }
+        return index;
+    }
+
+    private void append(String text, int start, int end, int size) {
+        if (needsSeparator()) {
+            chunk.append('\n');
+            chunkSize += NEWLINE_SIZE;
+        }
+        chunk.append(text, start, end);
+        chunkSize += size;
+        hasLines = true;
+        int index = start;
+        while (index + FENCE.length() <= end) {
+            if (text.startsWith(FENCE, index)) {
+                inFence = !inFence;
+                index += FENCE.length();
+            } else {
+                index++;
+            }
+        }
+    }
+
+    private void flush() {
+        if (inFence) {
+            chunk.append('\n').append(FENCE);
+        }
+        chunks.add(chunk.toString());
+        chunk.setLength(0);
+        chunkSize = 0;
+        hasLines = false;
+        if (inFence) {
+            chunk.append(FENCE);
+            chunkSize = FENCE.length();
+        }
+    }
+
+}
@@ -18,24 +18,33 @@ package com.palantir.roboslack.api.attachments;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonUnwrapped;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
 import com.palantir.roboslack.api.attachments.components.Author;
 import com.palantir.roboslack.api.attachments.components.Color;
 import com.palantir.roboslack.api.attachments.components.Field;
 import com.palantir.roboslack.api.attachments.components.Footer;
 import com.palantir.roboslack.api.attachments.components.Title;
 import com.palantir.roboslack.api.markdown.MarkdownInput;
-import com.palantir.roboslack.utils.MorePreconditions;
+import com.palantir.roboslack.api.markdown.MarkdownScanner;
+import com.palantir.roboslack.api.markdown.MarkdownTruncator;
+import com.palantir.roboslack.api.markdown.PlainTextRenderer;
+import com.palantir.roboslack.api.markdown.SlackMarkdown;
+import com.palantir.roboslack.jackson.CacheableFragment;
+import com.palantir.roboslack.utils.MoreUris;
+import java.net.URI;
 import java.net.URL;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.immutables.value.Value;
@@ -49,6 +58,7 @@ import org.immutables.value.Value;
 @Value.Immutable
 @JsonDeserialize(as = ImmutableAttachment.class)
 @JsonSerialize(as = ImmutableAttachment.class)
+@CacheableFragment
 public abstract class Attachment {
 
     /**
@@ -59,6 +69,13 @@ public abstract class Attachment {
     private static final String IMAGE_URL_FIELD = "image_url";
     private static final String THUMB_URL_FIELD = "thumb_url";
     private static final String MARKDOWN_INPUTS_FIELD = "mrkdwn_in";
+    private static final String COLOR_FIELD = "color";
+    private static final String TITLE_FIELD = "title";
+    private static final String FOOTER_FIELD = "footer";
+
+    private static final String EMPTY_FALLBACK_ERROR = "Attachment fallback message cannot be null or empty";
+    private static final String MISSING_FALLBACK_ERROR =
+            "Cannot build Attachment, fallback is not set and there is no pretext or text to derive it from";
 
     /**
      * Generate a new {@link Attachment.Builder}.
@@ -71,7 +88,62 @@ public abstract class Attachment {
 
     @Value.Check
     protected final void check() {
-        checkArgument(!Strings.isNullOrEmpty(fallback()), "Attachment fallback message cannot be null or empty");
+        if (!trusted()) {
+            checkArgument(!Strings.isNullOrEmpty(fallback()), EMPTY_FALLBACK_ERROR);
+        }
+    }
+
+    /**
+     * Collects every violation of Slack's guidelines by this {@link Attachment} and its {@link Color}, {@link Title}
+     * and {@link Footer}, including any that were skipped because they were built as trusted. Each component checks
+     * itself when built, so a trusted producer has to build its components as trusted too for all checks to be
+     * skipped.
+     *
+     * @return the violations, or an empty {@link List} if there are none
+     * @see #trusted()
+     */
+    public final List<String> violations() {
+        ImmutableList.Builder<String> violations = ImmutableList.builder();
+        if (Strings.isNullOrEmpty(fallback())) {
+            violations.add(EMPTY_FALLBACK_ERROR);
+        }
+        if (color() != null) {
+            addViolations(violations, COLOR_FIELD, color().violations());
+        }
+        if (title() != null) {
+            addViolations(violations, TITLE_FIELD, title().violations());
+        }
+        if (footer() != null) {
+            addViolations(violations, FOOTER_FIELD, footer().violations());
+        }
+        return violations.build();
+    }
+
+    private static void addViolations(ImmutableList.Builder<String> violations, String component,
+            List<String> componentViolations) {
+        for (String violation : componentViolations) {
+            violations.add(String.format("%s: %s", component, violation));
+        }
+    }
+
+    @Value.Check
+    final Attachment normalizedCopy() {
+        if (!maxTextLength().isPresent()) {
+            return this;
+        }
+        int maxLength = maxTextLength().getAsInt();
+        String fallback = MarkdownTruncator.truncate(fallback(), maxLength);
+        Optional<String> pretext = pretext().map(value -> MarkdownTruncator.truncate(value, maxLength));
+        Optional<String> text = text().map(value -> MarkdownTruncator.truncate(value, maxLength));
+        if (fallback.equals(fallback()) && pretext.equals(pretext()) && text.equals(text())) {
+            return this;
+        }
+        return ImmutableAttachment.builder()
+                .from(this)
+                .fallback(fallback)
+                .pretext(pretext)
+                .text(text)
+                .build();
     }
 
     /**
@@ -89,11 +161,22 @@ public abstract class Attachment {
      * The plaintext summary of this {@link Attachment} used in clients that don't display formatted text. <br/>
      * <b>Note:</b> If this text contains any {@link com.palantir.roboslack.api.markdown.SlackMarkdown} special
      * characters, they will be treated as literal plaintext characters when rendered in any Slack client.
+     * <p>
+     * If no {@code fallback} is set, it is derived from {@link Attachment#pretext()} and {@link Attachment#text()},
+     * rendered as plain text with {@link PlainTextRenderer}.
      *
      * @return the {@code fallback} text
      */
+    @Value.Default
     @JsonProperty(FALLBACK_FIELD)
-    public abstract String fallback();
+    public String fallback() {
+        if (pretext().isPresent() && text().isPresent()) {
+            return PlainTextRenderer.render(pretext().get() + SlackMarkdown.NEWLINE_SEPARATOR + text().get());
+        }
+        return pretext().map(Optional::of).orElse(text())
+                .map(PlainTextRenderer::render)
+                .orElseThrow(() -> new IllegalStateException(MISSING_FALLBACK_ERROR));
+    }
 
     /**
      * The {@link Color} to display on the sidebar next to the {@link Attachment}.
@@ -151,19 +234,19 @@ public abstract class Attachment {
     public abstract Optional<String> text();
 
     /**
-     * The {@link URL} referencing an image that is displayed inside the message attachment.  The supported formats
+     * The {@link URI} referencing an image that is displayed inside the message attachment.  The supported formats
      * are: GIF, JPEG, PNG, and BMP.
      * <p>
      * Large images will be resized to a maximum width of 400px or a maximum height of 500px, while still maintaining
      * the original aspect ratio.
      *
-     * @return an {@link Optional} containing the image {@link URL}
+     * @return an {@link Optional} containing the image {@link URI}
      */
     @JsonProperty(IMAGE_URL_FIELD)
-    public abstract Optional<URL> imageUrl();
+    public abstract Optional<URI> imageUrl();
 
     /**
-     * The {@link URL} to an image file that will be displayed as a thumbnail on the left-hand side of a message {@link
+     * The {@link URI} to an image file that will be displayed as a thumbnail on the left-hand side of a message {@link
      * Attachment}. The supported formats are: GIF, JPEG, PNG, and BMP.
      * <p>
      * The thumbnail's longest dimension will be scaled down to 75px while maintaining the aspect ratio of the image.
@@ -171,10 +254,10 @@ public abstract class Attachment {
      * <p>
      * For best results, use images that are already 75px by 75px.
      *
-     * @return an {@link Optional} containing the thumb {@link URL}
+     * @return an {@link Optional} containing the thumb {@link URI}
      */
     @JsonProperty(THUMB_URL_FIELD)
-    public abstract Optional<URL> thumbUrl();
+    public abstract Optional<URI> thumbUrl();
 
     /**
      * The {@link Footer} for this {@link Attachment}. This will appear below the body of the main message
@@ -189,6 +272,34 @@ public abstract class Attachment {
         return null;
     }
 
+    /**
+     * The length beyond which {@link Attachment#fallback()}, {@link Attachment#pretext()} and {@link Attachment#text()}
+     * are truncated with {@link MarkdownTruncator}, keeping their {@link
+     * com.palantir.roboslack.api.markdown.SlackMarkdown} intact. Not sent to Slack.
+     *
+     * @return the maximum text length, if text should be truncated
+     */
+    @JsonIgnore
+    @Value.Auxiliary
+    public abstract OptionalInt maxTextLength();
+
+    /**
+     * Whether this {@link Attachment} comes from a trusted producer and should skip its checks when built.
+     * Normalization still applies, and trusted producers that know their {@link #markdownInputs()} can set them to
+     * skip scanning the text as well. Its {@link Color}, {@link Title} and {@link Footer} are checked when they are
+     * built, so they have to be built as trusted separately. Not sent to Slack.
+     *
+     * @return true to skip checks when building, false otherwise
+     * @see #violations()
+     * @see com.palantir.roboslack.api.MessageRequest#validate()
+     */
+    @JsonIgnore
+    @Value.Default
+    @Value.Auxiliary
+    public boolean trusted() {
+        return false;
+    }
+
     /**
      * A special list of flags that tells Slack where to expect Markdown in an Attachment.
      * Valid values are ["pretext", "text", "fields"].
@@ -198,23 +309,22 @@ public abstract class Attachment {
     @Value.Default
     @JsonProperty(MARKDOWN_INPUTS_FIELD)
     public Set<MarkdownInput> markdownInputs() {
-        // inspect the values of the Attachment object and create the mrkdwnIn list.
-        ImmutableSet.Builder<MarkdownInput> markdownInputs = ImmutableSet.builder();
-        // check if the pretext contains Markdown.
-        if (pretext().isPresent() && MorePreconditions.containsMarkdown(pretext().get())) {
+        // inspect the values of the Attachment object in one pass and create the mrkdwnIn list.
+        Set<MarkdownInput> markdownInputs = EnumSet.noneOf(MarkdownInput.class);
+        if (MarkdownScanner.containsMarkdown(pretext().orElse(null))) {
             markdownInputs.add(MarkdownInput.PRETEXT);
         }
-        // check if the text contains Markdown.
-        if (text().isPresent() && MorePreconditions.containsMarkdown(text().get())) {
+        if (MarkdownScanner.containsMarkdown(text().orElse(null))) {
             markdownInputs.add(MarkdownInput.TEXT);
         }
-        // check if any of the Fields' values contain Markdown.
-        fields().stream()
-                .map(Field::value)
-                .filter(MorePreconditions::containsMarkdown)
-                .findFirst()
-                .ifPresent(ignored -> markdownInputs.add(MarkdownInput.FIELDS));
-        return markdownInputs.build();
+        // stop at the first Field value containing Markdown.
+        for (Field field : fields()) {
+            if (MarkdownScanner.containsMarkdown(field.value())) {
+                markdownInputs.add(MarkdownInput.FIELDS);
+                break;
+            }
+        }
+        return Sets.immutableEnumSet(markdownInputs);
     }
 
     public interface Builder {
@@ -236,12 +346,26 @@ public abstract class Attachment {
 
         Builder fields(Iterable<? extends Field> elements);
 
-        Builder imageUrl(URL imageUrl);
+        Builder imageUrl(URI imageUrl);
+
+        default Builder imageUrl(URL imageUrl) {
+            return imageUrl(MoreUris.fromUrl(imageUrl));
+        }
+
+        Builder thumbUrl(URI thumbUrl);
 
-        Builder thumbUrl(URL thumbUrl);
+        default Builder thumbUrl(URL thumbUrl) {
+            return thumbUrl(MoreUris.fromUrl(thumbUrl));
+        }
 
         Builder footer(Footer footer);
 
+        Builder markdownInputs(Iterable<MarkdownInput> markdownInputs);
+
+        Builder maxTextLength(int maxTextLength);
+
+        Builder trusted(boolean trusted);
+
         Attachment build();
     }
 
@@ -19,6 +19,10 @@ package com.palantir.roboslack.api.attachments.components;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.palantir.roboslack.utils.MoreUris;
+import java.net.URI;
 import java.net.URL;
 import java.util.Optional;
 import org.immutables.value.Value;
@@ -39,6 +43,8 @@ public abstract class Author {
     private static final String LINK_FIELD = "author_link";
     private static final String ICON_FIELD = "author_icon";
 
+    private static final Interner<Author> INTERNER = Interners.newWeakInterner();
+
     public static Builder builder() {
         return ImmutableAuthor.builder();
     }
@@ -47,6 +53,16 @@ public abstract class Author {
         return builder().name(name).build();
     }
 
+    /**
+     * Returns the canonical instance equal to this {@link Author}, so an author repeated across many attachments is
+     * held once. Interned instances are only weakly referenced.
+     *
+     * @return the interned {@link Author}
+     */
+    public final Author intern() {
+        return INTERNER.intern(this);
+    }
+
     @Value.Check
     protected final void check() {
 
@@ -63,28 +79,36 @@ public abstract class Author {
     public abstract String name();
 
     /**
-     * A valid {@link URL} that will be applied to the {@link Author#name()}.
+     * A valid {@link URI} that will be applied to the {@link Author#name()}.
      *
      * @return an {@link Optional} containing the link applied to the {@code name} for the {@link Author}
      */
     @JsonProperty(LINK_FIELD)
-    public abstract Optional<URL> link();
+    public abstract Optional<URI> link();
 
     /**
-     * A valid {@link URL} that referencing a small 16x16px image that is displayed the left of the {@link
+     * A valid {@link URI} that referencing a small 16x16px image that is displayed the left of the {@link
      * Author#name()}.
      *
      * @return an {@link Optional} containing the link to the {@code icon} for the {@link Author}
      */
     @JsonProperty(ICON_FIELD)
-    public abstract Optional<URL> icon();
+    public abstract Optional<URI> icon();
 
     public interface Builder {
         Builder name(String name);
 
-        Builder link(URL link);
+        Builder link(URI link);
+
+        default Builder link(URL link) {
+            return link(MoreUris.fromUrl(link));
+        }
+
+        Builder icon(URI icon);
 
-        Builder icon(URL icon);
+        default Builder icon(URL icon) {
+            return icon(MoreUris.fromUrl(icon));
+        }
 
         Author build();
     }
@@ -16,6 +16,8 @@
 
 package com.palantir.roboslack.api.attachments.components;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreType;
 import com.fasterxml.jackson.annotation.JsonValue;
@@ -24,10 +26,18 @@ import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.google.common.base.Joiner;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.palantir.roboslack.utils.EnumLookup;
 import com.palantir.roboslack.utils.MorePreconditions;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import javax.annotation.CheckForNull;
 import org.immutables.value.Value;
 
@@ -43,17 +53,62 @@ import org.immutables.value.Value;
 @JsonDeserialize(using = Color.Deserializer.class)
 public abstract class Color {
 
+    private static final int MAX_CACHED_HEX_COLORS = 1024;
+
+    private static final Map<Preset, Color> PRESETS = Arrays.stream(Preset.values())
+            .collect(Maps.toImmutableEnumMap(Function.identity(), preset -> builder().value(preset.value()).build()));
+    private static final Cache<String, Color> HEX_COLORS = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_HEX_COLORS)
+            .build();
+
     private static Builder builder() {
         return ImmutableColor.builder();
     }
 
+    /**
+     * Gets the canonical {@link Color} instance for {@code preset}.
+     *
+     * @param preset the {@link Preset}
+     * @return the {@link Color}
+     */
     public static Color of(Preset preset) {
-        return builder().value(preset.toString()).build();
+        return PRESETS.get(checkNotNull(preset, "Color preset cannot be null"));
     }
 
+    /**
+     * Gets the {@link Color} for a {@link Preset} name or hex color value. Presets and recently used hex colors
+     * resolve to shared instances, so they are only validated once.
+     *
+     * @param value the {@link Preset} name or hex color
+     * @return the {@link Color}
+     */
     @JsonCreator
     public static Color of(String value) {
-        return builder().value(value).build();
+        checkNotNull(value, "Color value cannot be null");
+        Optional<Preset> preset = Preset.of(value);
+        if (preset.isPresent()) {
+            return of(preset.get());
+        }
+        Color color = HEX_COLORS.getIfPresent(value);
+        if (color == null) {
+            color = builder().value(value).build();
+            HEX_COLORS.put(value, color);
+        }
+        return color;
+    }
+
+    /**
+     * Gets the {@link Color} for a {@link Preset} name or hex color value from a trusted producer, without checking
+     * it. Trusted hex colors are not shared.
+     *
+     * @param value the {@link Preset} name or hex color
+     * @return the {@link Color}
+     * @see #violations()
+     */
+    public static Color ofTrusted(String value) {
+        checkNotNull(value, "Color value cannot be null");
+        Optional<Preset> preset = Preset.of(value);
+        return preset.isPresent() ? of(preset.get()) : builder().value(value).trusted(true).build();
     }
 
     public static Color good() {
@@ -70,18 +125,46 @@ public abstract class Color {
 
     @Value.Check
     final Color normalize() {
-        return value().toLowerCase().equals(value())
-                ? this
-                : of(value().toLowerCase());
+        if (value().toLowerCase().equals(value())) {
+            return this;
+        }
+        return trusted() ? ofTrusted(value().toLowerCase()) : of(value().toLowerCase());
     }
 
     @Value.Check
     protected final void check() {
-        if (!Preset.of(value()).isPresent()) {
-            MorePreconditions.checkHexColor(value());
+        if (!trusted()) {
+            MorePreconditions.checkViolations(violations());
         }
     }
 
+    /**
+     * Collects every violation of Slack's guidelines by this {@link Color}, including any that were skipped because
+     * it was created with {@link #ofTrusted(String)}.
+     *
+     * @return the violations, or an empty {@link List} if there are none
+     */
+    public final List<String> violations() {
+        if (Preset.of(value()).isPresent()) {
+            return ImmutableList.of();
+        }
+        return MorePreconditions.hexColorViolation(value())
+                .map(ImmutableList::of)
+                .orElseGet(ImmutableList::of);
+    }
+
+    /**
+     * Whether this {@link Color} comes from a trusted producer and skipped its checks when created.
+     *
+     * @return true if checks were skipped, false otherwise
+     * @see #ofTrusted(String)
+     */
+    @Value.Default
+    @Value.Auxiliary
+    public boolean trusted() {
+        return false;
+    }
+
     /**
      * True if this {@link Color} is a defined {@link Preset}, false otherwise.
      *
@@ -89,7 +172,6 @@ public abstract class Color {
      */
     @Value.Derived
     public boolean isPreset() {
-        Preset.DANGER.value();
         return Preset.of(value()).isPresent();
     }
 
@@ -130,6 +212,8 @@ public abstract class Color {
          */
         DANGER("danger");
 
+        private static final EnumLookup<Preset> LOOKUP = EnumLookup.of(Preset.class, Preset::value);
+
         private final String value;
 
         Preset(String value) {
@@ -137,9 +221,7 @@ public abstract class Color {
         }
 
         public static Optional<Preset> of(@CheckForNull String value) {
-            return Arrays.stream(Preset.values())
-                    .filter(preset -> preset.toString().equalsIgnoreCase(value))
-                    .findFirst();
+            return LOOKUP.find(value);
         }
 
         @Override
@@ -154,6 +236,7 @@ public abstract class Color {
 
     protected interface Builder {
         Builder value(String value);
+        Builder trusted(boolean trusted);
         Color build();
     }
 
@@ -16,9 +16,15 @@
 
 package com.palantir.roboslack.api.attachments.components;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.palantir.roboslack.api.markdown.MarkdownTruncator;
+import com.palantir.roboslack.jackson.CacheableFragment;
+import java.util.OptionalInt;
 import org.immutables.value.Value;
 
 /**
@@ -30,12 +36,15 @@ import org.immutables.value.Value;
 @Value.Immutable
 @JsonDeserialize(as = ImmutableField.class)
 @JsonSerialize(as = ImmutableField.class)
+@CacheableFragment
 public abstract class Field {
 
     private static final String TITLE_FIELD = "title";
     private static final String VALUE_FIELD = "value";
     private static final String SHORT_FIELD = "short";
 
+    private static final Interner<Field> INTERNER = Interners.newWeakInterner();
+
     public static Builder builder() {
         return ImmutableField.builder();
     }
@@ -44,6 +53,17 @@ public abstract class Field {
         return builder().title(title).value(value).build();
     }
 
+    /**
+     * Returns the canonical instance equal to this {@link Field}, eg. to share the static fields of high-volume
+     * attachments, which also lets the serialized fragment cache reuse their JSON. Interned instances are only weakly
+     * referenced.
+     *
+     * @return the interned {@link Field}
+     */
+    public final Field intern() {
+        return INTERNER.intern(this);
+    }
+
     /**
      * Indicator for whether the {@link Field#value()} is short enough to be displayed side-by-side with other values.
      * Usually, anything longer than forty characters would be considered long (isShort = false).
@@ -61,6 +81,15 @@ public abstract class Field {
 
     }
 
+    @Value.Check
+    final Field normalizedCopy() {
+        if (!maxValueLength().isPresent() || value().length() <= maxValueLength().getAsInt()) {
+            return this;
+        }
+        return ImmutableField.copyOf(this)
+                .withValue(MarkdownTruncator.truncate(value(), maxValueLength().getAsInt()));
+    }
+
     /**
      * The bold heading above the {@link Field#value()} text. <br/>
      * <b>Note:</b> If this text contains any {@link com.palantir.roboslack.api.markdown.SlackMarkdown} special
@@ -80,6 +109,16 @@ public abstract class Field {
     @JsonProperty(VALUE_FIELD)
     public abstract String value();
 
+    /**
+     * The length beyond which {@link Field#value()} is truncated with {@link MarkdownTruncator}, keeping its {@link
+     * com.palantir.roboslack.api.markdown.SlackMarkdown} intact. Not sent to Slack.
+     *
+     * @return the maximum value length, if the value should be truncated
+     */
+    @JsonIgnore
+    @Value.Auxiliary
+    public abstract OptionalInt maxValueLength();
+
     public interface Builder {
         Builder title(String title);
 
@@ -87,6 +126,8 @@ public abstract class Field {
 
         Builder isShort(boolean isShort);
 
+        Builder maxValueLength(int maxValueLength);
+
         Field build();
     }
 
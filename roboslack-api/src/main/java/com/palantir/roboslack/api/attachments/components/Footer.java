@@ -21,10 +21,15 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.palantir.roboslack.api.markdown.MarkdownTruncator;
 import com.palantir.roboslack.utils.MorePreconditions;
+import com.palantir.roboslack.utils.MoreUris;
+import java.net.URI;
 import java.net.URL;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.List;
 import java.util.Optional;
 import org.immutables.value.Value;
 
@@ -56,13 +61,45 @@ public abstract class Footer {
 
     @Value.Check
     protected final void check() {
-        MorePreconditions.checkCharacterLength(TEXT_FIELD, text(), MAX_FOOTER_CHARACTER_LENGTH);
+        if (!trusted()) {
+            MorePreconditions.checkViolations(violations());
+        }
+    }
+
+    /**
+     * Collects every violation of Slack's guidelines by this {@link Footer}, including any that were skipped because
+     * it was built as {@link #trusted()}.
+     *
+     * @return the violations, or an empty {@link List} if there are none
+     */
+    public final List<String> violations() {
+        if (autoTruncate()) {
+            return ImmutableList.of();
+        }
+        return MorePreconditions.characterLengthViolation(TEXT_FIELD, text(), MAX_FOOTER_CHARACTER_LENGTH)
+                .map(ImmutableList::of)
+                .orElseGet(ImmutableList::of);
+    }
+
+    @Value.Check
+    final Footer normalizedCopy() {
+        if (!autoTruncate() || text().length() <= MAX_FOOTER_CHARACTER_LENGTH) {
+            return this;
+        }
+        return ImmutableFooter.copyOf(this)
+                .withText(MarkdownTruncator.truncate(text(), MAX_FOOTER_CHARACTER_LENGTH));
     }
 
     public interface Builder {
         Builder text(String text);
-        Builder icon(URL icon);
+        Builder autoTruncate(boolean autoTruncate);
+        Builder icon(URI icon);
+
+        default Builder icon(URL icon) {
+            return icon(MoreUris.fromUrl(icon));
+        }
         Builder timestamp(long timestamp);
+        Builder trusted(boolean trusted);
         Footer build();
     }
 
@@ -77,13 +114,40 @@ public abstract class Footer {
     public abstract String text();
 
     /**
-     * The {@link URL} that represents what will be rendered as a small icon beside the {@link Footer#text()}.  The icon
+     * Whether a {@link Footer#text()} that is too long should be truncated with {@link MarkdownTruncator} instead of
+     * failing the build. Not sent to Slack.
+     *
+     * @return true to truncate long text, false otherwise
+     */
+    @JsonIgnore
+    @Value.Default
+    @Value.Auxiliary
+    public boolean autoTruncate() {
+        return false;
+    }
+
+    /**
+     * Whether this {@link Footer} comes from a trusted producer and should skip its checks when built. Normalization
+     * still applies. Not sent to Slack.
+     *
+     * @return true to skip checks when building, false otherwise
+     * @see #violations()
+     */
+    @JsonIgnore
+    @Value.Default
+    @Value.Auxiliary
+    public boolean trusted() {
+        return false;
+    }
+
+    /**
+     * The {@link URI} that represents what will be rendered as a small icon beside the {@link Footer#text()}.  The icon
      * gets rendered as a 16px by 16px image, so it's best to use an image that is similarly sized.
      *
-     * @return the icon {@link URL}
+     * @return the icon {@link URI}
      */
     @JsonProperty(ICON_FIELD)
-    public abstract Optional<URL> icon();
+    public abstract Optional<URI> icon();
 
     /**
      * The UNIX epoch timestamp in UTC to append to this {@link Footer}.
@@ -16,13 +16,19 @@
 
 package com.palantir.roboslack.api.attachments.components;
 
-import static com.google.common.base.Preconditions.checkArgument;
-
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.palantir.roboslack.utils.MorePreconditions;
+import com.palantir.roboslack.utils.MoreUris;
+import java.net.URI;
 import java.net.URL;
+import java.util.List;
 import java.util.Optional;
 import org.immutables.value.Value;
 
@@ -40,6 +46,10 @@ public abstract class Title {
     private static final String TEXT_FIELD = "title";
     private static final String LINK_FIELD = "title_link";
 
+    private static final String EMPTY_TEXT_ERROR = "The title text field cannot be null or empty";
+
+    private static final Interner<Title> INTERNER = Interners.newWeakInterner();
+
     public static Builder builder() {
         return ImmutableTitle.builder();
     }
@@ -48,9 +58,30 @@ public abstract class Title {
         return builder().text(text).build();
     }
 
+    /**
+     * Returns the canonical instance equal to this {@link Title}. Interned instances are only weakly referenced.
+     *
+     * @return the interned {@link Title}
+     */
+    public final Title intern() {
+        return INTERNER.intern(this);
+    }
+
     @Value.Check
     protected final void check() {
-        checkArgument(!Strings.isNullOrEmpty(text()), "The title text field cannot be null or empty");
+        if (!trusted()) {
+            MorePreconditions.checkViolations(violations());
+        }
+    }
+
+    /**
+     * Collects every violation of Slack's guidelines by this {@link Title}, including any that were skipped because
+     * it was built as {@link #trusted()}.
+     *
+     * @return the violations, or an empty {@link List} if there are none
+     */
+    public final List<String> violations() {
+        return Strings.isNullOrEmpty(text()) ? ImmutableList.of(EMPTY_TEXT_ERROR) : ImmutableList.of();
     }
 
     /**
@@ -69,12 +100,32 @@ public abstract class Title {
      * @return the URL link
      */
     @JsonProperty(LINK_FIELD)
-    public abstract Optional<URL> link();
+    public abstract Optional<URI> link();
+
+    /**
+     * Whether this {@link Title} comes from a trusted producer and should skip its checks when built. Not sent to
+     * Slack.
+     *
+     * @return true to skip checks when building, false otherwise
+     * @see #violations()
+     */
+    @JsonIgnore
+    @Value.Default
+    @Value.Auxiliary
+    public boolean trusted() {
+        return false;
+    }
 
     public interface Builder {
         Builder text(String text);
 
-        Builder link(URL link);
+        Builder link(URI link);
+
+        default Builder link(URL link) {
+            return link(MoreUris.fromUrl(link));
+        }
+
+        Builder trusted(boolean trusted);
 
         Title build();
     }
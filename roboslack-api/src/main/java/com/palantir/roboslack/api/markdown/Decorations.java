@@ -0,0 +1,66 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.api.markdown;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.palantir.roboslack.utils.MoreStrings;
+import javax.annotation.Nullable;
+
+/**
+ * Applies prefix and suffix decorations directly into a {@link StringBuilder}, with the same semantics as {@link
+ * MoreStrings#safePrepend(String, String)} followed by {@link MoreStrings#safeAppend(String, String)}.
+ */
+final class Decorations {
+
+    private Decorations() {}
+
+    /**
+     * Appends {@code text} to {@code out}, decorated with {@code prefix} and {@code suffix} where it doesn't already
+     * start or end with them.
+     */
+    static void appendDecorated(StringBuilder out, @Nullable String prefix, @Nullable String suffix,
+            CharSequence text) {
+        checkNotNull(text, "Text to decorate cannot be null");
+        int start = out.length();
+        if (prefix != null && !MoreStrings.startsWith(text, 0, prefix)) {
+            out.append(prefix);
+        }
+        out.append(text);
+        if (suffix != null && !MoreStrings.regionEndsWith(out, start, suffix)) {
+            out.append(suffix);
+        }
+    }
+
+    /**
+     * Decorates the trailing region of {@code out} beginning at {@code start} in place, as if it were a standalone
+     * {@link String} being decorated.
+     */
+    static void decorateRegion(StringBuilder out, int start, @Nullable String prefix, @Nullable String suffix) {
+        if (prefix != null && !MoreStrings.startsWith(out, start, prefix)) {
+            out.insert(start, prefix);
+        }
+        if (suffix != null && !MoreStrings.regionEndsWith(out, start, suffix)) {
+            out.append(suffix);
+        }
+    }
+
+    static int length(@Nullable String decoration) {
+        return decoration == null ? 0 : decoration.length();
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.api.markdown;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A precompiled chain of {@link ValueDecorator}s that behaves exactly like applying each of them in turn, eg.
+ * {@code SlackMarkdown.fuse(BOLD, ITALIC).decorate(x)} equals {@code BOLD.decorate(ITALIC.decorate(x))}, but writes the
+ * result into a single buffer instead of allocating an intermediate {@link String} per decorator.
+ *
+ * @see SlackMarkdown#fuse(ValueDecorator, ValueDecorator[])
+ * @see MarkdownComposer
+ * @since 1.1.0
+ */
+public final class FusedDecorator implements ValueDecorator<String> {
+
+    private static final String EMPTY_ERR = "At least one decorator is required to fuse";
+
+    /**
+     * Decorations ordered from the innermost decorator to the outermost.
+     */
+    private final String[] prefixes;
+    private final String[] suffixes;
+    private final int decorationsLength;
+    private final List<ValueDecorator<String>> decorators;
+
+    private FusedDecorator(List<ValueDecorator<String>> outermostFirst) {
+        checkArgument(!outermostFirst.isEmpty(), EMPTY_ERR);
+        this.decorators = ImmutableList.copyOf(outermostFirst);
+        this.prefixes = new String[decorators.size()];
+        this.suffixes = new String[decorators.size()];
+        int length = 0;
+        List<ValueDecorator<String>> innermostFirst = Lists.reverse(decorators);
+        for (int i = 0; i < innermostFirst.size(); i++) {
+            ValueDecorator<String> decorator = checkNotNull(innermostFirst.get(i), "Decorators cannot be null");
+            prefixes[i] = decorator.prefix().orElse(null);
+            suffixes[i] = decorator.suffix().orElse(null);
+            length += Decorations.length(prefixes[i]) + Decorations.length(suffixes[i]);
+        }
+        this.decorationsLength = length;
+    }
+
+    static FusedDecorator of(List<ValueDecorator<String>> outermostFirst) {
+        return new FusedDecorator(outermostFirst);
+    }
+
+    /**
+     * The most characters this chain can add around an input, useful for sizing buffers.
+     *
+     * @return the combined length of every prefix and suffix in the chain
+     */
+    public int decorationsLength() {
+        return decorationsLength;
+    }
+
+    void decorateTo(StringBuilder out, CharSequence input) {
+        int start = out.length();
+        Decorations.appendDecorated(out, prefixes[0], suffixes[0], input);
+        for (int i = 1; i < prefixes.length; i++) {
+            Decorations.decorateRegion(out, start, prefixes[i], suffixes[i]);
+        }
+    }
+
+    /**
+     * The prefix that would be added to an undecorated input: every prefix in the chain, outermost first.
+     */
+    @Override
+    public Optional<String> prefix() {
+        StringBuilder prefix = new StringBuilder();
+        for (int i = prefixes.length - 1; i >= 0; i--) {
+            if (prefixes[i] != null) {
+                prefix.append(prefixes[i]);
+            }
+        }
+        return prefix.length() == 0 ? Optional.empty() : Optional.of(prefix.toString());
+    }
+
+    /**
+     * The suffix that would be added to an undecorated input: every suffix in the chain, innermost first.
+     */
+    @Override
+    public Optional<String> suffix() {
+        StringBuilder suffix = new StringBuilder();
+        for (String decoration : suffixes) {
+            if (decoration != null) {
+                suffix.append(decoration);
+            }
+        }
+        return suffix.length() == 0 ? Optional.empty() : Optional.of(suffix.toString());
+    }
+
+    @Override
+    public String decorate(String input) {
+        StringBuilder out = new StringBuilder(input.length() + decorationsLength);
+        decorateTo(out, input);
+        return out.toString();
+    }
+
+    @Override
+    public String decorateMultiline(Iterable<? extends String> inputs) {
+        MarkdownComposer composer = SlackMarkdown.composer();
+        composer.appendMultiline(this, inputs);
+        return composer.build();
+    }
+
+    @Override
+    public String toString() {
+        return "FusedDecorator" + decorators;
+    }
+
+}
@@ -20,7 +20,6 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
-import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.palantir.roboslack.utils.MorePreconditions;
@@ -41,6 +40,11 @@ import org.immutables.value.Value;
 @JsonSerialize(as = ImmutableLinkDecorator.class)
 public abstract class LinkDecorator implements TupleDecorator<URL, String> {
 
+    /**
+     * Typical length of a {@link URL} plus decorations, used to size the output buffer.
+     */
+    private static final int LINK_OVERHEAD_ESTIMATE = 64;
+
     protected static Builder builder() {
         return ImmutableLinkDecorator.builder();
     }
@@ -64,7 +68,9 @@ public abstract class LinkDecorator implements TupleDecorator<URL, String> {
 
     @Override
     public final String decorate(URL url, String text) {
-        return StringDecorator.decorate(prefix(), suffix(), Joiner.on(separator()).join(url, text));
+        return SlackMarkdown.composer(text.length() + LINK_OVERHEAD_ESTIMATE)
+                .append(this, url, text)
+                .build();
     }
 
     interface Builder {
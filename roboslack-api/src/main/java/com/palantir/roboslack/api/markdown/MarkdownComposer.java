@@ -0,0 +1,151 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.api.markdown;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.net.URL;
+
+/**
+ * Fluent, mutable composer that streams {@link SlackMarkdown} into one pre-sized buffer. Decorations are applied as
+ * text is appended, with the same safe-prepend and safe-append semantics as {@link ValueDecorator#decorate(Object)},
+ * so composing a message of any size allocates a single {@link String} when {@link #build()} is called.
+ * <p>
+ * Instances are not thread-safe; create one per message via {@link SlackMarkdown#composer(int)}.
+ *
+ * @see FusedDecorator
+ * @since 1.1.0
+ */
+public final class MarkdownComposer {
+
+    private final StringBuilder buffer;
+
+    MarkdownComposer(int expectedLength) {
+        this.buffer = new StringBuilder(expectedLength);
+    }
+
+    /**
+     * Appends {@code text} as-is.
+     *
+     * @param text the text to append
+     * @return this {@link MarkdownComposer}
+     */
+    public MarkdownComposer append(CharSequence text) {
+        buffer.append(text);
+        return this;
+    }
+
+    /**
+     * Appends {@code text} decorated by {@code decorator}, equivalent to {@code append(decorator.decorate(text))}.
+     *
+     * @param decorator the {@link ValueDecorator} to apply, which may be a {@link FusedDecorator}
+     * @param text the text to decorate
+     * @return this {@link MarkdownComposer}
+     */
+    public MarkdownComposer append(ValueDecorator<String> decorator, CharSequence text) {
+        if (decorator instanceof FusedDecorator) {
+            ((FusedDecorator) decorator).decorateTo(buffer, text);
+        } else {
+            Decorations.appendDecorated(buffer, decorator.prefix().orElse(null), decorator.suffix().orElse(null),
+                    text);
+        }
+        return this;
+    }
+
+    /**
+     * Appends a link to {@code url} labelled {@code text}, equivalent to {@code append(decorator.decorate(url,
+     * text))}.
+     *
+     * @param decorator the {@link TupleDecorator} producing the link
+     * @param url the link target
+     * @param text the link label
+     * @return this {@link MarkdownComposer}
+     */
+    public MarkdownComposer append(TupleDecorator<URL, String> decorator, URL url, CharSequence text) {
+        checkNotNull(url, "Link URL cannot be null");
+        checkNotNull(text, "Link text cannot be null");
+        int start = buffer.length();
+        buffer.append(url.toString()).append(decorator.separator()).append(text);
+        Decorations.decorateRegion(buffer, start, decorator.prefix().orElse(null), decorator.suffix().orElse(null));
+        return this;
+    }
+
+    /**
+     * Appends a {@link SlackMarkdown#LINK} to {@code url} labelled {@code text}.
+     *
+     * @param url the link target
+     * @param text the link label
+     * @return this {@link MarkdownComposer}
+     */
+    public MarkdownComposer appendLink(URL url, CharSequence text) {
+        return append(SlackMarkdown.LINK, url, text);
+    }
+
+    /**
+     * Appends each of {@code lines} decorated by {@code decorator}, separated by {@link
+     * SlackMarkdown#NEWLINE_SEPARATOR}, equivalent to {@code append(decorator.decorateMultiline(lines))}.
+     *
+     * @param decorator the {@link ValueDecorator} to apply to each line
+     * @param lines the lines to decorate
+     * @return this {@link MarkdownComposer}
+     */
+    public MarkdownComposer appendMultiline(ValueDecorator<String> decorator, Iterable<? extends CharSequence> lines) {
+        boolean first = true;
+        for (CharSequence line : lines) {
+            if (!first) {
+                buffer.append(SlackMarkdown.NEWLINE_SEPARATOR);
+            }
+            append(decorator, line);
+            first = false;
+        }
+        return this;
+    }
+
+    /**
+     * Appends a {@link SlackMarkdown#NEWLINE_SEPARATOR}.
+     *
+     * @return this {@link MarkdownComposer}
+     */
+    public MarkdownComposer newline() {
+        buffer.append(SlackMarkdown.NEWLINE_SEPARATOR);
+        return this;
+    }
+
+    /**
+     * The number of characters composed so far.
+     *
+     * @return the current length
+     */
+    public int length() {
+        return buffer.length();
+    }
+
+    /**
+     * Creates the composed {@link String}.
+     *
+     * @return the composed {@link String}
+     */
+    public String build() {
+        return buffer.toString();
+    }
+
+    @Override
+    public String toString() {
+        return build();
+    }
+
+}
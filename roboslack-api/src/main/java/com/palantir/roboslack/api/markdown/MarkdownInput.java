@@ -19,7 +19,8 @@ package com.palantir.roboslack.api.markdown;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
-import java.util.Arrays;
+import com.palantir.roboslack.utils.EnumLookup;
+import java.util.Locale;
 import javax.annotation.CheckForNull;
 
 /**
@@ -43,21 +44,25 @@ public enum MarkdownInput {
     FIELDS;
 
     private static final String NOT_FOUND_ERR = "No Markdown Input value matching: %s";
+    private static final EnumLookup<MarkdownInput> LOOKUP = EnumLookup.of(MarkdownInput.class, MarkdownInput::value);
+
+    private final String wireName = name().toLowerCase(Locale.ROOT);
 
     @JsonCreator
     public static MarkdownInput of(@CheckForNull String value) {
-        return Arrays.stream(MarkdownInput.values())
-                .filter(preset -> preset.toString().equalsIgnoreCase(value))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException(String.format(NOT_FOUND_ERR, value)));
+        MarkdownInput input = LOOKUP.getIfPresent(value);
+        if (input == null) {
+            throw new IllegalArgumentException(String.format(NOT_FOUND_ERR, value));
+        }
+        return input;
     }
 
     public String value() {
-        return this.toString();
+        return wireName;
     }
 
     @Override
     public String toString() {
-        return name().toLowerCase();
+        return wireName;
     }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.api.markdown;
+
+import com.palantir.roboslack.utils.MoreStrings;
+import java.util.Arrays;
+import javax.annotation.CheckForNull;
+
+/**
+ * Detects {@link SlackMarkdown} in a single left-to-right pass over the input, with the same results as
+ * {@code SlackMarkdown.PATTERN.matcher(text).find()} but in linear time and without allocating.
+ * <p>
+ * Paired decorations (bold, italic, strike, emoji, dashes and preformat) match when the same decoration character
+ * appears twice on one line with at least one character between them, so it is enough to remember which decorations
+ * have been opened on the current line, and which one (if any) was opened by the previous character. Line terminators
+ * other than {@code \n} (which is itself markdown) reset those openings, mirroring how {@code .} never matches a line
+ * terminator.
+ *
+ * @since 1.1.0
+ */
+public final class MarkdownScanner {
+
+    private static final String ENCODED_BULLET = "%E2%80%A2";
+    private static final int QUOTE_RUN_LENGTH = 3;
+
+    /**
+     * Character classes; non-negative classes are the bit index of a paired decoration.
+     */
+    private static final int NONE = -1;
+    private static final int OTHER = -1;
+    private static final int MARKDOWN = -2;
+    private static final int LINE_TERMINATOR = -3;
+    private static final int QUOTE = -4;
+    private static final int PERCENT = -5;
+
+    private static final String PAIRED_DECORATIONS = "*_~:-`";
+    private static final int[] ASCII_CLASSES = new int[128];
+
+    static {
+        Arrays.fill(ASCII_CLASSES, OTHER);
+        for (int i = 0; i < PAIRED_DECORATIONS.length(); i++) {
+            ASCII_CLASSES[PAIRED_DECORATIONS.charAt(i)] = i;
+        }
+        for (char character : new char[] {'@', '#', '!', '\n'}) {
+            ASCII_CLASSES[character] = MARKDOWN;
+        }
+        ASCII_CLASSES['\r'] = LINE_TERMINATOR;
+        ASCII_CLASSES['>'] = QUOTE;
+        ASCII_CLASSES['%'] = PERCENT;
+    }
+
+    private MarkdownScanner() {}
+
+    /**
+     * Returns true if the {@code text} contains any symbols that Slack would process as markdown.
+     *
+     * @param text the {@link CharSequence} to scan
+     * @return true if Slack markdown was found, false otherwise
+     */
+    public static boolean containsMarkdown(@CheckForNull CharSequence text) {
+        if (text == null) {
+            return false;
+        }
+        int opened = 0;
+        int openedByPrevious = NONE;
+        int quoteRun = 0;
+        for (int i = 0; i < text.length(); i++) {
+            int characterClass = classOf(text.charAt(i));
+            if (characterClass >= 0) {
+                int bit = 1 << characterClass;
+                if ((opened & bit) != 0 && openedByPrevious != characterClass) {
+                    return true;
+                }
+                openedByPrevious = (opened & bit) == 0 ? characterClass : NONE;
+                opened |= bit;
+            } else {
+                if (isMarkdownAt(text, i, characterClass, quoteRun)) {
+                    return true;
+                }
+                opened = characterClass == LINE_TERMINATOR ? 0 : opened;
+                openedByPrevious = NONE;
+            }
+            quoteRun = characterClass == QUOTE ? quoteRun + 1 : 0;
+        }
+        return false;
+    }
+
+    private static int classOf(char character) {
+        if (character < ASCII_CLASSES.length) {
+            return ASCII_CLASSES[character];
+        }
+        return character == '\u0085' || character == '\u2028' || character == '\u2029' ? LINE_TERMINATOR : OTHER;
+    }
+
+    private static boolean isMarkdownAt(CharSequence text, int index, int characterClass, int quoteRun) {
+        switch (characterClass) {
+            case MARKDOWN:
+                return true;
+            case QUOTE:
+                return quoteRun + 1 >= QUOTE_RUN_LENGTH;
+            case PERCENT:
+                return MoreStrings.startsWith(text, index, ENCODED_BULLET);
+            default:
+                return false;
+        }
+    }
+
+}
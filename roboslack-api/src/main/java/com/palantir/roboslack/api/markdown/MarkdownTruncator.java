@@ -0,0 +1,189 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.api.markdown;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.CharMatcher;
+import com.palantir.roboslack.utils.MoreStrings;
+
+/**
+ * Truncates {@link SlackMarkdown} text to a maximum length without breaking its formatting. The cut point is found in
+ * a single left-to-right pass: links, mentions and other {@code <...>} tokens, {@code :emoji:}, HTML entities and
+ * surrogate pairs are never split, spans that are still open at the cut point (bold, italic, strike, preformat and
+ * preformatted blocks) are closed, and {@link #ELLIPSIS} is appended.
+ * <p>
+ * Spans are assumed to be well nested, as produced by {@link SlackMarkdown} decorators; text that cannot be closed
+ * cleanly is cut before the span that opened it.
+ *
+ * @since 1.1.0
+ */
+public final class MarkdownTruncator {
+
+    /**
+     * Appended to truncated text.
+     */
+    public static final String ELLIPSIS = "…";
+
+    private static final String FENCE = SlackMarkdown.PREFORMAT_MULTILINE_DECORATION;
+
+    /**
+     * Open spans are kept as a stack of codes, {@link #BITS} bits each, indexing {@link #CLOSERS}.
+     */
+    private static final String SPAN_CHARACTERS = "*_~`";
+    private static final String[] CLOSERS = {"", "*", "_", "~", "`", FENCE};
+    private static final int CODE = 4;
+    private static final int FENCE_CODE = 5;
+    private static final int BITS = 4;
+    private static final long MASK = (1L << BITS) - 1;
+    private static final int MAX_DEPTH = Long.SIZE / BITS - 1;
+
+    private static final int MAX_EMOJI_LENGTH = 100;
+    private static final int MAX_ENTITY_LENGTH = 10;
+    private static final CharMatcher TOKEN = CharMatcher.noneOf("\n<>");
+    private static final CharMatcher EMOJI = CharMatcher.inRange('a', 'z')
+            .or(CharMatcher.inRange('0', '9'))
+            .or(CharMatcher.anyOf("_+-'"));
+    private static final CharMatcher ENTITY = CharMatcher.inRange('a', 'z').or(CharMatcher.anyOf("#"));
+
+    private final String text;
+    private final int maxLength;
+    private long stack;
+    private int depth;
+    private int closersLength;
+    private boolean justOpened;
+    private int bestCut;
+    private long bestStack;
+
+    private MarkdownTruncator(String text, int maxLength) {
+        this.text = text;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Truncates {@code text} so that, including closing decorations and {@link #ELLIPSIS}, it has at most {@code
+     * maxLength} characters.
+     *
+     * @param text the text to truncate
+     * @param maxLength the maximum length of the result
+     * @return {@code text} itself if it is short enough, otherwise the truncated text
+     */
+    public static String truncate(String text, int maxLength) {
+        checkNotNull(text, "Text to truncate cannot be null");
+        checkArgument(maxLength >= ELLIPSIS.length(), "Max length must be at least %s", ELLIPSIS.length());
+        if (text.length() <= maxLength) {
+            return text;
+        }
+        return new MarkdownTruncator(text, maxLength).truncate();
+    }
+
+    private String truncate() {
+        int index = 0;
+        while (index < text.length() && index + ELLIPSIS.length() <= maxLength) {
+            consider(index);
+            index = consume(index);
+        }
+        StringBuilder out = new StringBuilder(maxLength).append(text, 0, bestCut);
+        for (long open = bestStack; open != 0; open >>>= BITS) {
+            out.append(CLOSERS[(int) (open & MASK)]);
+        }
+        return out.append(ELLIPSIS).toString();
+    }
+
+    /**
+     * Records {@code index} as the best cut point so far if the result would fit, never cutting right after
+     * whitespace or an opening decoration.
+     */
+    private void consider(int index) {
+        if (index > 0 && (justOpened || Character.isWhitespace(text.charAt(index - 1)))) {
+            return;
+        }
+        if (index + closersLength + ELLIPSIS.length() <= maxLength) {
+            bestCut = index;
+            bestStack = stack;
+        }
+    }
+
+    /**
+     * Consumes the character or indivisible token at {@code index}, returning the index after it.
+     */
+    private int consume(int index) {
+        justOpened = false;
+        int top = (int) (stack & MASK);
+        if (top != CODE && MoreStrings.startsWith(text, index, FENCE)) {
+            toggle(FENCE_CODE, top);
+            return index + FENCE.length();
+        }
+        if (top == FENCE_CODE) {
+            return index + 1;
+        }
+        int code = SPAN_CHARACTERS.indexOf(text.charAt(index)) + 1;
+        if (code > 0 && (top != CODE || code == CODE)) {
+            toggle(code, top);
+            return index + 1;
+        }
+        return top == CODE ? index + 1 : tokenEnd(index);
+    }
+
+    private void toggle(int code, int top) {
+        if (top == code) {
+            stack >>>= BITS;
+            depth--;
+            closersLength -= CLOSERS[code].length();
+        } else if (depth < MAX_DEPTH) {
+            stack = stack << BITS | code;
+            depth++;
+            closersLength += CLOSERS[code].length();
+            justOpened = true;
+        }
+    }
+
+    private int tokenEnd(int index) {
+        char character = text.charAt(index);
+        switch (character) {
+            case '<':
+                return tokenEnd(index, '>', TOKEN, text.length());
+            case ':':
+                return tokenEnd(index, ':', EMOJI, MAX_EMOJI_LENGTH);
+            case '&':
+                return tokenEnd(index, ';', ENTITY, MAX_ENTITY_LENGTH);
+            default:
+                return Character.isHighSurrogate(character) && index + 1 < text.length()
+                        && Character.isLowSurrogate(text.charAt(index + 1)) ? index + 2 : index + 1;
+        }
+    }
+
+    /**
+     * Returns the index after the token starting at {@code start} and ending with {@code closer}, or just after {@code
+     * start} if there is no such token.
+     */
+    private int tokenEnd(int start, char closer, CharMatcher content, int maxTokenLength) {
+        int limit = (int) Math.min(text.length(), (long) start + maxTokenLength);
+        for (int index = start + 1; index < limit; index++) {
+            char character = text.charAt(index);
+            if (character == closer && index > start + 1) {
+                return index + 1;
+            }
+            if (!content.matches(character)) {
+                break;
+            }
+        }
+        return start + 1;
+    }
+
+}
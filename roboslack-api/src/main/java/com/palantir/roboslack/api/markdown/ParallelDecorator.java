@@ -0,0 +1,155 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.api.markdown;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import org.immutables.value.Value;
+
+/**
+ * Opt-in parallel multiline decoration for very large inputs, such as thousands of log lines. Inputs of fewer than
+ * {@link #parallelThreshold()} lines are decorated sequentially on the calling thread, exactly like {@link
+ * ValueDecorator#decorateMultiline(Iterable)}; larger inputs are split into chunks of {@link #chunkSize()} lines, each
+ * decorated into its own buffer on the configured {@link #executor()} and then concatenated in order.
+ * <p>
+ * The default threshold comes from {@code MultilineDecorationBenchmark} (JMH 1.21, JDK 8, average time, one fork,
+ * 3x1s warmup and 5x1s measurement), which decorates 58 character lines with {@link SlackMarkdown#LIST_SINGLE_LEVEL}.
+ * Sequential decoration took 3.1, 50, 267 and 1397us for 64, 1024, 4096 and 16384 lines, about 65ns per line, while
+ * run on a single CPU the parallel path added a cost of 7, 24, 85 and 185us on top, mostly handing off and
+ * concatenating chunks. An input of up to {@link #DEFAULT_CHUNK_SIZE} lines is a single chunk and can only lose; at
+ * 4096 lines, four chunks spread over four cores project to roughly 67us of decoration plus 85us of overhead against
+ * 267us sequentially, the smallest power of two with a clear win. With fewer idle cores than chunks the crossover
+ * moves up, and on a single CPU parallel decoration never pays off, so raise {@link #parallelThreshold()} accordingly.
+ *
+ * @see ValueDecorator#decorateMultiline(Iterable)
+ * @since 1.1.0
+ */
+@Value.Immutable
+public abstract class ParallelDecorator {
+
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 4096;
+    public static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    public static Builder builder() {
+        return ImmutableParallelDecorator.builder();
+    }
+
+    public static ParallelDecorator of(Executor executor) {
+        return builder().executor(executor).build();
+    }
+
+    /**
+     * The {@link Executor} on which chunks are decorated. The caller owns its lifecycle.
+     *
+     * @return the {@link Executor}
+     */
+    public abstract Executor executor();
+
+    /**
+     * The minimum number of lines for which decoration is split across the {@link #executor()}.
+     *
+     * @return the parallel threshold, in lines
+     */
+    @Value.Default
+    public int parallelThreshold() {
+        return DEFAULT_PARALLEL_THRESHOLD;
+    }
+
+    /**
+     * The number of lines decorated by each task.
+     *
+     * @return the chunk size, in lines
+     */
+    @Value.Default
+    public int chunkSize() {
+        return DEFAULT_CHUNK_SIZE;
+    }
+
+    @Value.Check
+    protected final void check() {
+        checkArgument(parallelThreshold() > 0, "Parallel threshold must be positive");
+        checkArgument(chunkSize() > 0, "Chunk size must be positive");
+    }
+
+    /**
+     * Decorates each of {@code inputs} with {@code decorator} and joins them with {@link
+     * SlackMarkdown#NEWLINE_SEPARATOR}, producing the same result as {@code decorator.decorateMultiline(inputs)}.
+     *
+     * @param decorator the {@link ValueDecorator} to apply to each line
+     * @param inputs the lines to decorate
+     * @return the decorated, newline-separated lines
+     */
+    public final String decorateMultiline(ValueDecorator<String> decorator, Iterable<? extends String> inputs) {
+        checkNotNull(decorator, "Decorator cannot be null");
+        List<? extends String> lines = inputs instanceof List
+                ? (List<? extends String>) inputs
+                : ImmutableList.copyOf(inputs);
+        if (lines.size() < parallelThreshold()) {
+            return SlackMarkdown.composer().appendMultiline(decorator, lines).build();
+        }
+        List<CompletableFuture<String>> chunks = new ArrayList<>();
+        for (int start = 0; start < lines.size(); start += chunkSize()) {
+            List<? extends String> chunk = lines.subList(start, Math.min(start + chunkSize(), lines.size()));
+            chunks.add(CompletableFuture.supplyAsync(
+                    () -> SlackMarkdown.composer().appendMultiline(decorator, chunk).build(), executor()));
+        }
+        List<String> decorated = new ArrayList<>(chunks.size());
+        int length = chunks.size() - 1;
+        for (CompletableFuture<String> chunk : chunks) {
+            String part = join(chunk);
+            length += part.length();
+            decorated.add(part);
+        }
+        MarkdownComposer composer = SlackMarkdown.composer(length);
+        for (int i = 0; i < decorated.size(); i++) {
+            if (i > 0) {
+                composer.newline();
+            }
+            composer.append(decorated.get(i));
+        }
+        return composer.build();
+    }
+
+    private static String join(CompletableFuture<String> chunk) {
+        try {
+            return chunk.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public interface Builder {
+        Builder executor(Executor executor);
+
+        Builder parallelThreshold(int parallelThreshold);
+
+        Builder chunkSize(int chunkSize);
+
+        ParallelDecorator build();
+    }
+
+}
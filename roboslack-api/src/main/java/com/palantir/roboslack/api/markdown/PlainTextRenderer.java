@@ -0,0 +1,272 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.api.markdown;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.CharMatcher;
+import com.palantir.roboslack.utils.MoreStrings;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Renders {@link SlackMarkdown} as plain text in a single streaming pass, eg. to produce an attachment's {@code
+ * fallback} from its {@code text}.
+ * <ul>
+ * <li>{@code <url|label>} links render as their label, {@code <url>} as the url</li>
+ * <li>{@code <@U123|name>} and {@code <#C123|name>} render as {@code @name} and {@code #name}</li>
+ * <li>{@code <!date^...|fallback>} and other {@code <!...|label>} tokens render as their fallback text, and
+ * {@code <!here>} style mentions as {@code @here}</li>
+ * <li>bold, italic, strike and preformat decorations, preformatted block fences and quote prefixes are dropped</li>
+ * <li>{@code &amp;}, {@code &lt;} and {@code &gt;} are unescaped</li>
+ * </ul>
+ * Decorations are recognized by the characters around them, as Slack does: a decoration opens before a non-space
+ * character and closes after one, so {@code 2*3*4} or {@code snake_case} render unchanged.
+ *
+ * @since 1.1.0
+ */
+public final class PlainTextRenderer {
+
+    private static final CharMatcher SPECIAL = CharMatcher.anyOf("*_~`<>&");
+    private static final String DECORATIONS = "*_~`";
+    private static final String FENCE = SlackMarkdown.PREFORMAT_MULTILINE_DECORATION;
+    private static final String[][] ENTITIES = {{"&amp;", "&"}, {"&lt;", "<"}, {"&gt;", ">"}};
+
+    private final CharSequence text;
+    private final Appendable out;
+    private boolean lineStart = true;
+    private boolean pendingNewline;
+    private boolean inCode;
+    private boolean inFence;
+
+    private PlainTextRenderer(CharSequence text, Appendable out) {
+        this.text = text;
+        this.out = out;
+    }
+
+    /**
+     * Renders {@code text} as plain text.
+     *
+     * @param text the {@link SlackMarkdown} text to render
+     * @return the plain text, or {@code text} itself if it contains nothing to render
+     */
+    public static String render(String text) {
+        checkNotNull(text, "Text to render cannot be null");
+        if (SPECIAL.indexIn(text) < 0) {
+            return text;
+        }
+        try {
+            return renderTo(text, new StringBuilder(text.length())).toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Renders {@code text} as plain text into {@code out}.
+     *
+     * @param text the {@link SlackMarkdown} text to render
+     * @param out the {@link Appendable} to write to
+     * @param <A> the type of {@link Appendable}
+     * @return {@code out}
+     * @throws IOException if {@code out} fails to append
+     */
+    public static <A extends Appendable> A renderTo(CharSequence text, A out) throws IOException {
+        checkNotNull(text, "Text to render cannot be null");
+        checkNotNull(out, "Appendable cannot be null");
+        new PlainTextRenderer(text, out).run();
+        return out;
+    }
+
+    private void run() throws IOException {
+        int index = 0;
+        while (index < text.length()) {
+            if (lineStart) {
+                lineStart = false;
+                index = skipQuotePrefix(index);
+            } else {
+                index = renderAt(index);
+            }
+        }
+        if (pendingNewline) {
+            out.append('\n');
+        }
+    }
+
+    private int renderAt(int index) throws IOException {
+        char character = text.charAt(index);
+        if (MoreStrings.startsWith(text, index, FENCE)) {
+            return fence(index);
+        }
+        if (character == '\n') {
+            if (pendingNewline) {
+                out.append('\n');
+            }
+            pendingNewline = true;
+            lineStart = !inFence;
+            return index + 1;
+        }
+        if (character == '<') {
+            int end = tokenEnd(index);
+            if (end > index) {
+                flushNewline();
+                token(index + 1, end);
+                return end + 1;
+            }
+        } else if (character == '&') {
+            return entity(index);
+        } else if (isDecoration(index)) {
+            if (character == '`') {
+                inCode = !inCode;
+            }
+            return index + 1;
+        }
+        append(character);
+        return index + 1;
+    }
+
+    private int skipQuotePrefix(int index) {
+        int end = index;
+        if (MoreStrings.startsWith(text, index, SlackMarkdown.QUOTE_MULTILINE_PREFIX)) {
+            end = index + SlackMarkdown.QUOTE_MULTILINE_PREFIX.length();
+        } else if (MoreStrings.startsWith(text, index, SlackMarkdown.QUOTE_PREFIX)) {
+            end = index + SlackMarkdown.QUOTE_PREFIX.length();
+        } else if (MoreStrings.startsWith(text, index, "&gt;")) {
+            end = index + "&gt;".length();
+        }
+        return end > index && end < text.length() && text.charAt(end) == ' ' ? end + 1 : end;
+    }
+
+    /**
+     * Drops a preformatted block fence, along with the line break that separates it from the block's contents.
+     */
+    private int fence(int index) throws IOException {
+        int end = index + FENCE.length();
+        if (inFence) {
+            pendingNewline = false;
+        } else {
+            flushNewline();
+            if (end < text.length() && text.charAt(end) == '\n') {
+                end++;
+            }
+        }
+        inFence = !inFence;
+        return end;
+    }
+
+    private boolean isDecoration(int index) {
+        char character = text.charAt(index);
+        if (inFence || DECORATIONS.indexOf(character) < 0 || (inCode && character != '`')) {
+            return false;
+        }
+        return opensSpan(index) || closesSpan(index);
+    }
+
+    private boolean opensSpan(int index) {
+        return (index == 0 || !Character.isLetterOrDigit(text.charAt(index - 1)))
+                && index + 1 < text.length() && !Character.isWhitespace(text.charAt(index + 1));
+    }
+
+    private boolean closesSpan(int index) {
+        return index > 0 && !Character.isWhitespace(text.charAt(index - 1))
+                && (index + 1 == text.length() || !Character.isLetterOrDigit(text.charAt(index + 1)));
+    }
+
+    /**
+     * Returns the index of the {@code >} closing the token that starts at {@code start}, or {@code start} if it doesn't
+     * start a token. Only a token's label, after {@code |}, and {@code <!...>} commands, such as date formats, may
+     * contain whitespace.
+     */
+    private int tokenEnd(int start) {
+        boolean spacesAllowed = start + 1 < text.length() && text.charAt(start + 1) == '!';
+        for (int index = start + 1; index < text.length(); index++) {
+            char character = text.charAt(index);
+            if (character == '>') {
+                return index > start + 1 ? index : start;
+            }
+            spacesAllowed |= character == '|';
+            if (character == '<' || character == '\n' || (!spacesAllowed && Character.isWhitespace(character))) {
+                break;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * Renders the contents of a {@code <...>} token between {@code start} and {@code end}.
+     */
+    private void token(int start, int end) throws IOException {
+        int separator = start;
+        while (separator < end && text.charAt(separator) != '|') {
+            separator++;
+        }
+        char kind = text.charAt(start);
+        boolean labelled = separator < end;
+        if (kind == '@' || kind == '#') {
+            out.append(kind);
+            appendUnescaped(labelled ? separator + 1 : start + 1, end);
+        } else if (labelled) {
+            appendUnescaped(separator + 1, end);
+        } else if (kind == '!') {
+            int name = start + 1;
+            while (name < end && text.charAt(name) != '^') {
+                name++;
+            }
+            out.append(SlackMarkdown.MENTION_USER_PREFIX);
+            appendUnescaped(start + 1, name);
+        } else {
+            appendUnescaped(start, end);
+        }
+    }
+
+    private int entity(int index) throws IOException {
+        for (String[] entity : ENTITIES) {
+            if (MoreStrings.startsWith(text, index, entity[0])) {
+                flushNewline();
+                out.append(entity[1]);
+                return index + entity[0].length();
+            }
+        }
+        append(text.charAt(index));
+        return index + 1;
+    }
+
+    private void appendUnescaped(int start, int end) throws IOException {
+        int index = start;
+        while (index < end) {
+            index = text.charAt(index) == '&' ? entity(index) : appendNext(index);
+        }
+    }
+
+    private int appendNext(int index) throws IOException {
+        out.append(text.charAt(index));
+        return index + 1;
+    }
+
+    private void append(char character) throws IOException {
+        flushNewline();
+        out.append(character);
+    }
+
+    private void flushNewline() throws IOException {
+        if (pendingNewline) {
+            out.append('\n');
+            pendingNewline = false;
+        }
+    }
+
+}
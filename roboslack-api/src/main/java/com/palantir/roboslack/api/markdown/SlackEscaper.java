@@ -0,0 +1,142 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.api.markdown;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.escape.Escaper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Escapes untrusted text, such as log lines, stack traces or user input, for use in Slack message text. Slack requires
+ * {@code &}, {@code <} and {@code >} to be sent as HTML entities; {@link #MARKDOWN} additionally surrounds the
+ * decoration characters {@code *}, {@code _}, {@code ~} and {@code `} with zero-width spaces so they render literally
+ * instead of formatting the text around them.
+ * <p>
+ * Escaping is a single pass over the input: text that needs no escaping is returned as-is, and {@link
+ * #escapeTo(CharSequence, Appendable)} copies unescaped runs straight into the destination.
+ *
+ * @since 1.1.0
+ */
+public final class SlackEscaper extends Escaper {
+
+    /**
+     * Zero-width space, which breaks up decorations without changing how the text looks.
+     */
+    static final char ZERO_WIDTH_SPACE = '\u200B';
+
+    /**
+     * Escapes only the control characters {@code &}, {@code <} and {@code >}.
+     */
+    public static final SlackEscaper CONTROL = new SlackEscaper(false);
+
+    /**
+     * Escapes the control characters and neutralizes {@link SlackMarkdown} decoration characters.
+     */
+    public static final SlackEscaper MARKDOWN = new SlackEscaper(true);
+
+    private static final int ASCII_LIMIT = 128;
+
+    private final String[] replacements = new String[ASCII_LIMIT];
+
+    private SlackEscaper(boolean decorations) {
+        replacements['&'] = "&amp;";
+        replacements['<'] = "&lt;";
+        replacements['>'] = "&gt;";
+        if (decorations) {
+            for (char decoration : new char[] {'*', '_', '~', '`'}) {
+                replacements[decoration] = new String(new char[] {ZERO_WIDTH_SPACE, decoration, ZERO_WIDTH_SPACE});
+            }
+        }
+    }
+
+    private String replacement(char character) {
+        return character < ASCII_LIMIT ? replacements[character] : null;
+    }
+
+    /**
+     * Returns the index of the first character of {@code text} that needs escaping.
+     *
+     * @param text the {@link CharSequence} to check
+     * @return the index of the first character to escape, or -1 if there is none
+     */
+    public int indexOfEscapable(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (replacement(text.charAt(i)) != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns {@code text} escaped for Slack, or {@code text} itself if nothing needed escaping.
+     *
+     * @param text the text to escape
+     * @return the escaped text
+     */
+    @Override
+    public String escape(String text) {
+        checkNotNull(text, "Text to escape cannot be null");
+        int first = indexOfEscapable(text);
+        if (first < 0) {
+            return text;
+        }
+        StringBuilder out = new StringBuilder(text.length() + text.length() / 8 + 16);
+        try {
+            escapeFrom(text, first, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Appends {@code text} escaped for Slack to {@code out}, without building an intermediate copy.
+     *
+     * @param text the text to escape
+     * @param out the {@link Appendable} to write to
+     * @param <A> the type of {@link Appendable}
+     * @return {@code out}
+     * @throws IOException if {@code out} fails to append
+     */
+    public <A extends Appendable> A escapeTo(CharSequence text, A out) throws IOException {
+        checkNotNull(text, "Text to escape cannot be null");
+        checkNotNull(out, "Appendable cannot be null");
+        int first = indexOfEscapable(text);
+        if (first < 0) {
+            out.append(text);
+        } else {
+            escapeFrom(text, first, out);
+        }
+        return out;
+    }
+
+    private void escapeFrom(CharSequence text, int first, Appendable out) throws IOException {
+        int runStart = 0;
+        for (int i = first; i < text.length(); i++) {
+            String replacement = replacement(text.charAt(i));
+            if (replacement != null) {
+                out.append(text, runStart, i).append(replacement);
+                runStart = i + 1;
+            }
+        }
+        out.append(text, runStart, text.length());
+    }
+
+}
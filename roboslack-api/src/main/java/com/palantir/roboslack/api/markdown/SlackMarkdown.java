@@ -16,6 +16,7 @@
 
 package com.palantir.roboslack.api.markdown;
 
+import com.google.common.collect.ImmutableList;
 import java.net.URL;
 import java.util.regex.Pattern;
 
@@ -27,7 +28,8 @@ import java.util.regex.Pattern;
 public final class SlackMarkdown {
 
     /**
-     * Generic {@link Pattern} that matches any {@link SlackMarkdown}.
+     * Generic {@link Pattern} that matches any {@link SlackMarkdown}. Prefer {@link MarkdownScanner} for detection,
+     * which returns the same result as {@code find()} in linear time.
      */
     public static final Pattern PATTERN =
             Pattern.compile("(@|#|!|\\*.+\\*|~.+~|_.+_|:.+:|-.+-|\n|`.+`|>{3}|%E2%80%A2)");
@@ -79,9 +81,63 @@ public final class SlackMarkdown {
     public static final ValueDecorator<String> LIST_SINGLE_LEVEL = StringDecorator.of(LIST_BULLET_PREFIX,
             NEWLINE_SEPARATOR);
 
+    /**
+     * Default buffer size for a {@link MarkdownComposer} when no expected length is given.
+     */
+    private static final int DEFAULT_COMPOSER_CAPACITY = 256;
+
     private SlackMarkdown() {
         // left blank intentionally
     }
 
+    /**
+     * Creates a new {@link MarkdownComposer} for streaming {@link SlackMarkdown} into a single buffer.
+     *
+     * @return the new {@link MarkdownComposer}
+     */
+    public static MarkdownComposer composer() {
+        return composer(DEFAULT_COMPOSER_CAPACITY);
+    }
+
+    /**
+     * Creates a new {@link MarkdownComposer} whose buffer is pre-sized for {@code expectedLength} characters.
+     *
+     * @param expectedLength the expected length of the composed text
+     * @return the new {@link MarkdownComposer}
+     */
+    public static MarkdownComposer composer(int expectedLength) {
+        return new MarkdownComposer(expectedLength);
+    }
+
+    /**
+     * Escapes untrusted {@code text} so that Slack renders it literally, including any decoration characters.
+     *
+     * @param text the text to escape
+     * @return the escaped text, or {@code text} itself if nothing needed escaping
+     * @see SlackEscaper#MARKDOWN
+     */
+    public static String escape(String text) {
+        return SlackEscaper.MARKDOWN.escape(text);
+    }
+
+    /**
+     * Precompiles a chain of decorators, outermost first, into a single {@link FusedDecorator}. For example {@code
+     * fuse(BOLD, ITALIC)} decorates exactly like {@code BOLD.decorate(ITALIC.decorate(input))}.
+     *
+     * @param outermost the outermost {@link ValueDecorator}
+     * @param inner the remaining {@link ValueDecorator}s, each applied inside the previous one
+     * @return the {@link FusedDecorator}
+     */
+    @SafeVarargs
+    public static FusedDecorator fuse(ValueDecorator<String> outermost, ValueDecorator<String>... inner) {
+        ImmutableList.Builder<ValueDecorator<String>> decorators = ImmutableList.builder();
+        decorators.add(outermost);
+        // Copied one by one, since passing the generic varargs array on is flagged as possible heap pollution
+        for (ValueDecorator<String> decorator : inner) {
+            decorators.add(decorator);
+        }
+        return FusedDecorator.of(decorators.build());
+    }
+
 }
 
@@ -16,7 +16,11 @@
 
 package com.palantir.roboslack.api.markdown;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import com.google.common.base.Joiner;
+import com.palantir.roboslack.utils.EnumLookup;
+import java.util.Locale;
 
 /**
  * Special mention types that are supported by Slack.<br/>
@@ -33,8 +37,11 @@ public enum SpecialMention {
 
     private static final String INVALID_MENTION_NAME_FORMAT =
             "No valid SpecialMention type found for '%s', valid values include: [%s]";
+    private static final EnumLookup<SpecialMention> LOOKUP =
+            EnumLookup.of(SpecialMention.class, SpecialMention::toString);
 
     private final String value;
+    private final String wireName = name().toLowerCase(Locale.ROOT);
 
     SpecialMention(String value) {
         this.value = value;
@@ -46,14 +53,14 @@ public enum SpecialMention {
 
     @Override
     public String toString() {
-        return name().toLowerCase();
+        return wireName;
     }
 
     public static SpecialMention of(String name) {
-        for (SpecialMention mention : values()) {
-            if (name.equalsIgnoreCase(mention.toString())) {
-                return mention;
-            }
+        checkNotNull(name, "SpecialMention name cannot be null");
+        SpecialMention mention = LOOKUP.getIfPresent(name);
+        if (mention != null) {
+            return mention;
         }
         throw new IllegalArgumentException(String.format(INVALID_MENTION_NAME_FORMAT,
                 name, Joiner.on(", ").join(values())));
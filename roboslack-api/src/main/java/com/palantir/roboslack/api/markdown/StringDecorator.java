@@ -18,12 +18,9 @@ package com.palantir.roboslack.api.markdown;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
-import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
 import com.palantir.roboslack.utils.MorePreconditions;
-import com.palantir.roboslack.utils.MoreStrings;
 import java.util.Optional;
-import java.util.stream.StreamSupport;
 import org.immutables.value.Value;
 
 /**
@@ -66,8 +63,12 @@ public abstract class StringDecorator implements ValueDecorator<String> {
     }
 
     static String decorate(Optional<String> prefix, Optional<String> suffix, String line) {
-        String prefixed = prefix.map(p -> MoreStrings.safePrepend(line, p)).orElse(line);
-        return suffix.map(s -> MoreStrings.safeAppend(prefixed, s)).orElse(prefixed);
+        String prefixValue = prefix.orElse(null);
+        String suffixValue = suffix.orElse(null);
+        StringBuilder out = new StringBuilder(
+                line.length() + Decorations.length(prefixValue) + Decorations.length(suffixValue));
+        Decorations.appendDecorated(out, prefixValue, suffixValue, line);
+        return out.length() == line.length() ? line : out.toString();
     }
 
     @Override
@@ -75,12 +76,13 @@ public abstract class StringDecorator implements ValueDecorator<String> {
         return decorate(prefix(), suffix(), input);
     }
 
+    /**
+     * Decorates each of {@code inputs} sequentially into a single buffer. For very large inputs, see {@link
+     * ParallelDecorator}.
+     */
     @Override
     public final String decorateMultiline(Iterable<? extends String> inputs) {
-        return Joiner.on(SlackMarkdown.NEWLINE_SEPARATOR)
-                .join(StreamSupport.stream(inputs.spliterator(), true)
-                        .map(this::decorate)
-                        .collect(ImmutableList.toImmutableList()));
+        return SlackMarkdown.composer().appendMultiline(this, inputs).build();
     }
 
     interface Builder {
@@ -19,10 +19,9 @@ package com.palantir.roboslack.api.time;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
-import com.palantir.roboslack.api.markdown.StringDecorator;
-import com.palantir.roboslack.api.markdown.ValueDecorator;
+import com.palantir.roboslack.utils.EnumLookup;
+import java.util.Locale;
 import java.util.Optional;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 
 /**
@@ -82,30 +81,34 @@ public enum DateTimeFormatToken {
      */
     TIME_SECS("kk:mm:ss"); // Default to 24hr format for formatting within the java runtime
 
-    private static final ValueDecorator<String> TOKEN_DECORATOR = StringDecorator.of("{", "}");
-
     private static final String NOT_FOUND_ERR = "No Format Token value matching: '%s'";
 
+    private static final EnumLookup<DateTimeFormatToken> LOOKUP =
+            EnumLookup.of(DateTimeFormatToken.class, DateTimeFormatToken::toString);
+
     private final String pattern;
+    private final String wireName = "{" + name().toLowerCase(Locale.ROOT) + "}";
 
     DateTimeFormatToken(String pattern) {
         this.pattern = pattern;
     }
 
     public static Optional<DateTimeFormatToken> ofSafe(@CheckForNull String input) {
-        return Stream.of(values())
-                .filter(token -> token.toString().equalsIgnoreCase(input))
-                .findFirst();
+        return LOOKUP.find(input);
     }
 
     @JsonCreator
     public static DateTimeFormatToken of(@CheckForNull String input) {
-        return ofSafe(input).orElseThrow(() -> new IllegalArgumentException(String.format(NOT_FOUND_ERR, input)));
+        DateTimeFormatToken token = LOOKUP.getIfPresent(input);
+        if (token == null) {
+            throw new IllegalArgumentException(String.format(NOT_FOUND_ERR, input));
+        }
+        return token;
     }
 
     @Override
     public String toString() {
-        return TOKEN_DECORATOR.decorate(name().toLowerCase());
+        return wireName;
     }
 
     /**
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.roboslack.api.time;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import javax.annotation.CheckForNull;
+
+/**
+ * Finds {@link DateTimeFormatToken}s in a pattern in a single left-to-right pass, using an Aho-Corasick automaton over
+ * all token literals. Matching ignores ASCII case, like {@link DateTimeFormatToken#ofSafe(String)}.
+ * <p>
+ * No token literal contains another, so the first token the automaton completes is always the leftmost one, and
+ * scanning restarts from the root after each match to keep matches from overlapping.
+ *
+ * @since 1.1.0
+ */
+public final class DateTimeFormatTokenScanner {
+
+    private static final DateTimeFormatToken[] TOKENS = DateTimeFormatToken.values();
+    private static final int ASCII_LIMIT = 128;
+    private static final int ROOT = 0;
+
+    /**
+     * Maps each folded ASCII character to its column in {@link #TRANSITIONS}; column 0 is every other character.
+     */
+    private static final int[] CLASSES = new int[ASCII_LIMIT];
+    private static final int[][] TRANSITIONS;
+    private static final DateTimeFormatToken[] MATCHES;
+    private static final int[] MATCH_LENGTHS;
+
+    static {
+        int columns = 1;
+        for (DateTimeFormatToken token : TOKENS) {
+            for (char character : token.toString().toCharArray()) {
+                if (CLASSES[fold(character)] == 0) {
+                    CLASSES[fold(character)] = columns++;
+                }
+            }
+        }
+        List<int[]> trie = new ArrayList<>();
+        List<DateTimeFormatToken> matches = new ArrayList<>();
+        trie.add(newState(columns));
+        matches.add(null);
+        for (DateTimeFormatToken token : TOKENS) {
+            int state = ROOT;
+            for (char character : token.toString().toCharArray()) {
+                int column = CLASSES[fold(character)];
+                if (trie.get(state)[column] < 0) {
+                    trie.get(state)[column] = trie.size();
+                    trie.add(newState(columns));
+                    matches.add(null);
+                }
+                state = trie.get(state)[column];
+            }
+            matches.set(state, token);
+        }
+        TRANSITIONS = trie.toArray(new int[0][]);
+        MATCHES = matches.toArray(new DateTimeFormatToken[0]);
+        MATCH_LENGTHS = new int[MATCHES.length];
+        for (int state = 0; state < MATCHES.length; state++) {
+            MATCH_LENGTHS[state] = MATCHES[state] == null ? 0 : MATCHES[state].toString().length();
+        }
+        linkFailures(columns);
+    }
+
+    private DateTimeFormatTokenScanner() {}
+
+    /**
+     * Receives the pieces of a scanned pattern, in order.
+     */
+    @FunctionalInterface
+    interface Visitor {
+
+        /**
+         * Visits the piece of the pattern between {@code start} and {@code end}.
+         *
+         * @param token the {@link DateTimeFormatToken} the piece matched, or null if it is literal text
+         * @param start the index of the piece's first character
+         * @param end the index after the piece's last character
+         */
+        void visit(@CheckForNull DateTimeFormatToken token, int start, int end);
+
+    }
+
+    private static int[] newState(int columns) {
+        int[] state = new int[columns];
+        Arrays.fill(state, -1);
+        return state;
+    }
+
+    /**
+     * Turns the trie into a complete automaton, replacing each missing transition with the one taken from the state's
+     * failure state: the longest proper suffix of its path that is also a path in the trie.
+     */
+    private static void linkFailures(int columns) {
+        int[] failures = new int[TRANSITIONS.length];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int column = 0; column < columns; column++) {
+            int next = TRANSITIONS[ROOT][column];
+            if (next < 0) {
+                TRANSITIONS[ROOT][column] = ROOT;
+            } else {
+                failures[next] = ROOT;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            for (int column = 0; column < columns; column++) {
+                int next = TRANSITIONS[state][column];
+                if (next < 0) {
+                    TRANSITIONS[state][column] = TRANSITIONS[failures[state]][column];
+                } else {
+                    failures[next] = TRANSITIONS[failures[state]][column];
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the distinct {@link DateTimeFormatToken}s in {@code text}.
+     *
+     * @param text the {@link CharSequence} to scan
+     * @return the number of distinct tokens found, or 0 if {@code text} is null
+     */
+    public static int countDistinctTokens(@CheckForNull CharSequence text) {
+        return text == null ? 0 : scan(text, null);
+    }
+
+    /**
+     * Scans {@code text}, passing each token and each run of literal text between, before and after tokens to {@code
+     * visitor}.
+     *
+     * @param text the {@link CharSequence} to scan
+     * @param visitor the {@link Visitor} to notify, if any
+     * @return the number of distinct tokens found
+     */
+    static int scan(CharSequence text, @CheckForNull Visitor visitor) {
+        checkNotNull(text, "Text to scan cannot be null");
+        long seen = 0L;
+        int literalStart = 0;
+        int state = ROOT;
+        for (int index = 0; index < text.length(); index++) {
+            char character = text.charAt(index);
+            state = TRANSITIONS[state][character < ASCII_LIMIT ? CLASSES[fold(character)] : 0];
+            DateTimeFormatToken token = MATCHES[state];
+            if (token != null) {
+                int tokenStart = index + 1 - MATCH_LENGTHS[state];
+                if (visitor != null) {
+                    if (tokenStart > literalStart) {
+                        visitor.visit(null, literalStart, tokenStart);
+                    }
+                    visitor.visit(token, tokenStart, index + 1);
+                }
+                seen |= 1L << token.ordinal();
+                literalStart = index + 1;
+                state = ROOT;
+            }
+        }
+        if (visitor != null && literalStart < text.length()) {
+            visitor.visit(null, literalStart, text.length());
+        }
+        return Long.bitCount(seen);
+    }
+
+    private static char fold(char character) {
+        return character >= 'A' && character <= 'Z' ? (char) (character + ('a' - 'A')) : character;
+    }
+
+}
@@ -16,23 +16,35 @@
 
 package com.palantir.roboslack.api.time;
 
-import java.lang.reflect.InvocationTargetException;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableMap;
+import java.time.Clock;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.OffsetDateTime;
 import java.time.OffsetTime;
-import java.time.ZoneId;
+import java.time.Year;
+import java.time.YearMonth;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.time.chrono.ChronoLocalDate;
+import java.time.temporal.ChronoField;
 import java.time.temporal.Temporal;
+import java.util.Map;
 
 /**
  * Converts a given {@link Temporal} into the epoch timestamp (second precision) format that Slack expects when handling
- * dates and times.  Currently not all {@link Temporal} types are handled, but the ones that are handled include: <ul>
+ * dates and times. Conversions are dispatched on the {@link Temporal}'s class through a {@link ClassValue}, so each
+ * class is resolved once and every later conversion is a direct call. The types handled directly include: <ul>
  * <li>{@link Instant}</li> <li>{@link LocalTime}</li> <li>{@link LocalDate}</li> <li>{@link LocalDateTime}</li>
- * <li>{@link ZonedDateTime}</li> <li>{@link OffsetDateTime}</li> <li>{@link OffsetTime}</li> </ul>
+ * <li>{@link ZonedDateTime}</li> <li>{@link OffsetDateTime}</li> <li>{@link OffsetTime}</li> <li>{@link Year}</li>
+ * <li>{@link YearMonth}</li> </ul>
+ * Any other {@link Temporal} that supports {@link ChronoField#INSTANT_SECONDS} or {@link ChronoField#EPOCH_DAY}, such
+ * as {@link java.time.chrono.HijrahDate}, is converted through those fields. Dates are taken as the start of their day
+ * and times as on the current day, both in UTC.
  *
  * @see Temporal
  * @since 1.0.0
@@ -40,45 +52,57 @@ import java.time.temporal.Temporal;
 final class EpochTimestamps {
 
     private static final ZoneOffset UTC_OFFSET = ZoneOffset.UTC;
-    private static final ZoneId UTC_ID = ZoneId.of("UTC");
+    private static final Clock UTC_CLOCK = Clock.systemUTC();
+    private static final long SECONDS_PER_DAY = 86400L;
 
     private static final String CONVERT_ERR = "Unable to convert object of type '%s' to epoch timestamp";
 
-    private EpochTimestamps() {}
-
-    @SuppressWarnings("unused") // Called via reflection
-    private static long convertInstant(Instant instant) {
-        return instant.getEpochSecond();
-    }
-
-    @SuppressWarnings("unused") // Called via reflection
-    private static long convertLocalTime(LocalTime localTime) {
-        return convertLocalDateTime(localTime.atDate(LocalDate.now(UTC_ID)));
-    }
+    private static final Map<Class<?>, Converter> CONVERTERS = ImmutableMap.<Class<?>, Converter>builder()
+            .put(Instant.class, (temporal, clock) -> ((Instant) temporal).getEpochSecond())
+            .put(LocalTime.class, (temporal, clock) ->
+                    ((LocalTime) temporal).atDate(LocalDate.now(clock)).toEpochSecond(UTC_OFFSET))
+            .put(LocalDate.class, (temporal, clock) -> ((LocalDate) temporal).toEpochDay() * SECONDS_PER_DAY)
+            .put(LocalDateTime.class, (temporal, clock) -> ((LocalDateTime) temporal).toEpochSecond(UTC_OFFSET))
+            .put(ZonedDateTime.class, (temporal, clock) -> ((ZonedDateTime) temporal).toEpochSecond())
+            .put(OffsetDateTime.class, (temporal, clock) -> ((OffsetDateTime) temporal).toEpochSecond())
+            .put(OffsetTime.class, (temporal, clock) ->
+                    ((OffsetTime) temporal).atDate(LocalDate.now(clock)).toEpochSecond())
+            .put(Year.class, (temporal, clock) -> ((Year) temporal).atDay(1).toEpochDay() * SECONDS_PER_DAY)
+            .put(YearMonth.class, (temporal, clock) ->
+                    ((YearMonth) temporal).atDay(1).toEpochDay() * SECONDS_PER_DAY)
+            .build();
 
-    @SuppressWarnings("unused") // Called via reflection
-    private static long convertLocalDate(LocalDate localDate) {
-        return convertLocalDateTime(localDate.atStartOfDay());
-    }
-
-    @SuppressWarnings("unused") // Called via reflection
-    private static long convertLocalDateTime(LocalDateTime localDateTime) {
-        return localDateTime.toEpochSecond(UTC_OFFSET);
-    }
+    private static final ClassValue<Converter> DISPATCH = new ClassValue<Converter>() {
+        @Override
+        protected Converter computeValue(Class<?> type) {
+            Converter converter = CONVERTERS.get(type);
+            if (converter != null) {
+                return converter;
+            }
+            return ChronoLocalDate.class.isAssignableFrom(type)
+                    ? (temporal, clock) -> ((ChronoLocalDate) temporal).toEpochDay() * SECONDS_PER_DAY
+                    : EpochTimestamps::convertFields;
+        }
+    };
 
-    @SuppressWarnings("unused") // Called via reflection
-    private static long convertZonedDateTime(ZonedDateTime zonedDateTime) {
-        return convertInstant(zonedDateTime.toInstant());
-    }
+    private EpochTimestamps() {}
 
-    @SuppressWarnings("unused") // Called via reflection
-    private static long convertOffsetDateTime(OffsetDateTime offsetDateTime) {
-        return convertZonedDateTime(offsetDateTime.atZoneSameInstant(UTC_OFFSET));
+    @FunctionalInterface
+    private interface Converter {
+        long convert(Temporal temporal, Clock clock);
     }
 
-    @SuppressWarnings("unused") // Called via reflection
-    private static long convertOffsetTime(OffsetTime offsetTime) {
-        return convertOffsetDateTime(offsetTime.atDate(LocalDate.now(UTC_ID)));
+    private static long convertFields(Temporal temporal, Clock clock) {
+        if (temporal.isSupported(ChronoField.INSTANT_SECONDS)) {
+            return temporal.getLong(ChronoField.INSTANT_SECONDS);
+        }
+        if (temporal.isSupported(ChronoField.EPOCH_DAY)) {
+            long seconds = temporal.getLong(ChronoField.EPOCH_DAY) * SECONDS_PER_DAY;
+            return temporal.isSupported(ChronoField.SECOND_OF_DAY)
+                    ? seconds + temporal.getLong(ChronoField.SECOND_OF_DAY)
+                    : seconds;
+        }
+        throw new IllegalArgumentException(String.format(CONVERT_ERR, temporal.getClass().getSimpleName()));
     }
 
     /**
@@ -88,14 +112,20 @@ final class EpochTimestamps {
      * @return the {@link Long} epoch timestamp (in seconds) based in UTC
      */
     static long convert(Temporal temporal) {
-        String className = temporal.getClass().getSimpleName();
-        String methodName = String.format("convert%s", className);
-        try {
-            return (long) EpochTimestamps.class.getDeclaredMethod(methodName, temporal.getClass())
-                    .invoke(null, temporal); // Use null for instance of class (for static methods)
-        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
-            throw new IllegalArgumentException(String.format(CONVERT_ERR, className), e);
-        }
+        return convert(temporal, UTC_CLOCK);
+    }
+
+    /**
+     * Converts a {@link Temporal} into it's {@link Long} epoch timestamp equivalent (in seconds) based in UTC, taking
+     * the current day of time-only types from {@code clock}.
+     *
+     * @param temporal the {@link Temporal} to convert
+     * @param clock the {@link Clock} giving the current day
+     * @return the {@link Long} epoch timestamp (in seconds) based in UTC
+     */
+    static long convert(Temporal temporal, Clock clock) {
+        checkNotNull(temporal, "Temporal cannot be null");
+        return DISPATCH.get(temporal.getClass()).convert(temporal, clock);
     }
 
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.roboslack.api.time;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongFunction;
+
+/**
+ * A small, direct-mapped cache of the fallback text a {@link SlackDateTimeFormatter} renders for each epoch second.
+ * Each epoch second maps to a single slot, and a newer rendering simply replaces whatever the slot held, so lookups
+ * never lock and hits never allocate.
+ *
+ * @since 1.1.0
+ */
+final class FallbackTextCache {
+
+    private static final int SIZE = 64;
+
+    private final AtomicReferenceArray<Entry> entries = new AtomicReferenceArray<>(SIZE);
+
+    /**
+     * Gets the fallback text for {@code epochSecond}, rendering and caching it with {@code renderer} on a miss.
+     *
+     * @param epochSecond the epoch timestamp (in seconds)
+     * @param renderer renders the fallback text of an epoch timestamp
+     * @return the fallback text
+     */
+    String get(long epochSecond, LongFunction<String> renderer) {
+        int slot = slot(epochSecond);
+        Entry entry = entries.get(slot);
+        if (entry == null || entry.epochSecond != epochSecond) {
+            entry = new Entry(epochSecond, renderer.apply(epochSecond));
+            entries.lazySet(slot, entry);
+        }
+        return entry.text;
+    }
+
+    private static int slot(long epochSecond) {
+        long hash = epochSecond * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> (Long.SIZE - Integer.numberOfTrailingZeros(SIZE)));
+    }
+
+    private static final class Entry {
+
+        private final long epochSecond;
+        private final String text;
+
+        Entry(long epochSecond, String text) {
+            this.epochSecond = epochSecond;
+            this.text = text;
+        }
+
+    }
+
+}
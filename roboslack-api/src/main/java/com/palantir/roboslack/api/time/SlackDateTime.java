@@ -16,14 +16,16 @@
 
 package com.palantir.roboslack.api.time;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
-import com.palantir.roboslack.api.markdown.StringDecorator;
-import com.palantir.roboslack.api.markdown.ValueDecorator;
-import java.net.MalformedURLException;
+import com.palantir.roboslack.utils.MoreUris;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.net.URL;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
+import java.time.Clock;
 import java.time.temporal.Temporal;
 import java.util.Optional;
 import org.immutables.value.Value;
@@ -53,10 +55,13 @@ public abstract class SlackDateTime {
      */
     public static final SlackDateTimeFormatter DEFAULT_FORMAT = SlackDateTimeFormatter.LOCAL_DATE_TIME;
 
-    private static final ValueDecorator<String> OUTPUT_DECORATOR = StringDecorator.of("<!date", ">");
-
-    private static final String OUTPUT_WITH_LINK_FORMAT = "^%08d^%s^%s|%s";
-    private static final String OUTPUT_WITHOUT_LINK_FORMAT = "^%08d^%s|%s";
+    private static final String OUTPUT_PREFIX = "<!date^";
+    private static final char OUTPUT_SEPARATOR = '^';
+    private static final char OUTPUT_FALLBACK_SEPARATOR = '|';
+    private static final char OUTPUT_SUFFIX = '>';
+    private static final int EPOCH_TIMESTAMP_MIN_DIGITS = 8;
+    private static final int LONG_MAX_DIGITS = 19;
+    private static final int OUTPUT_LENGTH_ESTIMATE = 64;
 
     /**
      * Creates a new {@link SlackDateTime} based on the epoch timestamp provided (in seconds).
@@ -77,6 +82,18 @@ public abstract class SlackDateTime {
      * @return the new {@link SlackDateTime}
      */
     public static SlackDateTime of(long epochTimestamp, URL link) {
+        return of(epochTimestamp, MoreUris.fromUrl(link));
+    }
+
+    /**
+     * Creates a new {@link SlackDateTime} of the provided epoch timestamp (in seconds), and a {@link URI} that will be
+     * rendered as a hyperlink reference within a Slack client.
+     *
+     * @param epochTimestamp the epochTimestamp in seconds
+     * @param link the {@link URI} that will be rendered as a hyperlink reference within a Slack client
+     * @return the new {@link SlackDateTime}
+     */
+    public static SlackDateTime of(long epochTimestamp, URI link) {
         return ImmutableSlackDateTime.builder().epochTimestamp(epochTimestamp).link(link).build();
     }
 
@@ -90,13 +107,7 @@ public abstract class SlackDateTime {
      * @return the new {@link SlackDateTime}
      */
     public static SlackDateTime of(long epochTimestamp, String link) {
-        URL url;
-        try {
-            url = new URL(link);
-        } catch (MalformedURLException e) {
-            throw new IllegalArgumentException(String.format("Link is malformed: %s", link), e);
-        }
-        return of(epochTimestamp, url);
+        return of(epochTimestamp, MoreUris.parse(link));
     }
 
     /**
@@ -109,6 +120,18 @@ public abstract class SlackDateTime {
         return of(EpochTimestamps.convert(temporal));
     }
 
+    /**
+     * Creates a new {@link SlackDateTime} of the provided {@link Temporal}, taking the day of time-only types such as
+     * {@link java.time.LocalTime} from {@code clock} rather than the system clock.
+     *
+     * @param temporal the {@link Temporal}
+     * @param clock the {@link Clock} giving the current day
+     * @return the new {@link SlackDateTime}
+     */
+    public static SlackDateTime of(Temporal temporal, Clock clock) {
+        return of(EpochTimestamps.convert(temporal, checkNotNull(clock, "Clock cannot be null")));
+    }
+
     /**
      * Creates a new {@link SlackDateTime} of the provided {@link Temporal}, and a {@link URL} that will be rendered as
      * a hyperlink reference within a Slack client.
@@ -121,6 +144,18 @@ public abstract class SlackDateTime {
         return of(EpochTimestamps.convert(temporal), link);
     }
 
+    /**
+     * Creates a new {@link SlackDateTime} of the provided {@link Temporal}, and a {@link URI} that will be rendered as
+     * a hyperlink reference within a Slack client.
+     *
+     * @param temporal the {@link Temporal}
+     * @param link the {@link URI} that will be rendered as a hyperlink reference within a Slack client
+     * @return the new {@link SlackDateTime}
+     */
+    public static SlackDateTime of(Temporal temporal, URI link) {
+        return of(EpochTimestamps.convert(temporal), link);
+    }
+
     /**
      * Creates a new {@link SlackDateTime} of the provided {@link Temporal}, and a {@link String} link (in {@link URL}
      * format) that will be rendered as a hyperlink reference within a Slack client.
@@ -134,8 +169,27 @@ public abstract class SlackDateTime {
         return of(EpochTimestamps.convert(temporal), link);
     }
 
-    private String computeFallbackText(SlackDateTimeFormatter formatter) {
-        return formatter.format(LocalDateTime.ofEpochSecond(epochTimestamp(), 0, ZoneOffset.UTC));
+    /**
+     * Appends {@code value} zero-padded to {@link #EPOCH_TIMESTAMP_MIN_DIGITS} characters, as {@code %08d} would.
+     */
+    private static void appendZeroPadded(Appendable out, long value) throws IOException {
+        int width = EPOCH_TIMESTAMP_MIN_DIGITS;
+        if (value < 0) {
+            out.append('-');
+            width--;
+        }
+        long divisor = 1L;
+        int digits = 1;
+        while (digits < LONG_MAX_DIGITS && value / (divisor * 10) != 0) {
+            divisor *= 10;
+            digits++;
+        }
+        for (int i = digits; i < width; i++) {
+            out.append('0');
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + Math.abs(value / divisor % 10)));
+        }
     }
 
     /**
@@ -147,19 +201,10 @@ public abstract class SlackDateTime {
      * @return the {@link String} representation of this {@link SlackDateTime} that renders dynamically on Slack clients
      */
     public final String format(SlackDateTimeFormatter formatter) {
-        if (link().isPresent()) {
-            return OUTPUT_DECORATOR.decorate(
-                    String.format(OUTPUT_WITH_LINK_FORMAT,
-                            epochTimestamp(),
-                            formatter.pattern(),
-                            link().get().toString(),
-                            computeFallbackText(formatter)));
-        } else {
-            return OUTPUT_DECORATOR.decorate(
-                    String.format(OUTPUT_WITHOUT_LINK_FORMAT,
-                            epochTimestamp(),
-                            formatter.pattern(),
-                            computeFallbackText(formatter)));
+        try {
+            return formatTo(new StringBuilder(OUTPUT_LENGTH_ESTIMATE), formatter).toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
@@ -173,6 +218,32 @@ public abstract class SlackDateTime {
         return format(DEFAULT_FORMAT);
     }
 
+    /**
+     * Formats this {@link SlackDateTime} using the provided {@link SlackDateTimeFormatter}, writing straight into
+     * {@code out}. Fallback text for recently formatted timestamps is reused, so repeatedly formatting the same dates
+     * only copies characters.
+     *
+     * @param out the {@link Appendable} to write to
+     * @param formatter the {@link SlackDateTimeFormatter} to use
+     * @param <A> the type of {@link Appendable}
+     * @return {@code out}
+     * @throws IOException if {@code out} fails to append
+     */
+    public final <A extends Appendable> A formatTo(A out, SlackDateTimeFormatter formatter) throws IOException {
+        checkNotNull(out, "Appendable cannot be null");
+        checkNotNull(formatter, "Formatter cannot be null");
+        out.append(OUTPUT_PREFIX);
+        appendZeroPadded(out, epochTimestamp());
+        out.append(OUTPUT_SEPARATOR).append(formatter.pattern());
+        if (link().isPresent()) {
+            out.append(OUTPUT_SEPARATOR).append(link().get().toString());
+        }
+        out.append(OUTPUT_FALLBACK_SEPARATOR)
+                .append(formatter.fallbackText(epochTimestamp()))
+                .append(OUTPUT_SUFFIX);
+        return out;
+    }
+
     /**
      * Formats this {@link SlackDateTime} with the default format of {@link SlackDateTimeFormatter#LOCAL_DATE_TIME},
      * which is the same as calling {@link #format(SlackDateTimeFormatter.LOCAL_DATE_TIME)}.
@@ -194,8 +265,8 @@ public abstract class SlackDateTime {
     /**
      * Gets the link to render within the Slack client when this date is formatted.
      *
-     * @return an {@link Optional} containing the {@link URL}
+     * @return an {@link Optional} containing the {@link URI}
      */
-    public abstract Optional<URL> link();
+    public abstract Optional<URI> link();
 
 }
@@ -17,28 +17,34 @@
 package com.palantir.roboslack.api.time;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Range;
-import com.palantir.roboslack.utils.MorePreconditions;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.time.temporal.TemporalAccessor;
+import java.time.zone.ZoneRules;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Stream;
 import org.immutables.value.Value;
 
 /**
  * Represents the formatting pattern that Slack can apply to an epoch timestamp.  It is also used to format the fallback
- * text of a {@link SlackDateTime} before it is sent to Slack.
+ * text of a {@link SlackDateTime} before it is sent to Slack.  Fallback text is rendered in UTC, unless the formatter
+ * has a {@link #zone()}; see {@link #inZone(ZoneId)}.
  *
  * @see java.time.format.DateTimeFormatter
  * @see SlackDateTime
@@ -55,10 +61,13 @@ public abstract class SlackDateTimeFormatter {
             + "in order to be processed by Slack correctly.";
     private static final Range<Integer> AT_LEAST_ONE = Range.atLeast(1);
 
-    private static final String FORMAT_TOKENS_PATTERN = Joiner.on("|").join(Stream.of(DateTimeFormatToken.values())
-            .map(token -> "\\" + token.toString()) // Escape format token literals
-            .collect(ImmutableList.toImmutableList()));
     private static final Joiner DEFAULT_MULTI_TOKEN_JOINER = Joiner.on(" ");
+    private static final int MAX_CACHED_FORMATTERS = 256;
+    private static final int MAX_CACHED_ZONES = 64;
+
+    private static final Cache<String, SlackDateTimeFormatter> FORMATTERS = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_FORMATTERS)
+            .build();
 
     /**
      * The date-time formatter that formats a date-time without an offset, in the form of 'yyyy-mm-dd kk:mm:ss'.
@@ -69,14 +78,34 @@ public abstract class SlackDateTimeFormatter {
     /**
      * Creates a new {@link SlackDateTimeFormatter} using the provided pattern.  The pattern can contain any permutation
      * of the {@link String} representations of {@link DateTimeFormatToken}, with any other text formatting.
+     * <p>
+     * Formatters are cached by pattern, so repeatedly creating a formatter for the same pattern reuses its parsed
+     * tokens and delegate {@link DateTimeFormatter}.</p>
      *
      * @param pattern the {@link String} pattern
-     * @return the new {@link SlackDateTimeFormatter}
+     * @return the {@link SlackDateTimeFormatter}
      */
     public static SlackDateTimeFormatter of(String pattern) {
-        return ImmutableSlackDateTimeFormatter.builder()
-                .pattern(pattern)
-                .build();
+        SlackDateTimeFormatter formatter = pattern == null ? null : FORMATTERS.getIfPresent(pattern);
+        if (formatter == null) {
+            formatter = ImmutableSlackDateTimeFormatter.builder()
+                    .pattern(pattern)
+                    .build();
+            FORMATTERS.put(pattern, formatter);
+        }
+        return formatter;
+    }
+
+    /**
+     * Creates a new {@link SlackDateTimeFormatter} using the provided pattern, rendering fallback text in {@code zone}.
+     * This is equivalent to calling {@code of(pattern).inZone(zone)}.
+     *
+     * @param pattern the {@link String} pattern
+     * @param zone the {@link ZoneId} to render fallback text in
+     * @return the {@link SlackDateTimeFormatter}
+     */
+    public static SlackDateTimeFormatter of(String pattern, ZoneId zone) {
+        return of(pattern).inZone(zone);
     }
 
     /**
@@ -95,33 +124,77 @@ public abstract class SlackDateTimeFormatter {
         return of(DEFAULT_MULTI_TOKEN_JOINER.join(allTokens));
     }
 
-    private static List<String> tokenizePattern(String pattern) {
-        ImmutableList.Builder<String> tokens = ImmutableList.builder();
-        Matcher matcher = Pattern.compile(FORMAT_TOKENS_PATTERN, Pattern.CASE_INSENSITIVE).matcher(pattern);
-        int currentIndex = 0;
-        while (matcher.find()) {
-            int start = matcher.start();
-            int end = matcher.end();
-            if (start > currentIndex) {
-                tokens.add(pattern.substring(currentIndex, start));
-                tokens.add(pattern.substring(start, end));
-            } else {
-                tokens.add(pattern.substring(start, end));
-            }
-            currentIndex = end;
+    @Override
+    public final String toString() {
+        return pattern();
+    }
+
+    /**
+     * Returns a {@link SlackDateTimeFormatter} with the same pattern that renders fallback text in {@code zone}, for
+     * clients that show the fallback rather than rendering the date themselves. Formatters are cached per zone, so
+     * rendering for many zones reuses each zone's delegate {@link DateTimeFormatter} and {@link ZoneRules}.
+     *
+     * @param zone the {@link ZoneId} to render fallback text in
+     * @return the {@link SlackDateTimeFormatter} for {@code zone}
+     */
+    public final SlackDateTimeFormatter inZone(ZoneId zone) {
+        checkNotNull(zone, "Zone cannot be null");
+        if (zone().isPresent()) {
+            // Zoned formatters share the unzoned formatter's cache, rather than each filling their own
+            return zone().get().equals(zone) ? this : of(pattern()).inZone(zone);
         }
-        return tokens.build();
+        Cache<ZoneId, SlackDateTimeFormatter> zoneFormatters = zoneFormatters();
+        SlackDateTimeFormatter formatter = zoneFormatters.getIfPresent(zone);
+        if (formatter == null) {
+            formatter = ImmutableSlackDateTimeFormatter.builder()
+                    .pattern(pattern())
+                    .zone(zone)
+                    .build();
+            zoneFormatters.put(zone, formatter);
+        }
+        return formatter;
     }
 
-    @Value.Check
-    protected final void check() {
-        checkArgument(!Strings.isNullOrEmpty(pattern()), PATTERN_EMPTY_ERR);
-        checkArgument(MorePreconditions.containsDateTimeFormatTokens(pattern(), AT_LEAST_ONE), FORMAT_TOKENS_ERR);
+    /**
+     * The formatters for this formatter's pattern in other zones, created by {@link #inZone(ZoneId)}.
+     *
+     * @return the zone formatter {@link Cache}
+     */
+    @JsonIgnore
+    @Value.Lazy
+    Cache<ZoneId, SlackDateTimeFormatter> zoneFormatters() {
+        return CacheBuilder.newBuilder()
+                .maximumSize(MAX_CACHED_ZONES)
+                .build();
     }
 
-    @Override
-    public final String toString() {
-        return pattern();
+    /**
+     * The rules of {@link #zone()}, or of UTC if there is no zone, looked up once per formatter.
+     *
+     * @return the {@link ZoneRules}
+     */
+    @JsonIgnore
+    @Value.Lazy
+    ZoneRules zoneRules() {
+        return zone().orElse(ZoneOffset.UTC).getRules();
+    }
+
+    /**
+     * The {@link #pattern()} split into {@link DateTimeFormatToken} strings and the literal text around them. The
+     * pattern is validated while it is split, so it is only scanned once.
+     *
+     * @return the pattern tokens
+     */
+    @JsonIgnore
+    @Value.Derived
+    protected List<String> patternTokens() {
+        String pattern = pattern();
+        checkArgument(!Strings.isNullOrEmpty(pattern), PATTERN_EMPTY_ERR);
+        ImmutableList.Builder<String> tokens = ImmutableList.builder();
+        int formatTokens = DateTimeFormatTokenScanner.scan(pattern,
+                (token, start, end) -> tokens.add(pattern.substring(start, end)));
+        checkArgument(AT_LEAST_ONE.contains(formatTokens), FORMAT_TOKENS_ERR);
+        return tokens.build();
     }
 
     /**
@@ -132,7 +205,7 @@ public abstract class SlackDateTimeFormatter {
     @Value.Derived
     protected DateTimeFormatter delegateFormatter() {
         DateTimeFormatterBuilder formatterBuilder = new DateTimeFormatterBuilder();
-        for (String patternToken : tokenizePattern(pattern())) {
+        for (String patternToken : patternTokens()) {
             Optional<DateTimeFormatToken> formatToken = DateTimeFormatToken.ofSafe(patternToken);
             if (formatToken.isPresent()) {
                 formatterBuilder.appendPattern(formatToken.get().pattern());
@@ -140,7 +213,30 @@ public abstract class SlackDateTimeFormatter {
                 formatterBuilder.appendLiteral(patternToken);
             }
         }
-        return formatterBuilder.toFormatter();
+        DateTimeFormatter formatter = formatterBuilder.toFormatter();
+        return zone().isPresent() ? formatter.withZone(zone().get()) : formatter;
+    }
+
+    /**
+     * The fallback text renderings of recently formatted epoch timestamps.
+     *
+     * @return the {@link FallbackTextCache}
+     */
+    @JsonIgnore
+    @Value.Lazy
+    FallbackTextCache fallbackTextCache() {
+        return new FallbackTextCache();
+    }
+
+    /**
+     * Formats an epoch timestamp (in seconds) as the fallback text of a {@link SlackDateTime}, in {@link #zone()}.
+     *
+     * @param epochSecond the epoch timestamp (in seconds)
+     * @return the fallback text
+     */
+    final String fallbackText(long epochSecond) {
+        return fallbackTextCache().get(epochSecond, second -> format(LocalDateTime.ofEpochSecond(second, 0,
+                zoneRules().getOffset(Instant.ofEpochSecond(second)))));
     }
 
     /**
@@ -177,4 +273,12 @@ public abstract class SlackDateTimeFormatter {
      */
     public abstract String pattern();
 
+    /**
+     * Gets the {@link ZoneId} that fallback text is rendered in. Without a zone, fallback text is rendered in UTC.
+     *
+     * @return an {@link Optional} containing the {@link ZoneId}
+     */
+    @JsonIgnore
+    public abstract Optional<ZoneId> zone();
+
 }
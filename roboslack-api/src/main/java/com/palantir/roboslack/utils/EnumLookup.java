@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.utils;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Optional;
+import java.util.function.Function;
+import javax.annotation.CheckForNull;
+
+/**
+ * Precomputed, case-insensitive lookup of enum constants by their wire-format names. Lookups hash the input with ASCII
+ * case folding into an open-addressed table, so they take constant time in the number of constants and allocate
+ * nothing, not even the returned {@link Optional}.
+ *
+ * @param <E> the enum type
+ * @since 1.1.0
+ */
+public final class EnumLookup<E extends Enum<E>> {
+
+    private final String[] keys;
+    private final Optional<E>[] entries;
+    private final int mask;
+
+    @SuppressWarnings({"rawtypes", "unchecked"}) // Generic array creation
+    private EnumLookup(E[] constants, Function<? super E, String> keyFunction) {
+        int size = 1;
+        while (size < constants.length * 4) {
+            size <<= 1;
+        }
+        this.keys = new String[size];
+        this.entries = new Optional[size];
+        this.mask = size - 1;
+        for (E constant : constants) {
+            String key = checkNotNull(keyFunction.apply(constant), "Lookup key cannot be null");
+            int slot = hash(key) & mask;
+            while (keys[slot] != null) {
+                checkArgument(!matches(keys[slot], key), "Duplicate lookup key '%s'", key);
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            entries[slot] = Optional.of(constant);
+        }
+    }
+
+    /**
+     * Creates a lookup of the constants of {@code type}, keyed by {@code keyFunction}. Keys must be unique ignoring
+     * ASCII case.
+     *
+     * @param type the enum {@link Class}
+     * @param keyFunction computes the wire-format name of each constant
+     * @param <E> the enum type
+     * @return the {@link EnumLookup}
+     */
+    public static <E extends Enum<E>> EnumLookup<E> of(Class<E> type, Function<? super E, String> keyFunction) {
+        return new EnumLookup<>(type.getEnumConstants(), keyFunction);
+    }
+
+    /**
+     * Finds the constant whose key matches {@code text}, ignoring ASCII case.
+     *
+     * @param text the key to look up
+     * @return an {@link Optional} containing the matching constant, if any
+     */
+    public Optional<E> find(@CheckForNull CharSequence text) {
+        if (text == null) {
+            return Optional.empty();
+        }
+        int slot = hash(text) & mask;
+        while (keys[slot] != null) {
+            if (matches(keys[slot], text)) {
+                return entries[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Gets the constant whose key matches {@code text}, ignoring ASCII case.
+     *
+     * @param text the key to look up
+     * @return the matching constant, or null if there is none
+     */
+    @CheckForNull
+    public E getIfPresent(@CheckForNull CharSequence text) {
+        return find(text).orElse(null);
+    }
+
+    private static int hash(CharSequence text) {
+        int hash = 0;
+        for (int i = 0; i < text.length(); i++) {
+            hash = 31 * hash + fold(text.charAt(i));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String key, CharSequence text) {
+        if (key.length() != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (fold(key.charAt(i)) != fold(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char fold(char character) {
+        return character >= 'A' && character <= 'Z' ? (char) (character + ('a' - 'A')) : character;
+    }
+
+}
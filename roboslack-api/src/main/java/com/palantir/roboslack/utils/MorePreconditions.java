@@ -20,13 +20,14 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Range;
-import com.palantir.roboslack.api.markdown.SlackMarkdown;
+import com.palantir.roboslack.api.markdown.MarkdownScanner;
 import com.palantir.roboslack.api.time.DateTimeFormatToken;
+import com.palantir.roboslack.api.time.DateTimeFormatTokenScanner;
 import java.util.Collection;
 import java.util.Optional;
 import java.util.regex.Pattern;
-import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 
 /**
@@ -49,12 +50,58 @@ public final class MorePreconditions {
     }
 
     public static void checkCharacterLength(String fieldName, String content, int charLimit) {
-        checkArgument(content.length() <= charLimit, CHARACTER_LIMIT_ERROR_FORMAT, fieldName, charLimit,
-                content.length());
+        throwIfPresent(characterLengthViolation(fieldName, content, charLimit));
     }
 
     public static void checkHexColor(String value) {
-        checkArgument(HEX_COLOR_PATTERN.matcher(value).find(), HEX_COLOR_ERROR_FORMAT, value);
+        throwIfPresent(hexColorViolation(value));
+    }
+
+    /**
+     * Describes how {@code content} exceeds the {@code charLimit} of the field {@code fieldName}, without throwing.
+     *
+     * @param fieldName the name of the field
+     * @param content the content of the field
+     * @param charLimit the maximum number of characters
+     * @return an {@link Optional} containing the violation, if there is one
+     * @see #checkCharacterLength(String, String, int)
+     */
+    public static Optional<String> characterLengthViolation(String fieldName, String content, int charLimit) {
+        return content.length() <= charLimit
+                ? Optional.empty()
+                : Optional.of(String.format(CHARACTER_LIMIT_ERROR_FORMAT, fieldName, charLimit, content.length()));
+    }
+
+    /**
+     * Describes how {@code value} is not a valid hex color, without throwing.
+     *
+     * @param value the hex color value
+     * @return an {@link Optional} containing the violation, if there is one
+     * @see #checkHexColor(String)
+     */
+    public static Optional<String> hexColorViolation(String value) {
+        return HEX_COLOR_PATTERN.matcher(value).find()
+                ? Optional.empty()
+                : Optional.of(String.format(HEX_COLOR_ERROR_FORMAT, value));
+    }
+
+    /**
+     * Ensures that there are no {@code violations}, as collected by the {@code violations()} methods of models that
+     * can be built as trusted.
+     *
+     * @param violations the violations
+     * @throws IllegalArgumentException listing every violation, if there are any
+     */
+    public static void checkViolations(Iterable<String> violations) {
+        if (!Iterables.isEmpty(violations)) {
+            throw new IllegalArgumentException(Joiner.on("; ").join(violations));
+        }
+    }
+
+    private static void throwIfPresent(Optional<String> violation) {
+        violation.ifPresent(message -> {
+            throw new IllegalArgumentException(message);
+        });
     }
 
     /**
@@ -78,23 +125,22 @@ public final class MorePreconditions {
      *
      * @param text {@link String} for Slack markdown
      * @return {@link boolean} telling us if Slack markdown was found
+     * @see MarkdownScanner
      */
     public static boolean containsMarkdown(@CheckForNull String text) {
-        return text != null && SlackMarkdown.PATTERN.matcher(text).find();
+        return MarkdownScanner.containsMarkdown(text);
     }
 
     /**
-     * Returns true if the {@code text} contains a summed count of instances of {@link DateTimeFormatToken} values,
-     * based on the sum count {@link Range} {@code acceptanceRange}.
+     * Returns true if the {@code text} contains a number of distinct {@link DateTimeFormatToken} values within {@code
+     * acceptanceRange}. Tokens are matched ignoring ASCII case, as with {@link DateTimeFormatToken#ofSafe(String)}.
      *
      * @param text the text to count {@link DateTimeFormatToken} instances on
      * @param acceptanceRange the range threshold
      * @return true if contains accepted count of {@link DateTimeFormatToken}, false otherwise
      */
     public static boolean containsDateTimeFormatTokens(@CheckForNull String text, Range<Integer> acceptanceRange) {
-        return text != null && acceptanceRange.contains(Stream.of(DateTimeFormatToken.values())
-                .mapToInt(token -> text.contains(token.toString()) ? 1 : 0)
-                .sum());
+        return text != null && acceptanceRange.contains(DateTimeFormatTokenScanner.countDistinctTokens(text));
     }
 
 }
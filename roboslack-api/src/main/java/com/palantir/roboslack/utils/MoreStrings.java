@@ -56,4 +56,37 @@ public final class MoreStrings {
                 : text;
     }
 
+    /**
+     * Allocation-free equivalent of {@code text.toString().startsWith(prefix, offset)}.
+     *
+     * @param text {@link CharSequence} text to check
+     * @param offset where in {@code text} to begin looking
+     * @param prefix {@link String} to look for
+     * @return true if {@code prefix} occurs in {@code text} starting at {@code offset}, false otherwise
+     */
+    public static boolean startsWith(CharSequence text, int offset, String prefix) {
+        if (offset < 0 || text.length() - offset < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.charAt(offset + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Allocation-free equivalent of {@code text.subSequence(start, text.length()).toString().endsWith(suffix)}.
+     *
+     * @param text {@link CharSequence} text to check
+     * @param start the start of the region of {@code text} to check
+     * @param suffix {@link String} to look for
+     * @return true if the region of {@code text} from {@code start} ends with {@code suffix}, false otherwise
+     */
+    public static boolean regionEndsWith(CharSequence text, int start, String suffix) {
+        int offset = text.length() - suffix.length();
+        return offset >= start && startsWith(text, offset, suffix);
+    }
+
 }
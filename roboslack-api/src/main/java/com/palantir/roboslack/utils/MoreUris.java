@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.utils;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+
+/**
+ * Converts links to the {@link URI}s held by RoboSlack's model. Unlike {@link URL}, whose {@code equals} and {@code
+ * hashCode} resolve host names, {@link URI} compares its text, so model objects can be hashed and compared without
+ * touching the network.
+ *
+ * @since 1.1.0
+ */
+public final class MoreUris {
+
+    private MoreUris() {
+        // Intentionally left blank
+    }
+
+    /**
+     * Converts {@code url} to a {@link URI}, quoting any characters that are legal in a {@link URL} but not in a
+     * {@link URI}, such as spaces.
+     *
+     * @param url the {@link URL} to convert
+     * @return the equivalent {@link URI}
+     * @throws IllegalArgumentException if {@code url} cannot be represented as a {@link URI}
+     */
+    public static URI fromUrl(URL url) {
+        checkNotNull(url, "URL cannot be null");
+        try {
+            return url.toURI();
+        } catch (URISyntaxException e) {
+            try {
+                return new URI(url.getProtocol(), url.getUserInfo(), url.getHost(), url.getPort(), url.getPath(),
+                        url.getQuery(), url.getRef());
+            } catch (URISyntaxException quoted) {
+                throw new IllegalArgumentException(String.format("URL cannot be converted to a URI: %s", url), quoted);
+            }
+        }
+    }
+
+    /**
+     * Parses {@code link} as a {@link URL} with a supported protocol, without resolving its host, and converts it to a
+     * {@link URI}.
+     *
+     * @param link the link to parse
+     * @return the parsed {@link URI}
+     * @throws IllegalArgumentException if {@code link} is not a valid {@link URL}
+     */
+    public static URI parse(String link) {
+        checkNotNull(link, "Link cannot be null");
+        try {
+            return fromUrl(new URL(link));
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException(String.format("Link is malformed: %s", link), e);
+        }
+    }
+
+}
@@ -29,9 +29,12 @@ import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.palantir.roboslack.api.attachments.Attachment;
 import com.palantir.roboslack.api.attachments.AttachmentTests;
+import com.palantir.roboslack.api.attachments.components.Title;
 import com.palantir.roboslack.api.markdown.SlackMarkdown;
 import com.palantir.roboslack.api.testing.MoreAssertions;
 import com.palantir.roboslack.api.testing.ResourcesReader;
+import com.palantir.roboslack.jackson.ObjectMappers;
+import java.io.IOException;
 import java.util.List;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
@@ -101,6 +104,55 @@ class MessageRequestTests {
                 MessageRequest.MAX_ATTACHMENTS_COUNT)));
     }
 
+    @Test
+    void testTrustedSkipsChecksButNormalizes() {
+        List<Attachment> attachments = ImmutableList.<Attachment>builder()
+                .addAll(attachments(MessageRequest.MAX_ATTACHMENTS_COUNT))
+                .add(Attachment.builder()
+                        .fallback("")
+                        .title(Title.builder().text("").trusted(true).build())
+                        .trusted(true)
+                        .build())
+                .build();
+        MessageRequest message = MessageRequest.builder()
+                .username("robo-slack")
+                .iconEmoji(INPUT_EMOJI)
+                .text("Trusted")
+                .attachments(attachments)
+                .trusted(true)
+                .build();
+        assertThat(message.iconEmoji().get(), is(equalTo(SlackMarkdown.EMOJI.decorate(INPUT_EMOJI))));
+        assertThat(message.violations().size(), is(3));
+        assertThat(message.violations().get(1), is(equalTo(String.format(
+                "attachments[%s]: Attachment fallback message cannot be null or empty",
+                MessageRequest.MAX_ATTACHMENTS_COUNT))));
+        assertThat(message.violations().get(2), is(equalTo(String.format(
+                "attachments[%s]: title: The title text field cannot be null or empty",
+                MessageRequest.MAX_ATTACHMENTS_COUNT))));
+        Throwable thrown = assertThrows(IllegalArgumentException.class, message::validate);
+        assertThat(thrown.getMessage(), containsString("3 violation(s)"));
+        assertThat(thrown.getMessage(), containsString("Cannot exceed"));
+    }
+
+    @Test
+    void testDeserializedIconEmojiIsNormalized() throws IOException {
+        MessageRequest message = ObjectMappers.readerFor(MessageRequest.class).readValue(String.format(
+                "{\"username\":\"robo-slack\",\"text\":\"Deserialized\",\"icon_emoji\":\"%s\"}", INPUT_EMOJI));
+        assertThat(message, is(equalTo(MessageRequest.builder()
+                .username("robo-slack")
+                .iconEmoji(INPUT_EMOJI)
+                .text("Deserialized")
+                .build())));
+        assertThat(message.iconEmoji().get(), is(equalTo(SlackMarkdown.EMOJI.decorate(INPUT_EMOJI))));
+    }
+
+    @Test
+    void testValidateWithoutViolations() {
+        MessageRequest message = defaultWithIconEmoji(INPUT_EMOJI);
+        assertTrue(message.violations().isEmpty());
+        assertThat(message.validate(), is(equalTo(message)));
+    }
+
     @ParameterizedTest
     @ArgumentsSource(SerializedMessageRequestsProvider.class)
     void testDeserialization(JsonNode json) {
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.api;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.palantir.roboslack.api.attachments.Attachment;
+import com.palantir.roboslack.api.attachments.components.Author;
+import com.palantir.roboslack.api.attachments.components.Color;
+import com.palantir.roboslack.api.attachments.components.Field;
+import com.palantir.roboslack.api.attachments.components.Footer;
+import com.palantir.roboslack.api.attachments.components.Title;
+import com.palantir.roboslack.api.markdown.SlackMarkdown;
+import com.palantir.roboslack.jackson.ObjectMappers;
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class MessageSplitterTests {
+
+    private static final int MAX_TEXT_SIZE = 200;
+    private static final MessageSplitter SPLITTER = MessageSplitter.builder().maxTextSize(MAX_TEXT_SIZE).build();
+    private static final MessageRequest TEMPLATE = MessageRequest.builder()
+            .username("robo-slack")
+            .channel("#general")
+            .text("")
+            .build();
+
+    private static String logLines(int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append('\n');
+            }
+            text.append("INFO worker ").append(i).append(" finished \"request\"");
+        }
+        return text.toString();
+    }
+
+    private static List<String> texts(List<MessageRequest> messages) {
+        return messages.stream().map(MessageRequest::text).collect(Collectors.toList());
+    }
+
+    private static int fences(String text) {
+        int count = 0;
+        for (int i = text.indexOf("```"); i >= 0; i = text.indexOf("```", i + 3)) {
+            count++;
+        }
+        return count;
+    }
+
+    private static void assertFits(List<MessageRequest> messages) {
+        for (MessageRequest message : messages) {
+            assertThat(MessageSplitter.estimateSerializedSize(message.text()), is(lessThanOrEqualTo(MAX_TEXT_SIZE)));
+            assertThat(message.username(), is(equalTo(TEMPLATE.username())));
+            assertThat(message.channel(), is(equalTo(TEMPLATE.channel())));
+        }
+    }
+
+    @Test
+    void testSmallMessageIsNotSplit() {
+        MessageRequest message = MessageRequest.builder().from(TEMPLATE).text(logLines(2)).build();
+        List<MessageRequest> split = SPLITTER.split(message);
+        assertThat(split, hasSize(1));
+        assertThat(split.get(0), is(sameInstance(message)));
+    }
+
+    @Test
+    void testSplitsOnLineBoundaries() {
+        String text = logLines(100);
+        List<MessageRequest> messages = SPLITTER.split(TEMPLATE, text, ImmutableList.of());
+        assertFits(messages);
+        assertTrue(messages.size() > 1);
+        assertThat(String.join("\n", texts(messages)), is(equalTo(text)));
+    }
+
+    @Test
+    void testSplitsLongLines() {
+        String text = Strings.repeat("0123456789", 100);
+        List<MessageRequest> messages = SPLITTER.split(TEMPLATE, text, ImmutableList.of());
+        assertFits(messages);
+        assertThat(String.join("", texts(messages)), is(equalTo(text)));
+    }
+
+    @Test
+    void testKeepsBlankLinesAtChunkStarts() {
+        for (int width = 1; width < 40; width++) {
+            String line = Strings.repeat("x", width);
+            String text = String.join("\n\n", Collections.nCopies(100, line));
+            List<MessageRequest> messages = SPLITTER.split(TEMPLATE, text, ImmutableList.of());
+            assertFits(messages);
+            assertThat(String.join("\n", texts(messages)), is(equalTo(text)));
+        }
+    }
+
+    @Test
+    void testKeepsPreformattedBlocksBalanced() {
+        String text = "Build failed:\n" + SlackMarkdown.PREFORMAT_MULTILINE.decorate(logLines(40)) + "\nDone";
+        List<MessageRequest> messages = SPLITTER.split(TEMPLATE, text, ImmutableList.of());
+        assertFits(messages);
+        assertTrue(messages.size() > 2);
+        assertThat(texts(messages).stream().map(MessageSplitterTests::fences).collect(Collectors.toList()),
+                everyItem(is(lessThanOrEqualTo(2))));
+        for (String chunk : texts(messages)) {
+            assertThat(fences(chunk) % 2, is(0));
+        }
+        assertTrue(messages.get(1).text().startsWith("```\n"));
+    }
+
+    @Test
+    void testDistributesAttachments() {
+        ImmutableList.Builder<Attachment> attachments = ImmutableList.builder();
+        for (int i = 0; i < 250; i++) {
+            attachments.add(Attachment.builder().fallback("Fallback " + i).text("Text " + i).build());
+        }
+        List<MessageRequest> messages = MessageSplitter.of().split(TEMPLATE, "Summary", attachments.build());
+        assertThat(messages, hasSize(3));
+        assertThat(messages.get(0).text(), is(equalTo("Summary")));
+        assertThat(messages.get(0).attachments(), hasSize(100));
+        assertThat(messages.get(1).attachments(), hasSize(100));
+        assertThat(messages.get(2).attachments(), hasSize(50));
+        assertThat(messages.get(2).attachments().get(49).text().get(), is(equalTo("Text 249")));
+        assertThat(messages.get(2).text(), is(equalTo("")));
+    }
+
+    @Test
+    void testPacksAttachmentsBySize() {
+        int maxMessageSize = 2000;
+        MessageSplitter splitter = MessageSplitter.builder()
+                .maxTextSize(MAX_TEXT_SIZE)
+                .maxMessageSize(maxMessageSize)
+                .build();
+        ImmutableList.Builder<Attachment> builder = ImmutableList.builder();
+        for (int i = 0; i < 12; i++) {
+            builder.add(Attachment.builder()
+                    .fallback("Fallback " + i)
+                    .text(Strings.repeat("x", i % 3 == 0 ? 900 : 100))
+                    .build());
+        }
+        List<Attachment> attachments = builder.build();
+        List<MessageRequest> messages = splitter.split(TEMPLATE, logLines(3), attachments);
+        assertTrue(messages.size() > 2);
+        for (MessageRequest message : messages) {
+            int size = MessageSplitter.estimateSerializedSize(message.text());
+            for (Attachment attachment : message.attachments()) {
+                size += MessageSplitter.estimateSerializedSize(attachment);
+            }
+            assertThat(size, is(lessThanOrEqualTo(maxMessageSize)));
+        }
+        assertThat(messages.stream().flatMap(message -> message.attachments().stream()).collect(Collectors.toList()),
+                is(equalTo(attachments)));
+    }
+
+    @Test
+    void testSendsOversizedAttachmentAlone() {
+        MessageSplitter splitter = MessageSplitter.builder().maxTextSize(MAX_TEXT_SIZE).build();
+        Attachment small = Attachment.builder().fallback("Small").build();
+        Attachment large = Attachment.builder().fallback("Large").text(Strings.repeat("x", 1000)).build();
+        List<MessageRequest> messages = splitter.split(TEMPLATE, "Summary", ImmutableList.of(small, large, small));
+        assertThat(messages, hasSize(3));
+        assertThat(messages.get(0).attachments(), is(equalTo(ImmutableList.of(small))));
+        assertThat(messages.get(1).attachments(), is(equalTo(ImmutableList.of(large))));
+        assertThat(messages.get(1).text(), is(equalTo("")));
+        assertThat(messages.get(2).attachments(), is(equalTo(ImmutableList.of(small))));
+    }
+
+    @Test
+    void testAttachmentEstimateBoundsJackson() throws JsonProcessingException {
+        Attachment attachment = Attachment.builder()
+                .fallback("quote \" fallback")
+                .pretext("Pretext")
+                .text(logLines(3))
+                .author(Author.builder().name("Author").link(URI.create("https://example.com/a")).build())
+                .title(Title.of("Title"))
+                .footer(Footer.builder().text("Footer").timestamp(1500000000L).build())
+                .addFields(Field.of("Field", "Value \t"))
+                .color(Color.good())
+                .build();
+        assertThat(ObjectMappers.sharedObjectMapper().writeValueAsString(attachment).length(),
+                is(lessThanOrEqualTo(MessageSplitter.estimateSerializedSize(attachment))));
+    }
+
+    @Test
+    void testEstimateMatchesJackson() throws JsonProcessingException {
+        String text = "quote \" backslash \\ tab \t newline \n bell " + (char) 7 + logLines(3);
+        assertThat(MessageSplitter.estimateSerializedSize(text),
+                is(new ObjectMapper().writeValueAsString(text).length() - 2));
+    }
+
+    @Test
+    void testInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> MessageSplitter.builder().maxTextSize(1).build());
+        assertThrows(IllegalArgumentException.class, () -> MessageSplitter.builder().maxAttachments(101).build());
+        assertThrows(IllegalArgumentException.class, () -> MessageSplitter.builder().maxMessageSize(100).build());
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.api;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableMap;
+import com.palantir.roboslack.api.attachments.Attachment;
+import com.palantir.roboslack.api.attachments.components.Field;
+import com.palantir.roboslack.api.attachments.components.Footer;
+import com.palantir.roboslack.jackson.ObjectMappers;
+import java.io.IOException;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class MessageTemplateTests {
+
+    private static MessageRequest alert(String host, String status, String count) {
+        return MessageRequest.builder()
+                .username("robo-slack")
+                .text("*Alert* on " + host)
+                .addAttachments(Attachment.builder()
+                        .fallback("Alert on " + host)
+                        .text("*Status:* " + status)
+                        .addFields(Field.of("Count", count))
+                        .footer(Footer.of("Monitoring"))
+                        .build())
+                .build();
+    }
+
+    @Test
+    void testRenderMatchesSerializedMessage() throws IOException {
+        MessageTemplate template = MessageTemplate.compile(alert("{{host}}", "{{status}}", "{{count}}"));
+        assertThat(template.parameterNames(), containsInAnyOrder("host", "status", "count"));
+        Map<String, Object> parameters = ImmutableMap.of(
+                "host", "db-1 \"primary\"",
+                "status", "down\nsince 5 minutes ago — paging",
+                "count", 3);
+        byte[] expected = ObjectMappers.writerFor(MessageRequest.class)
+                .writeValueAsBytes(alert("db-1 \"primary\"", "down\nsince 5 minutes ago — paging", "3"));
+        assertThat(new String(template.render(parameters), "UTF-8"), is(equalTo(new String(expected, "UTF-8"))));
+        JsonNode parsed = ObjectMappers.sharedObjectMapper().readTree(template.render(parameters));
+        assertThat(parsed.path("attachments").path(0).path("fields").path(0).path("value").asText(), is(equalTo("3")));
+    }
+
+    @Test
+    void testRepeatedAndMalformedPlaceholders() throws IOException {
+        MessageTemplate template = MessageTemplate.compile(MessageRequest.builder()
+                .username("{{name}}")
+                .text("{{name}} says {{ not a placeholder }} and {{{value}}}")
+                .build());
+        assertThat(template.parameterNames(), containsInAnyOrder("name", "value"));
+        MessageRequest parsed = ObjectMappers.readerFor(MessageRequest.class)
+                .readValue(template.render(ImmutableMap.of("name", "bot", "value", 1)));
+        assertThat(parsed.username(), is(equalTo("bot")));
+        assertThat(parsed.text(), is(equalTo("bot says {{ not a placeholder }} and {1}")));
+    }
+
+    @Test
+    void testMissingParameter() {
+        MessageTemplate template = MessageTemplate.compile(alert("{{host}}", "{{status}}", "1"));
+        assertThrows(IllegalArgumentException.class, () -> template.render(ImmutableMap.of("host", "db-1")));
+    }
+
+}
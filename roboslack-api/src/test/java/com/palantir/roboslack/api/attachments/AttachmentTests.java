@@ -19,18 +19,26 @@ package com.palantir.roboslack.api.attachments;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.base.Strings;
 import com.palantir.roboslack.api.attachments.components.AuthorTests;
+import com.palantir.roboslack.api.attachments.components.Color;
 import com.palantir.roboslack.api.attachments.components.ColorTests;
 import com.palantir.roboslack.api.attachments.components.FieldTests;
+import com.palantir.roboslack.api.attachments.components.Footer;
 import com.palantir.roboslack.api.attachments.components.FooterTests;
+import com.palantir.roboslack.api.attachments.components.Title;
 import com.palantir.roboslack.api.attachments.components.TitleTests;
+import com.palantir.roboslack.api.markdown.MarkdownTruncator;
 import com.palantir.roboslack.api.testing.MoreAssertions;
 import com.palantir.roboslack.api.testing.ResourcesReader;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
@@ -76,6 +84,45 @@ public final class AttachmentTests {
         assertThrows(IllegalStateException.class, () -> Attachment.builder().build());
     }
 
+    @Test
+    void testDerivesFallback() {
+        assertThat(Attachment.builder().text("*Deployment* <https://example.com|failed>").build().fallback(),
+                is(equalTo("Deployment failed")));
+        assertThat(Attachment.builder().pretext("_Nightly_").text("passed").build().fallback(),
+                is(equalTo("Nightly\npassed")));
+        assertThat(Attachment.builder().fallback("explicit").text("*text*").build().fallback(),
+                is(equalTo("explicit")));
+    }
+
+    @Test
+    void testTruncatesText() {
+        Attachment attachment = Attachment.builder()
+                .fallback("Deployment failed on every host")
+                .text("Deployment *failed* on every host")
+                .maxTextLength(20)
+                .build();
+        assertThat(attachment.fallback(), is(equalTo("Deployment failed o" + MarkdownTruncator.ELLIPSIS)));
+        assertThat(attachment.text().get(), is(equalTo("Deployment *failed*" + MarkdownTruncator.ELLIPSIS)));
+    }
+
+    @Test
+    void testTrustedSkipsComponentChecksAndCollectsViolations() {
+        Attachment attachment = Attachment.builder()
+                .fallback("")
+                .color(Color.ofTrusted("#nothex"))
+                .title(Title.builder().text("").trusted(true).build())
+                .footer(Footer.builder().text(Strings.repeat("x", 301)).trusted(true).build())
+                .trusted(true)
+                .build();
+        List<String> violations = attachment.violations();
+        assertThat(violations.size(), is(4));
+        assertThat(violations.get(0), is(equalTo("Attachment fallback message cannot be null or empty")));
+        assertThat(violations.get(1), startsWith("color: The string '#nothex' is not a valid hex color value."));
+        assertThat(violations.get(2), is(equalTo("title: The title text field cannot be null or empty")));
+        assertThat(violations.get(3), is(equalTo("footer: The field 'footer' cannot have more than 300 characters "
+                + "(found 301)")));
+    }
+
     @ParameterizedTest
     @MethodSource(value = "invalidConstructors")
     void testConstructionConstraints(Executable executable) {
@@ -16,14 +16,21 @@
 
 package com.palantir.roboslack.api.attachments.components;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.base.Strings;
 import com.palantir.roboslack.api.testing.MoreAssertions;
 import com.palantir.roboslack.api.testing.ResourcesReader;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -40,6 +47,22 @@ public final class AuthorTests {
         author.icon().ifPresent(Assertions::assertNotNull);
     }
 
+    @Test
+    void testUrlLinksConvertToUris() throws MalformedURLException {
+        Author fromUrl = Author.builder()
+                .name("Build bot")
+                .link(new URL("https://ci.example.com/builds/release 1"))
+                .icon(new URL("https://ci.example.com/icon.png"))
+                .build();
+        Author fromUri = Author.builder()
+                .name("Build bot")
+                .link(URI.create("https://ci.example.com/builds/release%201"))
+                .icon(URI.create("https://ci.example.com/icon.png"))
+                .build();
+        assertThat(fromUrl, is(equalTo(fromUri)));
+        assertThat(fromUrl.hashCode(), is(fromUri.hashCode()));
+    }
+
     @ParameterizedTest
     @ArgumentsSource(SerializedAuthorsProvider.class)
     void testSerialization(JsonNode json) {
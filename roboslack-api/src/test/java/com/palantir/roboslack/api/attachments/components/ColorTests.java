@@ -20,6 +20,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -32,6 +33,7 @@ import com.palantir.roboslack.api.testing.ResourcesReader;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -69,6 +71,20 @@ public final class ColorTests {
         assertThat(color.asPreset(), is(equalTo(preset)));
     }
 
+    @ParameterizedTest
+    @EnumSource(Color.Preset.class)
+    void testPresetsAreCanonical(Color.Preset preset) {
+        assertThat(Color.of(preset.toString().toUpperCase()), is(sameInstance(Color.of(preset))));
+        assertThat(Color.of(preset), is(sameInstance(Color.of(preset))));
+    }
+
+    @Test
+    void testHexColorsAreShared() {
+        assertThat(Color.of("#FACADE"), is(sameInstance(Color.of("#FACADE"))));
+        assertThat(Color.of("#FACADE"), is(equalTo(Color.of("#facade"))));
+        assertThat(Color.of("#FACADE").value(), is(equalTo("#facade")));
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {
             "#abcdef",
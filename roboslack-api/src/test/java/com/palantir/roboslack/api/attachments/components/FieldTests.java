@@ -16,14 +16,20 @@
 
 package com.palantir.roboslack.api.attachments.components;
 
-
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.base.Strings;
+import com.palantir.roboslack.api.markdown.MarkdownTruncator;
 import com.palantir.roboslack.api.testing.MoreAssertions;
 import com.palantir.roboslack.api.testing.ResourcesReader;
 import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -39,6 +45,26 @@ public final class FieldTests {
         assertFalse(Strings.isNullOrEmpty(field.value()));
     }
 
+    @Test
+    void testIntern() {
+        Field field = Field.of("Runbook", "go/deploy").intern();
+        Field equal = Field.of("Runbook", "go/deploy");
+        assertThat(equal, is(not(sameInstance(field))));
+        assertThat(equal.intern(), is(sameInstance(field)));
+    }
+
+    @Test
+    void testTruncatesValue() {
+        Field field = Field.builder()
+                .title("Status")
+                .value("*" + Strings.repeat("failing ", 10) + "*")
+                .maxValueLength(20)
+                .build();
+        assertThat(field.value(), is(equalTo("*failing failing f*" + MarkdownTruncator.ELLIPSIS)));
+        assertThat(Field.builder().title("Status").value("*ok*").maxValueLength(20).build(),
+                is(equalTo(Field.of("Status", "*ok*"))));
+    }
+
     @ParameterizedTest
     @ArgumentsSource(SerializedFieldsProvider.class)
     void testSerialization(JsonNode json) {
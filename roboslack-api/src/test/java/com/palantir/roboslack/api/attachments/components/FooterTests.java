@@ -18,11 +18,15 @@ package com.palantir.roboslack.api.attachments.components;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.base.Strings;
+import com.palantir.roboslack.api.markdown.MarkdownTruncator;
 import com.palantir.roboslack.api.testing.MoreAssertions;
 import com.palantir.roboslack.api.testing.ResourcesReader;
 import java.util.Random;
@@ -61,6 +65,15 @@ public final class FooterTests {
                 String.format("cannot have more than %d characters", Footer.MAX_FOOTER_CHARACTER_LENGTH)));
     }
 
+    @Test
+    void testAutoTruncate() {
+        String string = generateRandomStringOfSize(Footer.MAX_FOOTER_CHARACTER_LENGTH + 1);
+        Footer footer = Footer.builder().text(string).autoTruncate(true).build();
+        assertThat(footer.text().length(), is(Footer.MAX_FOOTER_CHARACTER_LENGTH));
+        assertThat(footer.text(), endsWith(MarkdownTruncator.ELLIPSIS));
+        assertThat(Footer.builder().text("short").autoTruncate(true).build(), is(equalTo(Footer.of("short"))));
+    }
+
     @ParameterizedTest
     @ArgumentsSource(SerializedFootersProvider.class)
     void testDeserialization(JsonNode json) {
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.api.markdown;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import com.google.common.collect.ImmutableList;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class MarkdownComposerTests {
+
+    private static final URL EXAMPLE_URL;
+    private static final List<String> LINES = ImmutableList.of("first", "*second*", "", "third_");
+
+    static {
+        try {
+            EXAMPLE_URL = new URL("https://www.palantir.com");
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException(e.getLocalizedMessage(), e);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "text",
+            "",
+            "*",
+            "_",
+            "*bold*",
+            "_italic_",
+            "*_both_*",
+            "_*inverted*_",
+            "*_"})
+    void testFusedMatchesNestedDecoration(String input) {
+        FusedDecorator fused = SlackMarkdown.fuse(SlackMarkdown.BOLD, SlackMarkdown.ITALIC, SlackMarkdown.STRIKE);
+        String nested = SlackMarkdown.BOLD.decorate(
+                SlackMarkdown.ITALIC.decorate(SlackMarkdown.STRIKE.decorate(input)));
+        assertThat(fused.decorate(input), is(equalTo(nested)));
+        assertThat(SlackMarkdown.composer().append(fused, input).build(), is(equalTo(nested)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "text",
+            "",
+            "```",
+            "```\ncode\n```"})
+    void testComposerMatchesDecorate(String input) {
+        assertThat(SlackMarkdown.composer().append(SlackMarkdown.PREFORMAT_MULTILINE, input).build(),
+                is(equalTo(SlackMarkdown.PREFORMAT_MULTILINE.decorate(input))));
+    }
+
+    @Test
+    void testFusedPrefixAndSuffix() {
+        FusedDecorator fused = SlackMarkdown.fuse(SlackMarkdown.BOLD, SlackMarkdown.MENTION_USER);
+        assertThat(fused.prefix().get(), is(equalTo("*@")));
+        assertThat(fused.suffix().get(), is(equalTo("*")));
+        assertThat(fused.decorate("user"), is(equalTo("*@user*")));
+    }
+
+    @Test
+    void testComposeMessage() {
+        String expected = "Summary: " + SlackMarkdown.BOLD.decorate("failed") + SlackMarkdown.NEWLINE_SEPARATOR
+                + SlackMarkdown.LINK.decorate(EXAMPLE_URL, "details") + SlackMarkdown.NEWLINE_SEPARATOR
+                + SlackMarkdown.LIST_SINGLE_LEVEL.decorateMultiline(LINES);
+        String composed = SlackMarkdown.composer(expected.length())
+                .append("Summary: ")
+                .append(SlackMarkdown.BOLD, "failed")
+                .newline()
+                .appendLink(EXAMPLE_URL, "details")
+                .newline()
+                .appendMultiline(SlackMarkdown.LIST_SINGLE_LEVEL, LINES)
+                .build();
+        assertThat(composed, is(equalTo(expected)));
+    }
+
+    @Test
+    void testFusedMultiline() {
+        FusedDecorator fused = SlackMarkdown.fuse(SlackMarkdown.BOLD, SlackMarkdown.ITALIC);
+        assertThat(fused.decorateMultiline(LINES), is(equalTo(SlackMarkdown.BOLD.decorateMultiline(
+                ImmutableList.of(
+                        SlackMarkdown.ITALIC.decorate("first"),
+                        SlackMarkdown.ITALIC.decorate("*second*"),
+                        SlackMarkdown.ITALIC.decorate(""),
+                        SlackMarkdown.ITALIC.decorate("third_"))))));
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.api.markdown;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.base.Strings;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class MarkdownScannerTests {
+
+    private static final String FUZZ_ALPHABET = "ab *_~:-`>%E28A\r\u0085  😀";
+    private static final String ENCODED_BULLET = "%E2%80%A2";
+    private static final int FUZZ_ITERATIONS = 200_000;
+    private static final int FUZZ_MAX_LENGTH = 16;
+
+    private static boolean regexContainsMarkdown(String text) {
+        return SlackMarkdown.PATTERN.matcher(text).find();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "*bold*",
+            "_italic_",
+            "~strike~",
+            ":smile:",
+            "-dash-",
+            "`code`",
+            ">>>quote",
+            "@user",
+            "#channel",
+            "!here",
+            "line\nbreak",
+            "%E2%80%A2 bullet"})
+    void testContainsMarkdown(String input) {
+        assertTrue(MarkdownScanner.containsMarkdown(input));
+        assertTrue(regexContainsMarkdown(input));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "plain text",
+            "**",
+            "a * b",
+            ">> not a quote",
+            "*split\rbold*",
+            "%E2%80%A"})
+    void testDoesNotContainMarkdown(String input) {
+        assertFalse(MarkdownScanner.containsMarkdown(input));
+        assertFalse(regexContainsMarkdown(input));
+    }
+
+    @Test
+    void testNull() {
+        assertFalse(MarkdownScanner.containsMarkdown(null));
+    }
+
+    @Test
+    void testFuzzEquivalenceWithPattern() {
+        Random random = new Random(0L);
+        for (int iteration = 0; iteration < FUZZ_ITERATIONS; iteration++) {
+            StringBuilder input = new StringBuilder();
+            int length = random.nextInt(FUZZ_MAX_LENGTH);
+            for (int i = 0; i < length; i++) {
+                if (random.nextInt(40) == 0) {
+                    input.append(ENCODED_BULLET);
+                } else {
+                    input.append(FUZZ_ALPHABET.charAt(random.nextInt(FUZZ_ALPHABET.length())));
+                }
+            }
+            String text = input.toString();
+            assertEquals(regexContainsMarkdown(text), MarkdownScanner.containsMarkdown(text),
+                    () -> String.format("Scanner and pattern disagree on input: '%s'", text));
+        }
+    }
+
+    @Test
+    void testLargeUnclosedInput() {
+        assertFalse(MarkdownScanner.containsMarkdown("*" + Strings.repeat("a", 40_000)));
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.api.markdown;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.ArgumentsProvider;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+class MarkdownTruncatorTests {
+
+    private static final String ELLIPSIS = MarkdownTruncator.ELLIPSIS;
+
+    @ParameterizedTest
+    @ArgumentsSource(TruncationProvider.class)
+    void testTruncate(String input, int maxLength, String expected) {
+        String truncated = MarkdownTruncator.truncate(input, maxLength);
+        assertThat(truncated, is(equalTo(expected)));
+        assertThat(truncated.length(), is(lessThanOrEqualTo(maxLength)));
+    }
+
+    @Test
+    void testShortTextIsReturnedAsIs() {
+        String text = "*short*";
+        assertThat(MarkdownTruncator.truncate(text, text.length()), is(sameInstance(text)));
+    }
+
+    @Test
+    void testInvalidMaxLength() {
+        assertThrows(IllegalArgumentException.class, () -> MarkdownTruncator.truncate("text", 0));
+    }
+
+    static class TruncationProvider implements ArgumentsProvider {
+
+        @Override
+        public Stream<? extends Arguments> provideArguments(ExtensionContext context) throws Exception {
+            return Stream.of(
+                    Arguments.of("plain text that is long", 10, "plain tex" + ELLIPSIS),
+                    Arguments.of("plain text that is long", 7, "plain" + ELLIPSIS),
+                    Arguments.of("*bold text that is long*", 12, "*bold text*" + ELLIPSIS),
+                    Arguments.of("*_nested spans here_*", 12, "*_nested_*" + ELLIPSIS),
+                    Arguments.of("see <https://example.com|the docs> now", 20, "see" + ELLIPSIS),
+                    Arguments.of("hi <@U123> and more text", 12, "hi <@U123>" + ELLIPSIS),
+                    Arguments.of("build :tada: passed", 10, "build" + ELLIPSIS),
+                    Arguments.of("a &lt; b and more", 4, "a" + ELLIPSIS),
+                    Arguments.of("```\nline one\nline two\n```", 16, "```\nline one```" + ELLIPSIS),
+                    Arguments.of("`code *not bold* here`", 12, "`code *not`" + ELLIPSIS),
+                    Arguments.of("text *", 5, "text" + ELLIPSIS),
+                    Arguments.of("ab😀cd", 4, "ab" + ELLIPSIS),
+                    Arguments.of("*x*", 1, ELLIPSIS));
+        }
+
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.api.markdown;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ParallelDecoratorTests {
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void before() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void after() {
+        executor.shutdownNow();
+    }
+
+    private static List<String> lines(int count) {
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lines.add(i % 3 == 0 ? "*line " + i + "*" : "line " + i);
+        }
+        return lines;
+    }
+
+    private static String expected(ValueDecorator<String> decorator, List<String> lines) {
+        return Joiner.on(SlackMarkdown.NEWLINE_SEPARATOR)
+                .join(lines.stream().map(decorator::decorate).collect(Collectors.toList()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2, 7, 10, 11, 100})
+    void testMatchesSequential(int count) {
+        ParallelDecorator parallel = ParallelDecorator.builder()
+                .executor(executor)
+                .parallelThreshold(1)
+                .chunkSize(5)
+                .build();
+        List<String> lines = lines(count);
+        assertThat(parallel.decorateMultiline(SlackMarkdown.BOLD, lines),
+                is(equalTo(expected(SlackMarkdown.BOLD, lines))));
+        assertThat(parallel.decorateMultiline(SlackMarkdown.BOLD, ImmutableSet.copyOf(lines)),
+                is(equalTo(expected(SlackMarkdown.BOLD, lines))));
+        assertThat(SlackMarkdown.BOLD.decorateMultiline(lines), is(equalTo(expected(SlackMarkdown.BOLD, lines))));
+    }
+
+    @Test
+    void testBelowThresholdStaysOnCallingThread() {
+        AtomicInteger submitted = new AtomicInteger();
+        ParallelDecorator parallel = ParallelDecorator.builder()
+                .executor(task -> {
+                    submitted.incrementAndGet();
+                    task.run();
+                })
+                .parallelThreshold(10)
+                .chunkSize(2)
+                .build();
+        parallel.decorateMultiline(SlackMarkdown.ITALIC, lines(9));
+        assertThat(submitted.get(), is(0));
+        parallel.decorateMultiline(SlackMarkdown.ITALIC, lines(10));
+        assertThat(submitted.get(), is(5));
+    }
+
+    @Test
+    void testChunkFailurePropagates() {
+        ParallelDecorator parallel = ParallelDecorator.builder()
+                .executor(executor)
+                .parallelThreshold(1)
+                .chunkSize(1)
+                .build();
+        assertThrows(NullPointerException.class,
+                () -> parallel.decorateMultiline(SlackMarkdown.BOLD, Arrays.asList("a", null, "c")));
+    }
+
+    @Test
+    void testInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ParallelDecorator.builder().executor(executor).chunkSize(0).build());
+        assertThrows(IllegalArgumentException.class,
+                () -> ParallelDecorator.builder().executor(executor).parallelThreshold(0).build());
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.api.markdown;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import com.palantir.roboslack.api.time.SlackDateTime;
+import com.palantir.roboslack.api.time.SlackDateTimeFormatter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.ArgumentsProvider;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+class PlainTextRendererTests {
+
+    @ParameterizedTest
+    @ArgumentsSource(RenderingProvider.class)
+    void testRender(String markdown, String expected) {
+        assertThat(PlainTextRenderer.render(markdown), is(equalTo(expected)));
+    }
+
+    @Test
+    void testPlainTextIsReturnedAsIs() {
+        String text = "Deployment finished in 12 minutes: 3 hosts updated.";
+        assertThat(PlainTextRenderer.render(text), is(sameInstance(text)));
+    }
+
+    @Test
+    void testRendersDecoratedMarkdown() throws MalformedURLException {
+        String markdown = SlackMarkdown.BOLD.decorate("Build")
+                + " " + SlackMarkdown.LINK.decorate(new URL("https://ci.example.com/1"), "#1")
+                + " " + SlackMarkdown.STRIKE.decorate("passed") + " failed"
+                + SlackMarkdown.QUOTE.decorate("in " + SlackMarkdown.PREFORMAT.decorate("deploy"));
+        assertThat(PlainTextRenderer.render(markdown), is(equalTo("Build #1 passed failed\nin deploy\n")));
+    }
+
+    @Test
+    void testRendersDateFallback() {
+        SlackDateTime dateTime = SlackDateTime.of(0L);
+        String fallback = SlackDateTimeFormatter.LOCAL_DATE_TIME.format(
+                java.time.LocalDateTime.ofEpochSecond(0L, 0, java.time.ZoneOffset.UTC));
+        assertThat(PlainTextRenderer.render("Started " + dateTime.format()), is(equalTo("Started " + fallback)));
+    }
+
+    @Test
+    void testRenderToAppendable() throws IOException {
+        StringWriter writer = new StringWriter();
+        PlainTextRenderer.renderTo("*a* &amp; _b_", writer);
+        assertThat(writer.toString(), is(equalTo("a & b")));
+    }
+
+    static class RenderingProvider implements ArgumentsProvider {
+
+        @Override
+        public Stream<? extends Arguments> provideArguments(ExtensionContext context) throws Exception {
+            return Stream.of(
+                    Arguments.of("*bold* _italic_ ~strike~ `code`", "bold italic strike code"),
+                    Arguments.of("*_nested_*, done.", "nested, done."),
+                    Arguments.of("2*3*4 snake_case_name a * b", "2*3*4 snake_case_name a * b"),
+                    Arguments.of("`*literal*`", "*literal*"),
+                    Arguments.of("see <https://example.com|the docs>", "see the docs"),
+                    Arguments.of("see <https://example.com>", "see https://example.com"),
+                    Arguments.of("ping <@U123|bob> in <#C123|general>", "ping @bob in #general"),
+                    Arguments.of("ping <@U123> in <#C123>", "ping @U123 in #C123"),
+                    Arguments.of("<!here> <!subteam^S123|@team>", "@here @team"),
+                    Arguments.of("<!date^1392734382^{date}^https://example.com|Feb 18, 2014>", "Feb 18, 2014"),
+                    Arguments.of("a &lt; b &amp;&amp; c &gt; d &nbsp;", "a < b && c > d &nbsp;"),
+                    Arguments.of("> quoted\nplain\n>>>rest", "quoted\nplain\nrest"),
+                    Arguments.of("Log:\n```\nline *one*\nline two\n```\nDone", "Log:\nline *one*\nline two\nDone"),
+                    Arguments.of("unclosed <tag and x > y", "unclosed <tag and x > y"),
+                    Arguments.of("trailing\n", "trailing\n"));
+        }
+
+    }
+
+}
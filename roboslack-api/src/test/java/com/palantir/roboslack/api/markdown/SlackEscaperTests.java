@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.api.markdown;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class SlackEscaperTests {
+
+    private static final String ZWSP = String.valueOf(SlackEscaper.ZERO_WIDTH_SPACE);
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "plain text",
+            "java.lang.IllegalStateException: failed\n\tat com.example.Main.main(Main.java:12)",
+            "unicode • bullet"})
+    void testUnchangedInputIsReturnedAsIs(String input) {
+        assertThat(SlackEscaper.MARKDOWN.escape(input), is(sameInstance(input)));
+        assertThat(SlackEscaper.MARKDOWN.indexOfEscapable(input), is(-1));
+    }
+
+    @Test
+    void testControlCharacters() {
+        assertThat(SlackEscaper.CONTROL.escape("a < b && c > d"), is(equalTo("a &lt; b &amp;&amp; c &gt; d")));
+        assertThat(SlackEscaper.CONTROL.escape("<!everyone>"), is(equalTo("&lt;!everyone&gt;")));
+        assertThat(SlackEscaper.CONTROL.escape("*bold*"), is(equalTo("*bold*")));
+    }
+
+    @Test
+    void testDecorations() {
+        assertThat(SlackMarkdown.escape("*bold* _x_"),
+                is(equalTo(ZWSP + "*" + ZWSP + "bold" + ZWSP + "*" + ZWSP + " " + ZWSP + "_" + ZWSP + "x" + ZWSP
+                        + "_" + ZWSP)));
+        assertThat(SlackEscaper.MARKDOWN.escape("~`&"),
+                is(equalTo(ZWSP + "~" + ZWSP + ZWSP + "`" + ZWSP + "&amp;")));
+        assertThat(MarkdownScanner.containsMarkdown(SlackEscaper.MARKDOWN.escape("a < b")), is(false));
+    }
+
+    @Test
+    void testEscapeToAppendable() throws IOException {
+        StringWriter writer = new StringWriter();
+        SlackEscaper.CONTROL.escapeTo("prefix ", writer).append("|");
+        SlackEscaper.CONTROL.escapeTo(new StringBuilder("x<y"), writer);
+        assertThat(writer.toString(), is(equalTo("prefix |x&lt;y")));
+    }
+
+    @Test
+    void testEscapeMatchesEscapeTo() throws IOException {
+        StringBuilder trace = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            trace.append("\tat com.example.Foo$Bar.baz_").append(i).append("(Foo.java:").append(i).append(") <*>\n");
+        }
+        String input = trace.toString();
+        assertThat(SlackEscaper.MARKDOWN.escapeTo(input, new StringBuilder()).toString(),
+                is(equalTo(SlackEscaper.MARKDOWN.escape(input))));
+    }
+
+}
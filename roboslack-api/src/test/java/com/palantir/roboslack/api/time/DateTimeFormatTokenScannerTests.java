@@ -0,0 +1,66 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.roboslack.api.time;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class DateTimeFormatTokenScannerTests {
+
+    private static List<String> pieces(String text) {
+        List<String> pieces = new ArrayList<>();
+        DateTimeFormatTokenScanner.scan(text, (token, start, end) ->
+                pieces.add((token == null ? "literal:" : "token:") + text.substring(start, end)));
+        return pieces;
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "'', 0",
+            "no tokens here, 0",
+            "{date, 0",
+            "{date}, 1",
+            "{DATE_LONG} {date_long}, 1",
+            "{date_pretty}{date_short_pretty}{time} at {time_secs}, 4",
+            "{{date}}, 1"})
+    void testCountDistinctTokens(String text, int expected) {
+        assertThat(DateTimeFormatTokenScanner.countDistinctTokens(text), is(expected));
+    }
+
+    @Test
+    void testScanKeepsAllLiterals() {
+        assertThat(pieces("Sent {date_short}, {time}!"), contains(
+                "literal:Sent ", "token:{date_short}", "literal:, ", "token:{time}", "literal:!"));
+        assertThat(pieces("{time_secs}{date}"), contains("token:{time_secs}", "token:{date}"));
+        assertThat(pieces("{date_num"), contains("literal:{date_num"));
+    }
+
+    @Test
+    void testScanRestartsAfterPartialMatch() {
+        assertThat(pieces("{date_sh{date_short}"), contains("literal:{date_sh", "token:{date_short}"));
+        assertThat(pieces("{datE_Long_pRETTY}x"), contains("token:{datE_Long_pRETTY}", "literal:x"));
+    }
+
+}
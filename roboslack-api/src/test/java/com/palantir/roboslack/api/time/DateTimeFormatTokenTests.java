@@ -16,10 +16,16 @@
 
 package com.palantir.roboslack.api.time;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.google.common.base.Strings;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 
@@ -38,4 +44,21 @@ class DateTimeFormatTokenTests {
         assertFalse(Strings.isNullOrEmpty(formatToken.pattern()));
     }
 
+    @ParameterizedTest
+    @EnumSource(DateTimeFormatToken.class)
+    void testOfCaseInsensitive(DateTimeFormatToken formatToken) {
+        assertThat(DateTimeFormatToken.of(formatToken.toString().toUpperCase()), is(equalTo(formatToken)));
+        assertThat(DateTimeFormatToken.ofSafe(formatToken.toString()),
+                is(sameInstance(DateTimeFormatToken.ofSafe(formatToken.toString()))));
+        assertThat(formatToken.toString(), is(sameInstance(formatToken.toString())));
+    }
+
+    @Test
+    void testOfUnknown() {
+        assertFalse(DateTimeFormatToken.ofSafe("{dat}").isPresent());
+        assertFalse(DateTimeFormatToken.ofSafe("date").isPresent());
+        assertFalse(DateTimeFormatToken.ofSafe(null).isPresent());
+        assertThrows(IllegalArgumentException.class, () -> DateTimeFormatToken.of("{time_sec}"));
+    }
+
 }
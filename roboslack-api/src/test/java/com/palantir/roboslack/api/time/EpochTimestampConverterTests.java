@@ -20,18 +20,24 @@ package com.palantir.roboslack.api.time;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import com.google.common.collect.ImmutableMap;
+import java.time.Clock;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.OffsetDateTime;
 import java.time.OffsetTime;
+import java.time.Year;
+import java.time.YearMonth;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.time.chrono.HijrahDate;
+import java.time.chrono.JapaneseDate;
 import java.time.temporal.Temporal;
 import java.util.Map;
 import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -64,14 +70,31 @@ class EpochTimestampConverterTests {
                     expectedLocalTimeConversion(LocalTime.of(6, 39, 42, 0)))
             .put(OffsetTime.of(LocalTime.of(6, 39, 42, 0), ZoneOffset.UTC),
                     expectedOffsetTimeConversion(OffsetTime.of(LocalTime.of(6, 39, 42, 0), ZoneOffset.UTC)))
+            .put(Year.of(2014), 1388534400L)
+            .put(YearMonth.of(2014, 2), 1391212800L)
+            // Field based conversions
+            .put(HijrahDate.from(LocalDate.of(2014, 2, 18)), 1392681600L)
+            .put(HijrahDate.from(LocalDate.of(2014, 2, 18)).atTime(LocalTime.of(14, 39, 42)), EXACT_EXAMPLE)
+            .put(JapaneseDate.from(LocalDate.of(2014, 2, 18)).atTime(LocalTime.of(14, 39, 42)).atZone(ZoneOffset.UTC),
+                    EXACT_EXAMPLE)
             .build();
 
+    private static final Clock FIXED_CLOCK = Clock.fixed(Instant.ofEpochSecond(EXACT_EXAMPLE), ZoneOffset.UTC);
+
     @ParameterizedTest
     @ArgumentsSource(ConversionFixturesProvider.class)
     void testReflectiveConvert(Map.Entry<Temporal, Long> fixture) {
         assertEquals(EpochTimestamps.convert(fixture.getKey()), fixture.getValue().longValue());
     }
 
+    @Test
+    void testTimesUseClock() {
+        assertEquals(EpochTimestamps.convert(LocalTime.of(14, 39, 42), FIXED_CLOCK), EXACT_EXAMPLE);
+        assertEquals(EpochTimestamps.convert(OffsetTime.of(15, 39, 42, 0, ZoneOffset.ofHours(1)), FIXED_CLOCK),
+                EXACT_EXAMPLE);
+        assertEquals(SlackDateTime.of(LocalTime.of(14, 39, 42), FIXED_CLOCK).epochTimestamp(), EXACT_EXAMPLE);
+    }
+
     private static class ConversionFixturesProvider implements ArgumentsProvider {
 
         @Override
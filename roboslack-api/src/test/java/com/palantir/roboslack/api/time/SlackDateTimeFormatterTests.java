@@ -17,11 +17,20 @@
 package com.palantir.roboslack.api.time;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.base.Strings;
+import com.palantir.roboslack.jackson.ObjectMappers;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
@@ -63,6 +72,58 @@ class SlackDateTimeFormatterTests {
         assertValid(dateAndTimeFormatter);
     }
 
+    @Test
+    void testFormattersAreCachedByPattern() {
+        String pattern = "Sent {date_short} at {time}";
+        SlackDateTimeFormatter formatter = SlackDateTimeFormatter.of(pattern);
+        assertThat(SlackDateTimeFormatter.of(new String(pattern.toCharArray())), is(sameInstance(formatter)));
+        assertThat(formatter.patternTokens(), contains("Sent ", "{date_short}", " at ", "{time}"));
+    }
+
+    @Test
+    void testTrailingLiteralIsKept() {
+        SlackDateTimeFormatter formatter = SlackDateTimeFormatter.of("{date_short} (UTC)");
+        assertThat(formatter.patternTokens(), contains("{date_short}", " (UTC)"));
+        assertThat(formatter.format(LocalDate.of(2014, 2, 18)), is(equalTo("Feb 18, 2014 (UTC)")));
+    }
+
+    @Test
+    void testFallbackTextInZone() {
+        SlackDateTimeFormatter utc = SlackDateTimeFormatter.of("{date_short} {time}");
+        SlackDateTimeFormatter tokyo = utc.inZone(ZoneId.of("Asia/Tokyo"));
+        SlackDateTimeFormatter newYork =
+                SlackDateTimeFormatter.of("{date_short} {time}", ZoneId.of("America/New_York"));
+        assertThat(utc.fallbackText(1392734382L), is(equalTo("Feb 18, 2014 14:39")));
+        assertThat(tokyo.fallbackText(1392734382L), is(equalTo("Feb 18, 2014 23:39")));
+        assertThat(newYork.fallbackText(1392734382L), is(equalTo("Feb 18, 2014 09:39")));
+        // Daylight saving time
+        assertThat(newYork.fallbackText(1405694382L), is(equalTo("Jul 18, 2014 10:39")));
+        assertThat(SlackDateTime.of(1392734382L).format(tokyo),
+                is(equalTo("<!date^1392734382^{date_short} {time}|Feb 18, 2014 23:39>")));
+    }
+
+    @Test
+    void testZoneFormattersAreCached() {
+        SlackDateTimeFormatter formatter = SlackDateTimeFormatter.of("{date_short}");
+        SlackDateTimeFormatter paris = formatter.inZone(ZoneId.of("Europe/Paris"));
+        assertThat(paris.zone(), is(equalTo(Optional.of(ZoneId.of("Europe/Paris")))));
+        assertThat(formatter.zone(), is(equalTo(Optional.empty())));
+        assertThat(formatter.inZone(ZoneId.of("Europe/Paris")), is(sameInstance(paris)));
+        assertThat(SlackDateTimeFormatter.of("{date_short}", ZoneId.of("Europe/Paris")), is(sameInstance(paris)));
+        assertThat(paris.inZone(ZoneId.of("Europe/Paris")), is(sameInstance(paris)));
+        SlackDateTimeFormatter tokyo = paris.inZone(ZoneId.of("Asia/Tokyo"));
+        assertThat(formatter.inZone(ZoneId.of("Asia/Tokyo")), is(sameInstance(tokyo)));
+        assertThat(tokyo.inZone(ZoneId.of("Europe/Paris")), is(sameInstance(paris)));
+    }
+
+    @Test
+    void testZoneIsNotSerialized() {
+        SlackDateTimeFormatter paris = SlackDateTimeFormatter.of("{date_short}", ZoneId.of("Europe/Paris"));
+        JsonNode json = ObjectMappers.sharedObjectMapper().valueToTree(paris);
+        assertFalse(json.has("zone"));
+        assertThat(json.get("pattern").asText(), is(equalTo("{date_short}")));
+    }
+
     private void assertValid(SlackDateTimeFormatter formatter) {
         assertFalse(Strings.isNullOrEmpty(formatter.toString()));
         assertFalse(Strings.isNullOrEmpty(formatter.pattern()));
@@ -16,13 +16,24 @@
 
 package com.palantir.roboslack.api.time;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.startsWith;
+
 import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.Temporal;
 import java.util.Map;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 class SlackDateTimeTests {
 
@@ -49,4 +60,39 @@ class SlackDateTimeTests {
 
     }
 
+    @ParameterizedTest
+    @ValueSource(longs = {0L, 1234L, 1392734382L, -1234L, 253402300799L, -62135596800L})
+    void testFormatPadsTimestamp(long epochTimestamp) {
+        String formatted = SlackDateTime.of(epochTimestamp).format(EXAMPLE_FORMATTER);
+        assertThat(formatted, startsWith(String.format("<!date^%08d^{date_long_pretty}|", epochTimestamp)));
+        assertThat(formatted, endsWith(">"));
+    }
+
+    @Test
+    void testFormat() {
+        SlackDateTime dateTime = SlackDateTime.of(1392734382L, EXAMPLE_URL);
+        assertThat(dateTime.format(SlackDateTimeFormatter.of("{date_short} at {time}")),
+                is(equalTo("<!date^1392734382^{date_short} at {time}^https://www.palantir.com|Feb 18, 2014 at 14:39>")));
+        assertThat(SlackDateTime.of(1234L).toString(), is(equalTo("<!date^00001234^{date_num} {time_secs}|"
+                + SlackDateTimeFormatter.LOCAL_DATE_TIME.format(LocalDateTime.ofEpochSecond(1234L, 0, ZoneOffset.UTC))
+                + ">")));
+    }
+
+    @Test
+    void testFormatToAppends() throws IOException {
+        SlackDateTime dateTime = SlackDateTime.of(1392734382L);
+        StringBuilder out = new StringBuilder("Deployed ");
+        assertThat(dateTime.formatTo(out, EXAMPLE_FORMATTER), is(sameInstance(out)));
+        assertThat(out.toString(), is(equalTo("Deployed " + dateTime.format(EXAMPLE_FORMATTER))));
+    }
+
+    @Test
+    void testFallbackTextIsCached() {
+        SlackDateTimeFormatter formatter = SlackDateTimeFormatter.of("{date_short}");
+        String fallback = formatter.fallbackText(1392734382L);
+        assertThat(formatter.fallbackText(1392734382L), is(sameInstance(fallback)));
+        assertThat(formatter.fallbackText(1392734383L), is(equalTo(fallback)));
+        assertThat(formatter.fallbackText(0L), is(equalTo("Jan 01, 1970")));
+    }
+
 }
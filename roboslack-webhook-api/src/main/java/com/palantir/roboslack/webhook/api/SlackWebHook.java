@@ -21,6 +21,7 @@ import com.palantir.roboslack.webhook.api.model.response.ResponseCode;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
+import okhttp3.RequestBody;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.POST;
@@ -43,4 +44,16 @@ public interface SlackWebHook {
             @Path("token_x_part") String tokenXPart,
             @Body MessageRequest messageRequest);
 
+    /**
+     * Sends a message that has already been serialized to JSON, eg. by a {@code MessageTemplate}.
+     *
+     * @since 1.1.0
+     */
+    @POST("{token_t_part}/{token_b_part}/{token_x_part}")
+    Call<ResponseCode> sendSerializedMessage(
+            @Path("token_t_part") String tokenTPart,
+            @Path("token_b_part") String tokenBPart,
+            @Path("token_x_part") String tokenXPart,
+            @Body RequestBody serializedMessage);
+
 }
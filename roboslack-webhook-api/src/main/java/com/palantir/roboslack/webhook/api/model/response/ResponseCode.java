@@ -16,6 +16,9 @@
 
 package com.palantir.roboslack.webhook.api.model.response;
 
+import com.palantir.roboslack.utils.EnumLookup;
+import java.util.Locale;
+
 /**
  * Response Codes to expect from {@link com.palantir.roboslack.webhook.api.SlackWebHook} calls.
  *
@@ -43,19 +46,26 @@ public enum ResponseCode {
     MISSING_POST_TYPE,
     REQUEST_TIMEOUT,
     MISSING_CHARSET,
-    SUPERFLUOUS_CHARSET;
+    SUPERFLUOUS_CHARSET,
+    /**
+     * Returned in place of an exception when Slack responds with a body that matches no other {@link ResponseCode}.
+     */
+    UNKNOWN;
+
+    private static final EnumLookup<ResponseCode> LOOKUP = EnumLookup.of(ResponseCode.class, ResponseCode::toString);
+
+    private final String wireName = name().toLowerCase(Locale.ROOT);
 
     public static ResponseCode of(String string) {
-        for (ResponseCode code : ResponseCode.values()) {
-            if (code.toString().equalsIgnoreCase(string)) {
-                return code;
-            }
+        ResponseCode code = LOOKUP.getIfPresent(string);
+        if (code == null) {
+            throw new IllegalArgumentException(String.format("No ResponseCode found matching value: %s", string));
         }
-        throw new IllegalArgumentException(String.format("No ResponseCode found matching value: %s", string));
+        return code;
     }
 
     @Override
     public String toString() {
-        return name().toLowerCase();
+        return wireName;
     }
 }
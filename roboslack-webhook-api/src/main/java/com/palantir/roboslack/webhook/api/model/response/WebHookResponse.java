@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.webhook.api.model.response;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.time.Duration;
+import java.util.Optional;
+import org.immutables.value.Value;
+
+/**
+ * The full outcome of a {@link com.palantir.roboslack.webhook.api.SlackWebHook} call: the {@link ResponseCode} parsed
+ * from the response body, the HTTP status it arrived with, and any {@code Retry-After} hint Slack supplied.
+ *
+ * @since 1.1.0
+ */
+@Value.Immutable
+public abstract class WebHookResponse {
+
+    private static final String STATUS_ERR = "HTTP status must be a valid status code, found: %s";
+
+    public static Builder builder() {
+        return ImmutableWebHookResponse.builder();
+    }
+
+    public static WebHookResponse of(ResponseCode responseCode, int httpStatus) {
+        return builder().responseCode(responseCode).httpStatus(httpStatus).build();
+    }
+
+    @Value.Check
+    protected final void check() {
+        checkArgument(httpStatus() >= 100 && httpStatus() <= 599, STATUS_ERR, httpStatus());
+    }
+
+    /**
+     * True if Slack accepted the message, false otherwise.
+     *
+     * @return whether or not the message was accepted
+     */
+    @Value.Derived
+    public boolean isOk() {
+        return responseCode() == ResponseCode.OK;
+    }
+
+    /**
+     * The {@link ResponseCode} parsed from the response body, falling back to one derived from the HTTP status, or
+     * {@link ResponseCode#UNKNOWN} if neither could be recognized.
+     *
+     * @return the {@link ResponseCode}
+     */
+    public abstract ResponseCode responseCode();
+
+    /**
+     * The HTTP status code of the response.
+     *
+     * @return the HTTP status code
+     */
+    public abstract int httpStatus();
+
+    /**
+     * How long Slack asked the caller to wait before retrying, parsed from the {@code Retry-After} header.
+     *
+     * @return an {@link Optional} containing the {@link Duration} to wait
+     */
+    public abstract Optional<Duration> retryAfter();
+
+    public interface Builder {
+        Builder responseCode(ResponseCode responseCode);
+        Builder httpStatus(int httpStatus);
+        Builder retryAfter(Duration retryAfter);
+        Builder retryAfter(Optional<? extends Duration> retryAfter);
+        WebHookResponse build();
+    }
+
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.roboslack.webhook;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.Ticker;
+import com.palantir.roboslack.webhook.api.model.response.WebHookResponse;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * An adaptive limit on the number of requests in flight to Slack, adjusted with AIMD (additive increase,
+ * multiplicative decrease) from the round trip time and outcome of each completed request.
+ * <p>
+ * The limit grows by one for every window of requests that complete quickly while the limit is in use, and is
+ * multiplied by {@value #BACKOFF_RATIO} when a request fails with an overload error or takes more than
+ * {@value #RTT_TOLERANCE} times the baseline round trip time, the lowest seen recently. As in TCP, the limit is cut
+ * at most once per window: only requests started after the last cut can cut it again. The baseline slowly drifts up
+ * towards the observed round trip times, so a lasting change in latency is eventually accepted as the new normal.
+ *
+ * @since 1.1.0
+ */
+public final class ConcurrencyLimiter {
+
+    private static final int DEFAULT_MIN_LIMIT = 1;
+    private static final int DEFAULT_INITIAL_LIMIT = 5;
+    private static final int DEFAULT_MAX_LIMIT = 64;
+    private static final double BACKOFF_RATIO = 0.75;
+    private static final double RTT_TOLERANCE = 2.0;
+    private static final int BASELINE_DRIFT = 64;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition capacityAvailable = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private long baselineRttNanos = Long.MAX_VALUE;
+    private boolean decreased;
+    private long lastDecreaseNanos;
+
+    private ConcurrencyLimiter(int minLimit, int initialLimit, int maxLimit) {
+        checkArgument(minLimit > 0, "Minimum limit must be positive");
+        checkArgument(maxLimit >= minLimit, "Maximum limit must be at least the minimum limit");
+        checkArgument(initialLimit >= minLimit && initialLimit <= maxLimit,
+                "Initial limit must be between the minimum and maximum limits");
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Creates a {@link ConcurrencyLimiter} that starts at {@code initialLimit} concurrent requests and adapts between
+     * {@code minLimit} and {@code maxLimit}.
+     *
+     * @param minLimit the lowest the limit may be cut to
+     * @param initialLimit the starting limit
+     * @param maxLimit the highest the limit may grow to
+     * @return the new {@link ConcurrencyLimiter}
+     */
+    public static ConcurrencyLimiter create(int minLimit, int initialLimit, int maxLimit) {
+        return new ConcurrencyLimiter(minLimit, initialLimit, maxLimit);
+    }
+
+    /**
+     * Creates a {@link ConcurrencyLimiter} that starts at {@value #DEFAULT_INITIAL_LIMIT} concurrent requests, OkHttp's
+     * default per host, and adapts between {@value #DEFAULT_MIN_LIMIT} and {@value #DEFAULT_MAX_LIMIT}.
+     *
+     * @return the new {@link ConcurrencyLimiter}
+     */
+    public static ConcurrencyLimiter defaults() {
+        return create(DEFAULT_MIN_LIMIT, DEFAULT_INITIAL_LIMIT, DEFAULT_MAX_LIMIT);
+    }
+
+    /**
+     * The highest the limit may grow to.
+     *
+     * @return the maximum limit
+     */
+    public int maxLimit() {
+        return maxLimit;
+    }
+
+    /**
+     * The current number of requests allowed in flight, suitable for reporting as a gauge.
+     *
+     * @return the current limit
+     */
+    public int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The current number of requests in flight.
+     *
+     * @return the number of requests in flight
+     */
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until fewer than {@link #limit()} requests are in flight, then takes a slot for a request.
+     */
+    void acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (inFlight >= (int) limit) {
+                capacityAvailable.await();
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Like {@link #acquire()}, for callers that cannot throw {@link InterruptedException}.
+     *
+     * @throws IllegalStateException if interrupted while waiting, with the interrupt flag restored
+     */
+    void acquireToSend() {
+        try {
+            acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to send", e);
+        }
+    }
+
+    /**
+     * Makes a request synchronously in a slot, waiting for one first, and gives the slot back with its outcome. A
+     * request that throws counts as overloaded.
+     *
+     * @param ticker the {@link Ticker} to time the request with
+     * @param request the request to make
+     * @return the {@link WebHookResponse} of the request
+     * @throws IllegalStateException if interrupted while waiting for a slot
+     */
+    WebHookResponse execute(Ticker ticker, Supplier<WebHookResponse> request) {
+        acquireToSend();
+        long startNanos = ticker.read();
+        WebHookResponse response;
+        try {
+            response = request.get();
+        } catch (RuntimeException e) {
+            release(startNanos, ticker.read(), true);
+            throw e;
+        }
+        release(startNanos, ticker.read(), ResponseCodeConverter.isOverload(response));
+        return response;
+    }
+
+    /**
+     * Gives back a slot that was not used to make a request, without adjusting the limit.
+     */
+    void cancel() {
+        lock.lock();
+        try {
+            inFlight--;
+            capacityAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives back the slot of a completed request, adjusting the limit from its outcome.
+     *
+     * @param startNanos when the request was started
+     * @param endNanos when the request completed
+     * @param overloaded whether the request failed in a way that suggests Slack is overloaded
+     */
+    void release(long startNanos, long endNanos, boolean overloaded) {
+        lock.lock();
+        try {
+            boolean saturated = inFlight * 2 >= (int) limit;
+            inFlight--;
+            long rttNanos = endNanos - startNanos;
+            if (!overloaded) {
+                updateBaseline(rttNanos);
+            }
+            if (overloaded || rttNanos > baselineRttNanos * RTT_TOLERANCE) {
+                if (!decreased || startNanos - lastDecreaseNanos > 0) {
+                    limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                    decreased = true;
+                    lastDecreaseNanos = endNanos;
+                }
+            } else if (saturated) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            capacityAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void updateBaseline(long rttNanos) {
+        if (rttNanos < baselineRttNanos) {
+            baselineRttNanos = rttNanos;
+        } else {
+            baselineRttNanos += (rttNanos - baselineRttNanos) / BASELINE_DRIFT;
+        }
+    }
+
+}
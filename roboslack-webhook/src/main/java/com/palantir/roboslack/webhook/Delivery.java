@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.roboslack.webhook;
+
+import com.palantir.roboslack.api.MessageRequest;
+import com.palantir.roboslack.webhook.api.model.response.WebHookResponse;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A message waiting in a {@link WebHookState}'s queue, along with the future its sender is waiting on.
+ */
+final class Delivery {
+
+    private final MessageRequest message;
+    private final CompletableFuture<WebHookResponse> result = new CompletableFuture<>();
+
+    Delivery(MessageRequest message) {
+        this.message = message;
+    }
+
+    MessageRequest message() {
+        return message;
+    }
+
+    CompletableFuture<WebHookResponse> result() {
+        return result;
+    }
+
+}
@@ -0,0 +1,374 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.roboslack.webhook;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.palantir.roboslack.api.MessageRequest;
+import com.palantir.roboslack.webhook.api.model.WebHookToken;
+import com.palantir.roboslack.webhook.api.model.response.WebHookResponse;
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.CheckForNull;
+
+/**
+ * Delivers queued messages for every token of a {@link WebHookRegistry} with a budget of concurrent requests to Slack,
+ * shared fairly between tokens. The budget is set by a {@link ConcurrencyLimiter}, which cuts it when Slack slows down
+ * or reports errors and grows it back while requests complete quickly.
+ * <p>
+ * Tokens with queued messages take turns in deficit round-robin order: on each turn a token is granted {@code quantum}
+ * deliveries, which it spends as long as its rate limiter allows. A token that is rate limited, or whose circuit is
+ * open, is set aside until it can send again rather than holding up the others. A noisy token therefore never gets
+ * more than its share of the workers, and a quiet token's message waits at most one round of turns, however deep the
+ * noisy token's backlog is.
+ *
+ * @since 1.1.0
+ */
+public final class DeliveryEngine implements Closeable {
+
+    public static final int DEFAULT_QUANTUM = 1;
+
+    private static final String CLOSED_ERR = "DeliveryEngine is closed";
+
+    private final WebHookRegistry registry;
+    private final Ticker ticker;
+    private final int quantum;
+    private final ConcurrencyLimiter limiter;
+    private final ExecutorService workers;
+    private final Thread dispatcher;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition scheduleChanged = lock.newCondition();
+    /**
+     * Tokens with queued messages that are ready to send, in turn order.
+     */
+    private final ArrayDeque<WebHookState> ready = new ArrayDeque<>();
+    /**
+     * Tokens with queued messages that are waiting for their rate limiter or circuit, by the time they can send again.
+     */
+    private final PriorityQueue<Parked> parked = new PriorityQueue<>(Comparator.comparingLong(Parked::readyNanos));
+    private volatile boolean closed;
+
+    private DeliveryEngine(WebHookRegistry registry, ConcurrencyLimiter limiter, int quantum) {
+        checkArgument(quantum > 0, "Quantum must be positive");
+        this.registry = checkNotNull(registry, "WebHookRegistry cannot be null");
+        this.ticker = registry.ticker();
+        this.quantum = quantum;
+        this.limiter = checkNotNull(limiter, "ConcurrencyLimiter cannot be null");
+        this.workers = Executors.newFixedThreadPool(limiter.maxLimit(), new ThreadFactoryBuilder()
+                .setNameFormat("roboslack-delivery-%d")
+                .setDaemon(true)
+                .build());
+        this.dispatcher = new Thread(this::dispatch, "roboslack-delivery-dispatcher");
+        this.dispatcher.setDaemon(true);
+    }
+
+    /**
+     * Starts a {@link DeliveryEngine} for {@code registry}, sending with at most {@code workers} concurrent requests.
+     * The limit starts at {@code workers} and adapts between one and {@code workers}.
+     *
+     * @param registry the {@link WebHookRegistry} whose tokens to deliver to
+     * @param workers the number of worker threads, and so the most concurrent requests
+     * @return the started {@link DeliveryEngine}
+     */
+    public static DeliveryEngine start(WebHookRegistry registry, int workers) {
+        return start(registry, workers, DEFAULT_QUANTUM);
+    }
+
+    /**
+     * Starts a {@link DeliveryEngine} for {@code registry}, sending with at most {@code workers} concurrent requests
+     * and granting each token {@code quantum} deliveries per turn.
+     *
+     * @param registry the {@link WebHookRegistry} whose tokens to deliver to
+     * @param workers the number of worker threads, and so the most concurrent requests
+     * @param quantum the number of deliveries each token may make per turn
+     * @return the started {@link DeliveryEngine}
+     */
+    public static DeliveryEngine start(WebHookRegistry registry, int workers, int quantum) {
+        checkArgument(workers > 0, "Workers must be positive");
+        return start(registry, ConcurrencyLimiter.create(1, workers, workers), quantum);
+    }
+
+    /**
+     * Starts a {@link DeliveryEngine} for {@code registry}, sending with as many concurrent requests as {@code limiter}
+     * allows and granting each token {@code quantum} deliveries per turn.
+     *
+     * @param registry the {@link WebHookRegistry} whose tokens to deliver to
+     * @param limiter the {@link ConcurrencyLimiter} of concurrent requests, whose maximum is the number of worker
+     * threads
+     * @param quantum the number of deliveries each token may make per turn
+     * @return the started {@link DeliveryEngine}
+     */
+    public static DeliveryEngine start(WebHookRegistry registry, ConcurrencyLimiter limiter, int quantum) {
+        DeliveryEngine engine = new DeliveryEngine(registry, limiter, quantum);
+        engine.dispatcher.start();
+        return engine;
+    }
+
+    /**
+     * The {@link ConcurrencyLimiter} of this engine, whose {@link ConcurrencyLimiter#limit()} is the current number of
+     * requests allowed in flight.
+     *
+     * @return the {@link ConcurrencyLimiter}
+     */
+    public ConcurrencyLimiter limiter() {
+        return limiter;
+    }
+
+    /**
+     * Queues a message for {@code token}, to be sent when it is the token's turn and its rate limiter allows.
+     *
+     * @param token the {@link WebHookToken} to send to
+     * @param messageRequest the {@link MessageRequest} to send
+     * @return a {@link CompletableFuture} of the {@link WebHookResponse}, which fails with an {@link
+     * IllegalStateException} if the token's queue is full, the message could not be sent, or the engine is closed
+     */
+    public CompletableFuture<WebHookResponse> submit(WebHookToken token, MessageRequest messageRequest) {
+        checkNotNull(messageRequest, "MessageRequest cannot be null");
+        Delivery delivery = new Delivery(messageRequest);
+        if (closed) {
+            delivery.result().completeExceptionally(new IllegalStateException(CLOSED_ERR));
+            return delivery.result();
+        }
+        WebHookState state = registry.enqueue(token, delivery);
+        if (state == null) {
+            delivery.result().completeExceptionally(new IllegalStateException(String.format(
+                    "Queue full for web hook %s/%s", token.partT(), token.partB())));
+            return delivery.result();
+        }
+        lock.lock();
+        try {
+            if (!state.scheduled()) {
+                state.scheduled(true);
+                ready.addLast(state);
+                scheduleChanged.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (closed) {
+            failQueued();
+        }
+        return delivery.result();
+    }
+
+    /**
+     * Stops delivering. Messages that are still queued fail with an {@link IllegalStateException}; messages that are
+     * being sent complete normally.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        dispatcher.interrupt();
+        workers.shutdown();
+        failQueued();
+    }
+
+    private void failQueued() {
+        lock.lock();
+        try {
+            for (Parked waiting : parked) {
+                ready.add(waiting.state);
+            }
+            parked.clear();
+            for (WebHookState state : ready) {
+                for (Delivery delivery = state.poll(); delivery != null; delivery = state.poll()) {
+                    delivery.result().completeExceptionally(new IllegalStateException(CLOSED_ERR));
+                }
+                state.scheduled(false);
+            }
+            ready.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatch() {
+        try {
+            while (!closed) {
+                limiter.acquire();
+                Dispatch next = nextDispatchOrCancel();
+                if (next != null) {
+                    execute(next);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Takes the next delivery with a limiter slot already held, giving the slot back if there is nothing to deliver.
+     */
+    @CheckForNull
+    private Dispatch nextDispatchOrCancel() throws InterruptedException {
+        Dispatch next = null;
+        try {
+            next = nextDispatch();
+            return next;
+        } finally {
+            if (next == null) {
+                limiter.cancel();
+            }
+        }
+    }
+
+    /**
+     * Waits for a token to be ready, then takes the delivery it is due to make on its turn.
+     *
+     * @return the next delivery, or null if there is nothing to deliver yet
+     */
+    @CheckForNull
+    private Dispatch nextDispatch() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            long now = ticker.read();
+            while (!parked.isEmpty() && parked.peek().readyNanos - now <= 0) {
+                ready.addLast(parked.remove().state);
+            }
+            WebHookState state = ready.peekFirst();
+            if (state == null) {
+                if (parked.isEmpty()) {
+                    scheduleChanged.await();
+                } else {
+                    scheduleChanged.awaitNanos(parked.peek().readyNanos - now);
+                }
+                return null;
+            }
+            return takeTurn(state, now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes one delivery from the token at the head of the turn order, or sets it aside if it cannot send yet.
+     */
+    @CheckForNull
+    private Dispatch takeTurn(WebHookState state, long now) {
+        long waitNanos = nanosUntilSendable(state, now);
+        if (waitNanos > 0) {
+            ready.removeFirst();
+            state.deficit(0);
+            parked.add(new Parked(state, now + waitNanos));
+            return null;
+        }
+        if (state.deficit() == 0) {
+            state.deficit(quantum);
+        }
+        Delivery delivery = state.poll();
+        if (delivery == null) {
+            state.cancelProbe();
+        }
+        state.deficit(state.deficit() - 1);
+        if (delivery == null || state.deficit() == 0 || state.queuedMessages() == 0) {
+            endTurn(state);
+        }
+        return delivery == null ? null : new Dispatch(state, delivery);
+    }
+
+    /**
+     * Takes a permit and passes the circuit of {@code state}, or returns how long to wait before trying again.
+     */
+    private static long nanosUntilSendable(WebHookState state, long now) {
+        long waitNanos = state.circuitDelayNanos(now);
+        if (waitNanos == 0) {
+            waitNanos = state.tryAcquirePermit(now);
+        }
+        if (waitNanos == 0 && !state.allowsDelivery(now)) {
+            // Another sender became the half open circuit's probe since it was checked
+            waitNanos = Math.max(state.circuitDelayNanos(now), 1L);
+        }
+        return waitNanos;
+    }
+
+    private void endTurn(WebHookState state) {
+        ready.removeFirst();
+        state.deficit(0);
+        if (state.queuedMessages() > 0) {
+            ready.addLast(state);
+        } else {
+            state.scheduled(false);
+        }
+    }
+
+    private void execute(Dispatch next) {
+        try {
+            workers.execute(() -> send(next));
+        } catch (RejectedExecutionException e) {
+            next.state.cancelProbe();
+            next.delivery.result().completeExceptionally(new IllegalStateException(CLOSED_ERR, e));
+            limiter.cancel();
+        }
+    }
+
+    private void send(Dispatch next) {
+        long start = ticker.read();
+        WebHookResponse response;
+        try {
+            response = registry.deliver(next.state, next.delivery.message());
+        } catch (RuntimeException e) {
+            next.state.cancelProbe();
+            limiter.release(start, ticker.read(), true);
+            next.delivery.result().completeExceptionally(e);
+            return;
+        }
+        limiter.release(start, ticker.read(), ResponseCodeConverter.isOverload(response));
+        next.delivery.result().complete(response);
+    }
+
+    private static final class Dispatch {
+
+        private final WebHookState state;
+        private final Delivery delivery;
+
+        Dispatch(WebHookState state, Delivery delivery) {
+            this.state = state;
+            this.delivery = delivery;
+        }
+
+    }
+
+    private static final class Parked {
+
+        private final WebHookState state;
+        private final long readyNanos;
+
+        Parked(WebHookState state, long readyNanos) {
+            this.state = state;
+            this.readyNanos = readyNanos;
+        }
+
+        long readyNanos() {
+            return readyNanos;
+        }
+
+    }
+
+}
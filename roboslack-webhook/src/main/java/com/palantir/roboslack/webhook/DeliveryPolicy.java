@@ -0,0 +1,157 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.roboslack.webhook;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.time.Duration;
+import org.immutables.value.Value;
+
+/**
+ * How a {@link WebHookRegistry} paces and protects deliveries to each of its web hooks: a per-token rate limit, a
+ * circuit breaker that stops sending to a web hook that keeps failing, a bound on queued messages, and how long an
+ * unused token keeps its state.
+ * <p>
+ * The defaults follow Slack's limit of one message per second per incoming web hook, with short bursts allowed.
+ *
+ * @see <a href="https://api.slack.com/docs/rate-limits">Rate Limits</a>
+ * @since 1.1.0
+ */
+@Value.Immutable
+public abstract class DeliveryPolicy {
+
+    public static final double DEFAULT_PERMITS_PER_SECOND = 1.0;
+    public static final int DEFAULT_BURST = 3;
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+    public static final int DEFAULT_MAX_QUEUED_MESSAGES = 100;
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(10);
+
+    private static final DeliveryPolicy DEFAULTS = builder().build();
+
+    public static Builder builder() {
+        return ImmutableDeliveryPolicy.builder();
+    }
+
+    public static DeliveryPolicy defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * The sustained number of messages per second sent to each web hook.
+     *
+     * @return the permits per second
+     */
+    @Value.Default
+    public double permitsPerSecond() {
+        return DEFAULT_PERMITS_PER_SECOND;
+    }
+
+    /**
+     * The number of messages that may be sent to a web hook back to back after it has been quiet.
+     *
+     * @return the burst size, in messages
+     */
+    @Value.Default
+    public int burst() {
+        return DEFAULT_BURST;
+    }
+
+    /**
+     * The number of permits leased at a time from a {@link RateLimitStore}, when the registry shares its rate limit
+     * with other nodes. Larger leases mean fewer round trips to the store, but a less even share of the budget.
+     * Defaults to the {@link #burst()}.
+     *
+     * @return the lease size, in permits
+     */
+    @Value.Default
+    public int leaseSize() {
+        return burst();
+    }
+
+    /**
+     * The number of consecutive failed deliveries after which a web hook's circuit opens.
+     *
+     * @return the failure threshold
+     */
+    @Value.Default
+    public int failureThreshold() {
+        return DEFAULT_FAILURE_THRESHOLD;
+    }
+
+    /**
+     * How long an open circuit rejects deliveries before letting a single trial delivery through. The circuit stays
+     * open for every other delivery until the trial delivery completes.
+     *
+     * @return the open {@link Duration}
+     */
+    @Value.Default
+    public Duration openDuration() {
+        return DEFAULT_OPEN_DURATION;
+    }
+
+    /**
+     * The maximum number of messages queued for a single web hook.
+     *
+     * @return the queue bound, in messages
+     */
+    @Value.Default
+    public int maxQueuedMessages() {
+        return DEFAULT_MAX_QUEUED_MESSAGES;
+    }
+
+    /**
+     * How long a token's state is kept after it was last used, as long as it has no queued messages.
+     *
+     * @return the idle timeout
+     */
+    @Value.Default
+    public Duration idleTimeout() {
+        return DEFAULT_IDLE_TIMEOUT;
+    }
+
+    @Value.Check
+    protected final void check() {
+        checkArgument(permitsPerSecond() > 0, "Permits per second must be positive");
+        checkArgument(burst() > 0, "Burst must be positive");
+        checkArgument(leaseSize() > 0 && leaseSize() <= burst(), "Lease size must be positive and at most the burst");
+        checkArgument(failureThreshold() > 0, "Failure threshold must be positive");
+        checkArgument(!openDuration().isNegative(), "Open duration cannot be negative");
+        checkArgument(maxQueuedMessages() > 0, "Max queued messages must be positive");
+        checkArgument(!idleTimeout().isNegative() && !idleTimeout().isZero(), "Idle timeout must be positive");
+    }
+
+    public interface Builder {
+        Builder permitsPerSecond(double permitsPerSecond);
+
+        Builder burst(int burst);
+
+        Builder leaseSize(int leaseSize);
+
+        Builder failureThreshold(int failureThreshold);
+
+        Builder openDuration(Duration openDuration);
+
+        Builder maxQueuedMessages(int maxQueuedMessages);
+
+        Builder idleTimeout(Duration idleTimeout);
+
+        DeliveryPolicy build();
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.roboslack.webhook;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.Striped;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * A {@link RateLimitStore} kept in a directory, which shares a budget between processes on the same host, or on hosts
+ * sharing a file system with working locks. Each web hook's bucket is a small file, read and updated under an
+ * exclusive {@link FileLock}; buckets are timed with the wall {@link Clock}, so the clocks of the processes sharing a
+ * directory must agree.
+ * <p>
+ * This is mostly useful for testing, and as a reference for implementations backed by a shared database or cache.
+ *
+ * @since 1.1.0
+ */
+public final class FileRateLimitStore implements RateLimitStore {
+
+    private static final String BUCKET_SUFFIX = ".bucket";
+    private static final int BUCKET_BYTES = Double.BYTES + Long.BYTES;
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final int LOCK_STRIPES = 64;
+
+    /**
+     * File locks are held by the whole process, so threads sharing a process must also take turns with each other.
+     */
+    private static final Striped<Lock> PROCESS_LOCKS = Striped.lock(LOCK_STRIPES);
+
+    private final Path directory;
+    private final Clock clock;
+
+    @VisibleForTesting
+    FileRateLimitStore(Path directory, Clock clock) {
+        this.directory = checkNotNull(directory, "Directory cannot be null").toAbsolutePath();
+        this.clock = checkNotNull(clock, "Clock cannot be null");
+    }
+
+    /**
+     * Creates a {@link FileRateLimitStore} keeping its buckets in {@code directory}, creating it if necessary.
+     *
+     * @param directory the {@link Path} of the shared directory
+     * @return the new {@link FileRateLimitStore}
+     * @throws IOException if the directory cannot be created
+     */
+    public static FileRateLimitStore create(Path directory) throws IOException {
+        Files.createDirectories(checkNotNull(directory, "Directory cannot be null"));
+        return new FileRateLimitStore(directory, Clock.systemUTC());
+    }
+
+    /**
+     * Takes up to {@code requested} permits from the bucket file of {@code key}, holding its lock throughout.
+     *
+     * @param key the web hook's key, its token without the secret part
+     * @param requested the number of permits wanted, at least one
+     * @param policy the {@link DeliveryPolicy} giving the budget's refill rate and capacity
+     * @return the number of permits granted, from zero to {@code requested}
+     * @throws UncheckedIOException if the bucket file cannot be read or written
+     */
+    @Override
+    public int lease(String key, int requested, DeliveryPolicy policy) {
+        checkNotNull(key, "Key cannot be null");
+        checkNotNull(policy, "DeliveryPolicy cannot be null");
+        checkArgument(requested > 0, "Requested permits must be positive");
+        return update(key, policy, (bucket, nowNanos) -> bucket.take(requested, policy, nowNanos));
+    }
+
+    /**
+     * Empties the bucket file of {@code key}, and holds off refilling it for {@code delay}, holding its lock
+     * throughout.
+     *
+     * @param key the web hook's key, its token without the secret part
+     * @param delay how long Slack asked to wait before sending again
+     * @param policy the {@link DeliveryPolicy} giving the budget's refill rate and capacity
+     * @throws UncheckedIOException if the bucket file cannot be read or written
+     */
+    @Override
+    public void defer(String key, Duration delay, DeliveryPolicy policy) {
+        checkNotNull(key, "Key cannot be null");
+        checkNotNull(delay, "Delay cannot be null");
+        checkNotNull(policy, "DeliveryPolicy cannot be null");
+        update(key, policy, (bucket, nowNanos) -> {
+            bucket.deferUntil(nowNanos + delay.toNanos());
+            return 0;
+        });
+    }
+
+    private int update(String key, DeliveryPolicy policy, BucketUpdate update) {
+        Path file = directory.resolve(key.replace('/', '-') + BUCKET_SUFFIX);
+        Lock processLock = PROCESS_LOCKS.get(file);
+        processLock.lock();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // Closing the channel releases the lock
+            channel.lock();
+            long now = nowNanos();
+            PermitBucket bucket = read(channel, policy, now);
+            int result = update.apply(bucket, now);
+            write(channel, bucket);
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            processLock.unlock();
+        }
+    }
+
+    private long nowNanos() {
+        Instant now = clock.instant();
+        return now.getEpochSecond() * NANOS_PER_SECOND + now.getNano();
+    }
+
+    private static PermitBucket read(FileChannel channel, DeliveryPolicy policy, long nowNanos) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUCKET_BYTES);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) > 0) {
+            // Keep reading until the bucket is complete or the file ends
+        }
+        if (buffer.hasRemaining()) {
+            return PermitBucket.full(policy, nowNanos);
+        }
+        buffer.flip();
+        return new PermitBucket(buffer.getDouble(), buffer.getLong());
+    }
+
+    private static void write(FileChannel channel, PermitBucket bucket) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUCKET_BYTES);
+        buffer.putDouble(bucket.permits()).putLong(bucket.refilledNanos()).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, buffer.position());
+        }
+    }
+
+    @FunctionalInterface
+    private interface BucketUpdate {
+        int apply(PermitBucket bucket, long nowNanos);
+    }
+
+}
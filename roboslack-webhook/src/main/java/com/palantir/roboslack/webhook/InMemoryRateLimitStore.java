@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.roboslack.webhook;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link RateLimitStore} held in memory, which shares a budget between the {@link WebHookRegistry}s of a single
+ * process. This is mostly useful for testing, and as a reference for distributed implementations.
+ *
+ * @since 1.1.0
+ */
+public final class InMemoryRateLimitStore implements RateLimitStore {
+
+    private final Ticker ticker;
+    private final ConcurrentMap<String, PermitBucket> buckets = new ConcurrentHashMap<>();
+
+    @VisibleForTesting
+    InMemoryRateLimitStore(Ticker ticker) {
+        this.ticker = checkNotNull(ticker, "Ticker cannot be null");
+    }
+
+    /**
+     * Creates a new, empty {@link InMemoryRateLimitStore}.
+     *
+     * @return the new {@link InMemoryRateLimitStore}
+     */
+    public static InMemoryRateLimitStore create() {
+        return new InMemoryRateLimitStore(Ticker.systemTicker());
+    }
+
+    @Override
+    public int lease(String key, int requested, DeliveryPolicy policy) {
+        checkNotNull(key, "Key cannot be null");
+        checkNotNull(policy, "DeliveryPolicy cannot be null");
+        checkArgument(requested > 0, "Requested permits must be positive");
+        PermitBucket bucket = bucket(key, policy);
+        synchronized (bucket) {
+            return bucket.take(requested, policy, ticker.read());
+        }
+    }
+
+    @Override
+    public void defer(String key, Duration delay, DeliveryPolicy policy) {
+        checkNotNull(key, "Key cannot be null");
+        checkNotNull(delay, "Delay cannot be null");
+        checkNotNull(policy, "DeliveryPolicy cannot be null");
+        PermitBucket bucket = bucket(key, policy);
+        synchronized (bucket) {
+            bucket.deferUntil(ticker.read() + delay.toNanos());
+        }
+    }
+
+    private PermitBucket bucket(String key, DeliveryPolicy policy) {
+        long now = ticker.read();
+        return buckets.computeIfAbsent(key, unused -> PermitBucket.full(policy, now));
+    }
+
+}
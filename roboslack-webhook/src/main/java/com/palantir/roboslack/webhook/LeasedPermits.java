@@ -0,0 +1,181 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.roboslack.webhook;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.CheckForNull;
+
+/**
+ * The permits a {@link WebHookState} has leased from a {@link RateLimitStore}. Leases run on an {@link Executor}
+ * without holding any lock, and the next batch is leased ahead of time once half of the current one is spent, so a
+ * sender rarely waits on the store. A lease that grants nothing, or fails, is only retried after a backoff that starts
+ * at one permit interval and doubles with each further shortfall, up to the time the budget takes to refill
+ * completely, so idle nodes do not poll the store in step with every other node.
+ * <p>
+ * All times are {@link com.google.common.base.Ticker} readings, in nanoseconds.
+ */
+final class LeasedPermits {
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long MAX_LEASE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final RateLimitStore store;
+    private final String key;
+    private final DeliveryPolicy policy;
+    private final Executor executor;
+    private final double permitNanos;
+    private final long refillNanos;
+    private int permits;
+    private long expiresNanos;
+    private long deferredUntilNanos;
+    private long nextLeaseNanos;
+    private boolean leasing;
+    private int shortfalls;
+    private int failures;
+    @CheckForNull
+    private RuntimeException lastFailure;
+
+    LeasedPermits(RateLimitStore store, String key, DeliveryPolicy policy, Executor executor, long nowNanos) {
+        this.store = store;
+        this.key = key;
+        this.policy = policy;
+        this.executor = executor;
+        this.permitNanos = NANOS_PER_SECOND / policy.permitsPerSecond();
+        this.refillNanos = (long) Math.ceil(policy.burst() * permitNanos);
+        this.expiresNanos = nowNanos;
+        this.deferredUntilNanos = nowNanos;
+        this.nextLeaseNanos = nowNanos;
+    }
+
+    /**
+     * Takes a leased permit if one is available, first starting a lease if permits are running low.
+     *
+     * @return 0 if a permit was taken, otherwise how long to wait before trying again, in nanoseconds
+     */
+    long tryAcquire(long nowNanos) {
+        if (startLease(nowNanos)) {
+            try {
+                executor.execute(() -> lease(nowNanos));
+            } catch (RejectedExecutionException e) {
+                completeLease(nowNanos, 0, e);
+            }
+        }
+        return take(nowNanos);
+    }
+
+    /**
+     * Drops the leased permits, and withholds permits until {@code untilNanos}. The web hook's budget is deferred in
+     * the store as well, on the {@link Executor}, so other nodes stop leasing it too; a failure to do so counts as a
+     * lease failure.
+     */
+    void deferUntil(long nowNanos, long untilNanos) {
+        synchronized (this) {
+            permits = 0;
+            deferredUntilNanos = Math.max(deferredUntilNanos, untilNanos);
+        }
+        Duration delay = Duration.ofNanos(untilNanos - nowNanos);
+        try {
+            executor.execute(() -> defer(delay));
+        } catch (RejectedExecutionException e) {
+            recordFailure(e);
+        }
+    }
+
+    /**
+     * The most recent lease failure, once {@link DeliveryPolicy#failureThreshold()} leases in a row have failed.
+     *
+     * @return an {@link Optional} containing the failure
+     */
+    synchronized Optional<RuntimeException> failure() {
+        return failures >= policy.failureThreshold() ? Optional.ofNullable(lastFailure) : Optional.empty();
+    }
+
+    private int available(long nowNanos) {
+        return nowNanos - expiresNanos < 0 ? permits : 0;
+    }
+
+    private synchronized boolean startLease(long nowNanos) {
+        if (leasing || nowNanos - nextLeaseNanos < 0 || available(nowNanos) > policy.leaseSize() / 2) {
+            return false;
+        }
+        leasing = true;
+        return true;
+    }
+
+    private synchronized long take(long nowNanos) {
+        if (nowNanos - deferredUntilNanos < 0) {
+            return deferredUntilNanos - nowNanos;
+        }
+        if (available(nowNanos) > 0) {
+            permits--;
+            return 0L;
+        }
+        if (leasing) {
+            return Math.min((long) Math.ceil(permitNanos), MAX_LEASE_WAIT_NANOS);
+        }
+        return Math.max(nextLeaseNanos - nowNanos, 1L);
+    }
+
+    private void lease(long startNanos) {
+        int granted;
+        try {
+            granted = store.lease(key, policy.leaseSize(), policy);
+        } catch (RuntimeException e) {
+            completeLease(startNanos, 0, e);
+            return;
+        }
+        completeLease(startNanos, granted, null);
+    }
+
+    private void defer(Duration delay) {
+        try {
+            store.defer(key, delay, policy);
+        } catch (RuntimeException e) {
+            recordFailure(e);
+        }
+    }
+
+    private synchronized void recordFailure(RuntimeException failure) {
+        failures++;
+        lastFailure = failure;
+    }
+
+    private synchronized void completeLease(long startNanos, int granted, @CheckForNull RuntimeException failure) {
+        leasing = false;
+        if (failure == null) {
+            failures = 0;
+            lastFailure = null;
+        } else {
+            recordFailure(failure);
+        }
+        if (granted > 0) {
+            permits = available(startNanos) + granted;
+            expiresNanos = startNanos + refillNanos;
+            shortfalls = 0;
+        } else {
+            shortfalls++;
+            double backoffNanos = Math.ceil(permitNanos) * Math.pow(2, shortfalls - 1);
+            nextLeaseNanos = startNanos + (long) Math.min(refillNanos, backoffNanos);
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.roboslack.webhook;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket that refills at the {@link DeliveryPolicy#permitsPerSecond()} up to the
+ * {@link DeliveryPolicy#burst()}: the local rate limiter of a {@link WebHookState}, and each web hook's budget in a
+ * {@link RateLimitStore}. Not thread safe.
+ */
+final class PermitBucket {
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private double permits;
+    private long refilledNanos;
+
+    PermitBucket(double permits, long refilledNanos) {
+        this.permits = permits;
+        this.refilledNanos = refilledNanos;
+    }
+
+    /**
+     * Creates a full bucket for {@code policy}.
+     */
+    static PermitBucket full(DeliveryPolicy policy, long nowNanos) {
+        return new PermitBucket(policy.burst(), nowNanos);
+    }
+
+    double permits() {
+        return permits;
+    }
+
+    long refilledNanos() {
+        return refilledNanos;
+    }
+
+    /**
+     * Refills the bucket up to {@code nowNanos}, then takes up to {@code requested} whole permits from it.
+     *
+     * @return the number of permits taken
+     */
+    int take(int requested, DeliveryPolicy policy, long nowNanos) {
+        if (nowNanos > refilledNanos) {
+            permits = Math.min(policy.burst(),
+                    permits + (nowNanos - refilledNanos) * policy.permitsPerSecond() / NANOS_PER_SECOND);
+            refilledNanos = nowNanos;
+        }
+        int taken = (int) Math.min(requested, Math.floor(permits));
+        permits -= taken;
+        return taken;
+    }
+
+    /**
+     * Returns how long until the bucket will hold a whole permit again, in nanoseconds, after a {@link #take} at
+     * {@code nowNanos} came up short.
+     */
+    long nanosUntilPermit(DeliveryPolicy policy, long nowNanos) {
+        long refillNanos = (long) Math.ceil((1 - permits) * NANOS_PER_SECOND / policy.permitsPerSecond());
+        return Math.max(refilledNanos - nowNanos, 0L) + refillNanos;
+    }
+
+    /**
+     * Empties the bucket, and holds off refilling it until {@code untilNanos}.
+     */
+    void deferUntil(long untilNanos) {
+        permits = 0;
+        refilledNanos = Math.max(refilledNanos, untilNanos);
+    }
+
+}
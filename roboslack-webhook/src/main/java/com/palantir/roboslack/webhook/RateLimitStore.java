@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.roboslack.webhook;
+
+import java.time.Duration;
+
+/**
+ * A rate limit budget shared by every node sending to the same web hooks, so that together they stay within Slack's
+ * limit. Each web hook's budget is a token bucket that refills at the {@link DeliveryPolicy#permitsPerSecond()} up to
+ * the {@link DeliveryPolicy#burst()}.
+ * <p>
+ * A {@link WebHookRegistry} leases permits from the store in batches of {@link DeliveryPolicy#leaseSize()} and spends
+ * them locally, so it only contacts the store once per batch rather than once per message. Leases are made on a
+ * background thread once half of the current batch is spent, never while sending. Leased permits that go unused
+ * expire once the bucket could have refilled completely, which bounds how far the cluster can overshoot the limit to
+ * a single burst.
+ * <p>
+ * A lease that grants nothing, or throws, is retried after a backoff that doubles with every further shortfall. Once
+ * {@link DeliveryPolicy#failureThreshold()} leases in a row have thrown, {@link WebHookRegistry#sendMessage} fails
+ * rather than waiting for the store to recover.
+ * <p>
+ * When Slack rate limits a web hook with a {@code Retry-After} delay, the registry that got the response {@link
+ * #defer defers} the web hook's budget in the store, so every node stops leasing permits for it until the delay has
+ * passed. Permits other nodes leased beforehand are still spent.
+ *
+ * @see InMemoryRateLimitStore
+ * @see FileRateLimitStore
+ * @since 1.1.0
+ */
+public interface RateLimitStore {
+
+    /**
+     * Takes up to {@code requested} permits from the budget of the web hook identified by {@code key}.
+     *
+     * @param key the web hook's key, its token without the secret part, eg. {@code T00000000/B00000000}
+     * @param requested the number of permits wanted, at least one
+     * @param policy the {@link DeliveryPolicy} giving the budget's refill rate and capacity
+     * @return the number of permits granted, from zero to {@code requested}
+     */
+    int lease(String key, int requested, DeliveryPolicy policy);
+
+    /**
+     * Empties the budget of the web hook identified by {@code key}, and holds off refilling it for {@code delay}. By
+     * default the budget is only drained, by leasing the whole {@link DeliveryPolicy#burst()}, so it refills at the
+     * usual rate; implementations should hold off refilling it for the full delay.
+     *
+     * @param key the web hook's key, its token without the secret part, eg. {@code T00000000/B00000000}
+     * @param delay how long Slack asked to wait before sending again
+     * @param policy the {@link DeliveryPolicy} giving the budget's refill rate and capacity
+     */
+    default void defer(String key, Duration delay, DeliveryPolicy policy) {
+        lease(key, policy.burst(), policy);
+    }
+
+}
@@ -17,18 +17,223 @@
 package com.palantir.roboslack.webhook;
 
 import com.palantir.roboslack.webhook.api.model.response.ResponseCode;
+import com.palantir.roboslack.webhook.api.model.response.WebHookResponse;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import javax.annotation.CheckForNull;
 import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
 import retrofit2.Converter;
+import retrofit2.Response;
 import retrofit2.Retrofit;
 
+/**
+ * Converts Slack's plaintext webhook response bodies into {@link ResponseCode}s. The body bytes are matched against a
+ * table of every {@link ResponseCode}'s wire bytes, indexed by length, directly inside the response buffer, so no
+ * {@link String} is decoded on the response path. Bodies that match nothing resolve to {@link ResponseCode#UNKNOWN}.
+ */
 public final class ResponseCodeConverter implements Converter<ResponseBody, ResponseCode> {
 
+    private static final String RETRY_AFTER_HEADER = "Retry-After";
+
+    private static final int MAX_RETRY_AFTER_DIGITS = 18;
+
+    private static final int HTTP_REQUEST_TIMEOUT = 408;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_SERVER_ERROR = 500;
+    private static final int HTTP_GATEWAY_TIMEOUT = 504;
+
+    private static final byte[][] CODE_BYTES = new byte[ResponseCode.values().length][];
+    private static final ResponseCode[][] CODES_BY_LENGTH;
+    private static final int MAX_CODE_LENGTH;
+
+    /**
+     * Leaves room for surrounding whitespace (eg. a trailing newline) without reading unbounded bodies.
+     */
+    private static final int MAX_BODY_BYTES;
+
+    private static final ResponseCodeConverter INSTANCE = new ResponseCodeConverter();
+
+    static {
+        int maxLength = 0;
+        for (ResponseCode code : ResponseCode.values()) {
+            CODE_BYTES[code.ordinal()] = code.toString().getBytes(StandardCharsets.US_ASCII);
+            maxLength = Math.max(maxLength, CODE_BYTES[code.ordinal()].length);
+        }
+        int[] counts = new int[maxLength + 1];
+        for (byte[] bytes : CODE_BYTES) {
+            counts[bytes.length]++;
+        }
+        CODES_BY_LENGTH = new ResponseCode[maxLength + 1][];
+        for (int length = 0; length <= maxLength; length++) {
+            CODES_BY_LENGTH[length] = new ResponseCode[counts[length]];
+            counts[length] = 0;
+        }
+        for (ResponseCode code : ResponseCode.values()) {
+            int length = CODE_BYTES[code.ordinal()].length;
+            CODES_BY_LENGTH[length][counts[length]++] = code;
+        }
+        MAX_CODE_LENGTH = maxLength;
+        MAX_BODY_BYTES = maxLength + 16;
+    }
+
+    private ResponseCodeConverter() {}
+
     @Override
     public ResponseCode convert(ResponseBody value) throws IOException {
-        return ResponseCode.of(value.string());
+        try {
+            return parse(value.source());
+        } finally {
+            value.close();
+        }
+    }
+
+    /**
+     * Reads at most a handful of bytes past the longest known {@link ResponseCode} from {@code source} and matches
+     * them, case-insensitively and ignoring surrounding whitespace, without consuming or copying the buffer.
+     */
+    static ResponseCode parse(BufferedSource source) throws IOException {
+        if (source.request(MAX_BODY_BYTES + 1)) {
+            return ResponseCode.UNKNOWN;
+        }
+        Buffer buffer = source.buffer();
+        long start = 0;
+        long end = buffer.size();
+        while (start < end && isWhitespace(buffer.getByte(start))) {
+            start++;
+        }
+        while (end > start && isWhitespace(buffer.getByte(end - 1))) {
+            end--;
+        }
+        int length = (int) (end - start);
+        if (length == 0 || length > MAX_CODE_LENGTH) {
+            return ResponseCode.UNKNOWN;
+        }
+        for (ResponseCode candidate : CODES_BY_LENGTH[length]) {
+            if (matches(buffer, start, CODE_BYTES[candidate.ordinal()])) {
+                return candidate;
+            }
+        }
+        return ResponseCode.UNKNOWN;
+    }
+
+    private static boolean matches(Buffer buffer, long offset, byte[] expected) {
+        for (int i = 0; i < expected.length; i++) {
+            if (toLowerAscii(buffer.getByte(offset + i)) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte toLowerAscii(byte value) {
+        return value >= 'A' && value <= 'Z' ? (byte) (value + ('a' - 'A')) : value;
+    }
+
+    private static boolean isWhitespace(byte value) {
+        return value == ' ' || value == '\n' || value == '\r' || value == '\t';
+    }
+
+    /**
+     * Resolves the complete {@link WebHookResponse} of a finished call. Slack reports most failures with a non-2xx
+     * status and a plaintext error body, which Retrofit hands back as the error body rather than converting, so it is
+     * parsed here with the same byte table; when the body is unrecognized, the HTTP status is used instead.
+     *
+     * @param response the finished {@link Response}
+     * @return the resulting {@link WebHookResponse}
+     * @throws IOException if the error body could not be read
+     */
+    static WebHookResponse toWebHookResponse(Response<ResponseCode> response) throws IOException {
+        ResponseCode code;
+        if (response.isSuccessful()) {
+            code = response.body() != null ? response.body() : ResponseCode.UNKNOWN;
+        } else {
+            ResponseBody errorBody = response.errorBody();
+            code = errorBody != null ? INSTANCE.convert(errorBody) : ResponseCode.UNKNOWN;
+        }
+        if (code == ResponseCode.UNKNOWN) {
+            code = ofHttpStatus(response.code());
+        }
+        return WebHookResponse.builder()
+                .responseCode(code)
+                .httpStatus(response.code())
+                .retryAfter(parseRetryAfter(response.headers().get(RETRY_AFTER_HEADER)))
+                .build();
+    }
+
+    /**
+     * Returns true if {@code response} suggests Slack is struggling with the load, rather than that the message or
+     * web hook is at fault. Rate limiting is per web hook, and is handled by deferring that web hook alone.
+     *
+     * @param response the {@link WebHookResponse}
+     * @return whether the response reports an overload
+     */
+    static boolean isOverload(WebHookResponse response) {
+        return response.httpStatus() >= HTTP_SERVER_ERROR || response.responseCode() == ResponseCode.REQUEST_TIMEOUT;
+    }
+
+    /**
+     * Returns true if {@code response} suggests Slack is struggling with the load, like {@link
+     * #isOverload(WebHookResponse)}, without reading the error body, which is left for the caller.
+     *
+     * @param response the finished {@link Response}
+     * @return whether the response reports an overload
+     */
+    static boolean isOverload(Response<ResponseCode> response) {
+        return response.code() >= HTTP_SERVER_ERROR
+                || ofHttpStatus(response.code()) == ResponseCode.REQUEST_TIMEOUT
+                || response.body() == ResponseCode.REQUEST_TIMEOUT;
+    }
+
+    private static ResponseCode ofHttpStatus(int httpStatus) {
+        switch (httpStatus) {
+            case HTTP_TOO_MANY_REQUESTS:
+                return ResponseCode.RATE_LIMITED;
+            case HTTP_REQUEST_TIMEOUT:
+            case HTTP_GATEWAY_TIMEOUT:
+                return ResponseCode.REQUEST_TIMEOUT;
+            default:
+                return ResponseCode.UNKNOWN;
+        }
+    }
+
+    /**
+     * Parses a {@code Retry-After} header, which is either a non-negative number of seconds or an HTTP date.
+     */
+    static Optional<Duration> parseRetryAfter(@CheckForNull String value) {
+        if (value == null || value.isEmpty()) {
+            return Optional.empty();
+        }
+        long seconds = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char character = value.charAt(i);
+            if (character < '0' || character > '9') {
+                return parseRetryAfterDate(value);
+            }
+            if (i == MAX_RETRY_AFTER_DIGITS) {
+                return Optional.empty();
+            }
+            seconds = seconds * 10 + (character - '0');
+        }
+        return Optional.of(Duration.ofSeconds(seconds));
+    }
+
+    private static Optional<Duration> parseRetryAfterDate(String value) {
+        try {
+            Duration untilDate = Duration.between(ZonedDateTime.now(),
+                    ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+            return Optional.of(untilDate.isNegative() ? Duration.ZERO : untilDate);
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
     }
 
     public static Converter.Factory factory() {
@@ -36,7 +241,7 @@ public final class ResponseCodeConverter implements Converter<ResponseBody, Resp
             @Override
             public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
                     Retrofit retrofit) {
-                return new ResponseCodeConverter();
+                return type == ResponseCode.class ? INSTANCE : null;
             }
         };
     }
@@ -18,20 +18,36 @@ package com.palantir.roboslack.webhook;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
 import com.palantir.roboslack.api.MessageRequest;
+import com.palantir.roboslack.api.MessageTemplate;
+import com.palantir.roboslack.api.attachments.Attachment;
 import com.palantir.roboslack.clients.SlackClients;
+import com.palantir.roboslack.jackson.ObjectMappers;
 import com.palantir.roboslack.webhook.api.SlackWebHook;
 import com.palantir.roboslack.webhook.api.model.WebHookToken;
 import com.palantir.roboslack.webhook.api.model.response.ResponseCode;
+import com.palantir.roboslack.webhook.api.model.response.WebHookResponse;
 import java.io.IOException;
+import java.util.Map;
+import javax.annotation.ParametersAreNonnullByDefault;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
 import retrofit2.Call;
 import retrofit2.Callback;
+import retrofit2.Response;
 
 /**
  * Main entry point class to interact with a {@link SlackWebHook}. Instantiate it with a {@link WebHookToken} and a
  * {@code userAgent} {@link String}, then send your composed {@link MessageRequest}s via the {@link
  * SlackWebHookService#sendMessage(MessageRequest)} method. Ensure that you check the returned {@link ResponseCode}
  * for Slack status feedback.
+ * <p>
+ * Every message, synchronous or asynchronous, takes a slot from the service's {@link ConcurrencyLimiter} before it is
+ * sent, waiting for one if the limit is reached, and gives it back with its round trip time and outcome once Slack
+ * answers. Share a {@link ConcurrencyLimiter} between services with {@link #with(WebHookToken, String,
+ * ConcurrencyLimiter)} to bound the requests they make together.
  */
 public final class SlackWebHookService {
 
@@ -39,21 +55,30 @@ public final class SlackWebHookService {
 
     private static final String DEFAULT_WEB_HOOK_URL = "https://hooks.slack.com/services/";
 
+    private static final MediaType JSON_MEDIA_TYPE = MediaType.parse("application/json; charset=UTF-8");
+
     private final WebHookToken token;
     private final SlackWebHook webHook;
+    private final ConcurrencyLimiter limiter;
+    private final Ticker ticker;
 
-    private SlackWebHookService(WebHookToken token, String userAgent) {
+    @VisibleForTesting
+    SlackWebHookService(WebHookToken token, SlackWebHook webHook, ConcurrencyLimiter limiter, Ticker ticker) {
         this.token = checkNotNull(token, TOKEN_ERR);
-        this.webHook = SlackClients.create(SlackWebHook.class, userAgent, DEFAULT_WEB_HOOK_URL,
-                ResponseCodeConverter.factory());
+        this.webHook = checkNotNull(webHook, "SlackWebHook cannot be null");
+        this.limiter = checkNotNull(limiter, "ConcurrencyLimiter cannot be null");
+        this.ticker = checkNotNull(ticker, "Ticker cannot be null");
     }
 
-    private SlackWebHookService(WebHookToken token) {
-        this.token = checkNotNull(token, TOKEN_ERR);
-        this.webHook = SlackClients.create(SlackWebHook.class, DEFAULT_WEB_HOOK_URL,
+    static SlackWebHook createWebHook(String userAgent) {
+        return SlackClients.create(SlackWebHook.class, userAgent, DEFAULT_WEB_HOOK_URL,
                 ResponseCodeConverter.factory());
     }
 
+    static SlackWebHook createWebHook() {
+        return SlackClients.create(SlackWebHook.class, DEFAULT_WEB_HOOK_URL, ResponseCodeConverter.factory());
+    }
+
     /**
      * Creates a new instance of the {@link SlackWebHookService} using the provided {@link WebHookToken}.
      *
@@ -61,7 +86,7 @@ public final class SlackWebHookService {
      * @return the new {@link SlackWebHookService} interaction object
      */
     public static SlackWebHookService with(WebHookToken token) {
-        return new SlackWebHookService(token);
+        return new SlackWebHookService(token, createWebHook(), ConcurrencyLimiter.defaults(), Ticker.systemTicker());
     }
 
     /**
@@ -73,21 +98,84 @@ public final class SlackWebHookService {
      * @return the new {@link SlackWebHookService} interaction object
      */
     public static SlackWebHookService with(WebHookToken token, String userAgent) {
-        return new SlackWebHookService(token, userAgent);
+        return with(token, userAgent, ConcurrencyLimiter.defaults());
+    }
+
+    /**
+     * Creates a new instance of the {@link SlackWebHookService} using the provided {@link WebHookToken} and connecting
+     * {@code usageAgent} {@link String}, whose requests in flight are limited by {@code limiter}.
+     *
+     * @param token the {@link WebHookToken} to use for connecting to the {@link SlackWebHook}
+     * @param userAgent the {@code userAgent} {@link String} to use when connecting to the {@link SlackWebHook}
+     * @param limiter the {@link ConcurrencyLimiter}, which may be shared with other services
+     * @return the new {@link SlackWebHookService} interaction object
+     * @since 1.1.0
+     */
+    public static SlackWebHookService with(WebHookToken token, String userAgent, ConcurrencyLimiter limiter) {
+        return new SlackWebHookService(token, createWebHook(userAgent), limiter, Ticker.systemTicker());
+    }
+
+    /**
+     * The {@link ConcurrencyLimiter} of this service.
+     *
+     * @return the {@link ConcurrencyLimiter}
+     * @since 1.1.0
+     */
+    public ConcurrencyLimiter limiter() {
+        return limiter;
+    }
+
+    /**
+     * Optionally resolves the JSON serializers for {@link MessageRequest} and {@link Attachment} ahead of time, so
+     * the first message sent by any {@link SlackWebHookService} does not pay for Jackson introspection.
+     */
+    public static void warmUp() {
+        ObjectMappers.warmUp(MessageRequest.class, Attachment.class);
     }
 
     private Call<ResponseCode> sendCall(MessageRequest messageRequest) {
         return webHook.sendMessage(token.partT(), token.partB(), token.partX(), messageRequest);
     }
 
+    private Call<ResponseCode> sendCall(MessageTemplate template, Map<String, ?> parameters) {
+        return webHook.sendSerializedMessage(token.partT(), token.partB(), token.partX(),
+                RequestBody.create(JSON_MEDIA_TYPE, template.render(parameters)));
+    }
+
     /**
-     * Sends a message to a connected {@link SlackWebHookService} asynchronously using provided {@link Callback}.
+     * Sends a message to a connected {@link SlackWebHookService} asynchronously using provided {@link Callback}, first
+     * waiting for a slot from the {@link #limiter()}.
      *
      * @param messageRequest the {@link MessageRequest} to execute sending
      * @param callback the {@link Callback} to trigger on response
      */
     public void sendMessageAsync(MessageRequest messageRequest, Callback<ResponseCode> callback) {
-        sendCall(messageRequest).enqueue(callback);
+        enqueue(sendCall(messageRequest), callback);
+    }
+
+    /**
+     * Renders {@code template} with {@code parameters} and sends it to a connected {@link SlackWebHookService}
+     * asynchronously using provided {@link Callback}.
+     *
+     * @param template the compiled {@link MessageTemplate} to render
+     * @param parameters the template parameters
+     * @param callback the {@link Callback} to trigger on response
+     */
+    public void sendMessageAsync(MessageTemplate template, Map<String, ?> parameters,
+            Callback<ResponseCode> callback) {
+        enqueue(sendCall(template, parameters), callback);
+    }
+
+    private void enqueue(Call<ResponseCode> call, Callback<ResponseCode> callback) {
+        checkNotNull(callback, "Callback cannot be null");
+        limiter.acquireToSend();
+        long startNanos = ticker.read();
+        try {
+            call.enqueue(new LimitedCallback(callback, startNanos));
+        } catch (RuntimeException e) {
+            limiter.cancel();
+            throw e;
+        }
     }
 
     /**
@@ -98,11 +186,70 @@ public final class SlackWebHookService {
      * @throws IllegalStateException if unable to connect to Slack
      */
     public ResponseCode sendMessage(MessageRequest messageRequest) {
+        return sendMessageForResponse(messageRequest).responseCode();
+    }
+
+    /**
+     * Sends a message to connected {@link SlackWebHookService} synchronously, returning the full {@link
+     * WebHookResponse} including the HTTP status and any {@code Retry-After} delay requested by Slack.
+     *
+     * @param messageRequest the {@link MessageRequest} to execute sending
+     * @return the resulting {@link WebHookResponse} from the operation
+     * @throws IllegalStateException if unable to connect to Slack
+     */
+    public WebHookResponse sendMessageForResponse(MessageRequest messageRequest) {
+        return limiter.execute(ticker, () -> execute(sendCall(messageRequest)));
+    }
+
+    /**
+     * Renders {@code template} with {@code parameters} and sends it to a connected {@link SlackWebHookService}
+     * synchronously, without building or serializing a {@link MessageRequest}.
+     *
+     * @param template the compiled {@link MessageTemplate} to render
+     * @param parameters the template parameters
+     * @return the resulting {@link WebHookResponse} from the operation
+     * @throws IllegalStateException if unable to connect to Slack
+     */
+    public WebHookResponse sendMessageForResponse(MessageTemplate template, Map<String, ?> parameters) {
+        return limiter.execute(ticker, () -> execute(sendCall(template, parameters)));
+    }
+
+    static WebHookResponse execute(Call<ResponseCode> call) {
         try {
-            return sendCall(messageRequest).execute().body();
+            return ResponseCodeConverter.toWebHookResponse(call.execute());
         } catch (IOException e) {
             throw new IllegalStateException(String.format("Could not connect to %s.", DEFAULT_WEB_HOOK_URL), e);
         }
     }
 
+    /**
+     * Gives back the {@link #limiter()} slot of an asynchronous call before handing its outcome to the caller's {@link
+     * Callback}, so a slow callback does not hold the slot.
+     */
+    private final class LimitedCallback implements Callback<ResponseCode> {
+
+        private final Callback<ResponseCode> delegate;
+        private final long startNanos;
+
+        LimitedCallback(Callback<ResponseCode> delegate, long startNanos) {
+            this.delegate = delegate;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        @ParametersAreNonnullByDefault
+        public void onResponse(Call<ResponseCode> call, Response<ResponseCode> response) {
+            limiter.release(startNanos, ticker.read(), ResponseCodeConverter.isOverload(response));
+            delegate.onResponse(call, response);
+        }
+
+        @Override
+        @ParametersAreNonnullByDefault
+        public void onFailure(Call<ResponseCode> call, Throwable throwable) {
+            limiter.release(startNanos, ticker.read(), true);
+            delegate.onFailure(call, throwable);
+        }
+
+    }
+
 }
@@ -0,0 +1,417 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.roboslack.webhook;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.palantir.roboslack.api.MessageRequest;
+import com.palantir.roboslack.webhook.api.SlackWebHook;
+import com.palantir.roboslack.webhook.api.model.WebHookToken;
+import com.palantir.roboslack.webhook.api.model.response.ResponseCode;
+import com.palantir.roboslack.webhook.api.model.response.WebHookResponse;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.CheckForNull;
+import retrofit2.Call;
+
+/**
+ * Sends messages to many {@link WebHookToken}s, eg. one per customer team, through a single shared {@link
+ * SlackWebHook} transport. Each token gets its own {@link WebHookState}, paced and protected according to the
+ * registry's {@link DeliveryPolicy}.
+ * <p>
+ * Tokens are parsed once, when they are registered, and their state is only created when they are first used. State
+ * that has been idle for the {@link DeliveryPolicy#idleTimeout()} and has nothing queued is evicted, so thousands of
+ * mostly idle tokens cost little more than their registration.
+ * <p>
+ * Messages sent directly with {@link #sendMessage(WebHookToken, MessageRequest)} are bounded by the registry's
+ * {@link #limiter()}; messages queued on a {@link DeliveryEngine} are bounded by the engine's own {@link
+ * DeliveryEngine#limiter()} instead.
+ *
+ * @since 1.1.0
+ */
+public final class WebHookRegistry {
+
+    private static final String TOKEN_ERR = "WebHookToken cannot be null";
+    private static final String COMMENT_PREFIX = "#";
+    private static final Set<ResponseCode> WEB_HOOK_FAILURES = Sets.immutableEnumSet(ResponseCode.CHANNEL_NOT_FOUND,
+            ResponseCode.IS_ARCHIVED, ResponseCode.NOT_AUTHED, ResponseCode.INVALID_AUTH,
+            ResponseCode.ACCOUNT_INACTIVE, ResponseCode.REQUEST_TIMEOUT);
+    private static final int HTTP_SERVER_ERROR = 500;
+    private static final int LEASE_THREADS = 4;
+    private static final long LEASE_THREAD_KEEP_ALIVE_SECONDS = 60;
+
+    private final SlackWebHook transport;
+    private final DeliveryPolicy policy;
+    private final Ticker ticker;
+    private final Optional<RateLimitStore> rateLimitStore;
+    private final Executor leaseExecutor;
+    private final ConcurrencyLimiter limiter = ConcurrencyLimiter.defaults();
+    private final long idleNanos;
+    private final ConcurrentMap<String, WebHookToken> tokens = new ConcurrentHashMap<>();
+    private final ConcurrentMap<WebHookToken, WebHookState> states = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweepNanos;
+
+    @VisibleForTesting
+    WebHookRegistry(SlackWebHook transport, DeliveryPolicy policy, Ticker ticker) {
+        this(transport, policy, Optional.empty(), ticker);
+    }
+
+    @VisibleForTesting
+    WebHookRegistry(SlackWebHook transport, DeliveryPolicy policy, Optional<RateLimitStore> rateLimitStore,
+            Ticker ticker) {
+        this(transport, policy, rateLimitStore, rateLimitStore.isPresent()
+                ? newLeaseExecutor()
+                : MoreExecutors.directExecutor(), ticker);
+    }
+
+    @VisibleForTesting
+    WebHookRegistry(SlackWebHook transport, DeliveryPolicy policy, Optional<RateLimitStore> rateLimitStore,
+            Executor leaseExecutor, Ticker ticker) {
+        this.transport = checkNotNull(transport, "Transport cannot be null");
+        this.policy = checkNotNull(policy, "DeliveryPolicy cannot be null");
+        this.rateLimitStore = checkNotNull(rateLimitStore, "RateLimitStore cannot be null");
+        this.leaseExecutor = checkNotNull(leaseExecutor, "Lease Executor cannot be null");
+        this.ticker = checkNotNull(ticker, "Ticker cannot be null");
+        this.idleNanos = policy.idleTimeout().toNanos();
+        this.lastSweepNanos = new AtomicLong(ticker.read());
+    }
+
+    /**
+     * Leases permits from a {@link RateLimitStore} on a few daemon threads, which exit while there is nothing to lease.
+     */
+    private static Executor newLeaseExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(LEASE_THREADS, LEASE_THREADS,
+                LEASE_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("roboslack-lease-%d")
+                        .setDaemon(true)
+                        .build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Creates a new {@link WebHookRegistry} with the {@link DeliveryPolicy#defaults()}.
+     *
+     * @return the new {@link WebHookRegistry}
+     */
+    public static WebHookRegistry create() {
+        return create(DeliveryPolicy.defaults());
+    }
+
+    /**
+     * Creates a new {@link WebHookRegistry} with the provided {@link DeliveryPolicy}.
+     *
+     * @param policy the {@link DeliveryPolicy} to apply to each token
+     * @return the new {@link WebHookRegistry}
+     */
+    public static WebHookRegistry create(DeliveryPolicy policy) {
+        return new WebHookRegistry(SlackWebHookService.createWebHook(), policy, Ticker.systemTicker());
+    }
+
+    /**
+     * Creates a new {@link WebHookRegistry} with the provided {@link DeliveryPolicy}, connecting with the {@code
+     * userAgent} {@link String}.
+     *
+     * @param policy the {@link DeliveryPolicy} to apply to each token
+     * @param userAgent the {@code userAgent} {@link String} to use when connecting to the {@link SlackWebHook}
+     * @return the new {@link WebHookRegistry}
+     */
+    public static WebHookRegistry create(DeliveryPolicy policy, String userAgent) {
+        return new WebHookRegistry(SlackWebHookService.createWebHook(userAgent), policy, Ticker.systemTicker());
+    }
+
+    /**
+     * Creates a new {@link WebHookRegistry} with the provided {@link DeliveryPolicy}, whose rate limits are shared
+     * through {@code rateLimitStore} with every other registry using the same store.
+     *
+     * @param policy the {@link DeliveryPolicy} to apply to each token
+     * @param rateLimitStore the {@link RateLimitStore} to lease permits from
+     * @return the new {@link WebHookRegistry}
+     */
+    public static WebHookRegistry create(DeliveryPolicy policy, RateLimitStore rateLimitStore) {
+        return new WebHookRegistry(SlackWebHookService.createWebHook(), policy,
+                Optional.of(checkNotNull(rateLimitStore, "RateLimitStore cannot be null")), Ticker.systemTicker());
+    }
+
+    /**
+     * The {@link DeliveryPolicy} applied to each token.
+     *
+     * @return the {@link DeliveryPolicy}
+     */
+    public DeliveryPolicy policy() {
+        return policy;
+    }
+
+    /**
+     * Registers a token string like 'T00000000/B00000000/XXXXXXXXXXXXXXXXXXXXXXXX', parsing it only the first time it
+     * is registered.
+     *
+     * @param token the token {@link String}
+     * @return the registered {@link WebHookToken}
+     * @throws IllegalArgumentException if {@code token} is not a valid token
+     */
+    public WebHookToken register(String token) {
+        checkNotNull(token, TOKEN_ERR);
+        return tokens.computeIfAbsent(token.trim(), WebHookToken::fromString);
+    }
+
+    /**
+     * Registers every token in {@code file}, one per line. Blank lines and lines starting with {@code #} are ignored.
+     *
+     * @param file the {@link Path} of the token file
+     * @return the registered {@link WebHookToken}s, in file order
+     * @throws IOException if {@code file} cannot be read
+     * @throws IllegalArgumentException if a line is not a valid token
+     */
+    public List<WebHookToken> registerAll(Path file) throws IOException {
+        ImmutableList.Builder<WebHookToken> registered = ImmutableList.builder();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String token = line.trim();
+                if (!token.isEmpty() && !token.startsWith(COMMENT_PREFIX)) {
+                    registered.add(register(token));
+                }
+            }
+        }
+        return registered.build();
+    }
+
+    /**
+     * Removes a registered token. Its send state, if any, is kept until it becomes idle, so messages that are being
+     * sent or are queued for it are still delivered.
+     *
+     * @param token the token {@link String}
+     * @return true if the token was registered
+     */
+    public boolean unregister(String token) {
+        return tokens.remove(checkNotNull(token, TOKEN_ERR).trim()) != null;
+    }
+
+    /**
+     * Looks up a registered token by its string form, without parsing it.
+     *
+     * @param token the token {@link String}
+     * @return an {@link Optional} containing the registered {@link WebHookToken}
+     */
+    public Optional<WebHookToken> token(String token) {
+        return Optional.ofNullable(tokens.get(checkNotNull(token, TOKEN_ERR).trim()));
+    }
+
+    /**
+     * All registered tokens.
+     *
+     * @return the registered {@link WebHookToken}s
+     */
+    public Set<WebHookToken> tokens() {
+        return ImmutableSet.copyOf(tokens.values());
+    }
+
+    /**
+     * Gets the send state of {@code token}, creating it if the token has none.
+     *
+     * @param token the {@link WebHookToken}
+     * @return the {@link WebHookState}
+     */
+    public WebHookState state(WebHookToken token) {
+        checkNotNull(token, TOKEN_ERR);
+        long now = ticker.read();
+        maybeEvictIdle(now);
+        while (true) {
+            WebHookState state = states.computeIfAbsent(token,
+                    key -> new WebHookState(key, policy, rateLimitStore, leaseExecutor, now));
+            if (state.touch(now)) {
+                return state;
+            }
+            states.remove(token, state);
+        }
+    }
+
+    /**
+     * The number of tokens that currently hold send state.
+     *
+     * @return the active state count
+     */
+    public int activeStates() {
+        return states.size();
+    }
+
+    /**
+     * Evicts the state of every token that has been idle for the {@link DeliveryPolicy#idleTimeout()} and has
+     * nothing queued. This also happens periodically as tokens are used.
+     *
+     * @return the number of states evicted
+     */
+    public int evictIdle() {
+        long now = ticker.read();
+        lastSweepNanos.set(now);
+        int evicted = 0;
+        for (WebHookState state : states.values()) {
+            if (state.retireIfIdle(now, idleNanos) && states.remove(state.token(), state)) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    private void maybeEvictIdle(long now) {
+        long lastSweep = lastSweepNanos.get();
+        if (now - lastSweep >= idleNanos / 2 && lastSweepNanos.compareAndSet(lastSweep, now)) {
+            evictIdle();
+        }
+    }
+
+    /**
+     * The {@link ConcurrencyLimiter} of messages sent with {@link #sendMessage(WebHookToken, MessageRequest)}.
+     *
+     * @return the {@link ConcurrencyLimiter}
+     */
+    public ConcurrencyLimiter limiter() {
+        return limiter;
+    }
+
+    /**
+     * Sends a message to {@code token}'s web hook synchronously, first waiting for its rate limiter to allow it and
+     * then for a slot from the {@link #limiter()}.
+     *
+     * @param token the {@link WebHookToken} to send to
+     * @param messageRequest the {@link MessageRequest} to send
+     * @return the resulting {@link WebHookResponse}
+     * @throws IllegalStateException if the token's circuit is open, if its permits cannot be leased from the
+     *         {@link RateLimitStore}, if interrupted while waiting, or if unable to connect to Slack
+     */
+    public WebHookResponse sendMessage(WebHookToken token, MessageRequest messageRequest) {
+        checkNotNull(messageRequest, "MessageRequest cannot be null");
+        WebHookState state = state(token);
+        if (!state.allowsDelivery(ticker.read())) {
+            throw new IllegalStateException(String.format("Circuit open for web hook %s/%s",
+                    token.partT(), token.partB()));
+        }
+        try {
+            awaitPermit(state);
+            return limiter.execute(ticker, () -> deliver(state, messageRequest));
+        } catch (RuntimeException e) {
+            // A delivery that was never made must not leave a half open circuit waiting for its outcome
+            state.cancelProbe();
+            throw e;
+        }
+    }
+
+    /**
+     * Queues {@code delivery} for {@code token}, retrying if the token's state is evicted concurrently.
+     *
+     * @return the state the delivery was queued on, or null if the token's queue is full
+     */
+    @CheckForNull
+    WebHookState enqueue(WebHookToken token, Delivery delivery) {
+        while (true) {
+            WebHookState state = state(token);
+            if (state.offer(delivery)) {
+                return state;
+            }
+            if (!state.isRetired()) {
+                return null;
+            }
+        }
+    }
+
+    private void awaitPermit(WebHookState state) {
+        long waitNanos = state.tryAcquirePermit(ticker.read());
+        while (waitNanos > 0) {
+            Optional<RuntimeException> leaseFailure = state.leaseFailure();
+            if (leaseFailure.isPresent()) {
+                throw new IllegalStateException(String.format("Unable to lease permits for web hook %s/%s",
+                        state.token().partT(), state.token().partB()), leaseFailure.get());
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting to send", e);
+            }
+            waitNanos = state.tryAcquirePermit(ticker.read());
+        }
+    }
+
+    Ticker ticker() {
+        return ticker;
+    }
+
+    /**
+     * Sends {@code messageRequest} to {@code state}'s web hook synchronously, recording the outcome on {@code state}.
+     *
+     * @throws IllegalStateException if unable to connect to Slack
+     */
+    WebHookResponse deliver(WebHookState state, MessageRequest messageRequest) {
+        WebHookResponse response;
+        try {
+            response = SlackWebHookService.execute(call(state.token(), messageRequest));
+        } catch (IllegalStateException e) {
+            state.recordFailure(ticker.read());
+            throw e;
+        }
+        recordResponse(state, response);
+        return response;
+    }
+
+    Call<ResponseCode> call(WebHookToken token, MessageRequest messageRequest) {
+        return transport.sendMessage(token.partT(), token.partB(), token.partX(), messageRequest);
+    }
+
+    private void recordResponse(WebHookState state, WebHookResponse response) {
+        long now = ticker.read();
+        if (response.responseCode() == ResponseCode.RATE_LIMITED && response.retryAfter().isPresent()) {
+            state.deferUntil(now, now + response.retryAfter().get().toNanos());
+        }
+        if (isWebHookFailure(response)) {
+            state.recordFailure(now);
+        } else {
+            state.recordSuccess();
+        }
+    }
+
+    /**
+     * Returns true if {@code response} suggests the web hook itself is unavailable, rather than that the message was
+     * rejected or rate limited.
+     */
+    private static boolean isWebHookFailure(WebHookResponse response) {
+        return response.httpStatus() >= HTTP_SERVER_ERROR || WEB_HOOK_FAILURES.contains(response.responseCode());
+    }
+
+}
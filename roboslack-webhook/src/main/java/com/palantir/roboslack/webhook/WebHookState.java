@@ -0,0 +1,281 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.roboslack.webhook;
+
+import com.palantir.roboslack.webhook.api.model.WebHookToken;
+import java.util.ArrayDeque;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.CheckForNull;
+
+/**
+ * The send state a {@link WebHookRegistry} keeps for one {@link WebHookToken}: a token bucket rate limiter, a circuit
+ * breaker and a bounded message queue. State is created when a token is first used and dropped once it has been idle
+ * for the {@link DeliveryPolicy#idleTimeout()}, so it is kept deliberately small; the queue is only allocated once a
+ * message is queued, and released again when it drains.
+ * <p>
+ * When the registry has a {@link RateLimitStore}, the rate limiter instead spends permits leased from the store, and
+ * leases the next batch in the background once they run low or expire. A store that fails counts as granting no
+ * permits, and is retried with a backoff.
+ * <p>
+ * All times are {@link com.google.common.base.Ticker} readings, in nanoseconds.
+ *
+ * @since 1.1.0
+ */
+public final class WebHookState {
+
+    private static final int MAX_INITIAL_QUEUE_CAPACITY = 16;
+    private static final long PROBE_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final WebHookToken token;
+    private final DeliveryPolicy policy;
+    /**
+     * The local rate limiter, or null if permits are leased from a {@link RateLimitStore}.
+     */
+    @CheckForNull
+    private final PermitBucket bucket;
+    @CheckForNull
+    private final LeasedPermits leases;
+    private long lastAccessNanos;
+    private int consecutiveFailures;
+    private long openUntilNanos;
+    private boolean probing;
+    @CheckForNull
+    private ArrayDeque<Delivery> queue;
+    private boolean retired;
+
+    /**
+     * The {@link DeliveryEngine}'s scheduling state for this token, guarded by the engine rather than by this state.
+     */
+    private int deficit;
+    private boolean scheduled;
+
+    WebHookState(WebHookToken token, DeliveryPolicy policy, Optional<RateLimitStore> store, Executor leaseExecutor,
+            long nowNanos) {
+        this.token = token;
+        this.policy = policy;
+        this.bucket = store.isPresent() ? null : PermitBucket.full(policy, nowNanos);
+        this.leases = store
+                .map(value -> new LeasedPermits(value, token.partT() + '/' + token.partB(), policy, leaseExecutor,
+                        nowNanos))
+                .orElse(null);
+        this.lastAccessNanos = nowNanos;
+    }
+
+    /**
+     * The {@link WebHookToken} this state belongs to.
+     *
+     * @return the {@link WebHookToken}
+     */
+    public WebHookToken token() {
+        return token;
+    }
+
+    /**
+     * The number of messages waiting to be sent to this web hook.
+     *
+     * @return the queued message count
+     */
+    public synchronized int queuedMessages() {
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * The number of deliveries to this web hook that have failed since the last successful one.
+     *
+     * @return the consecutive failure count
+     */
+    public synchronized int consecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    int deficit() {
+        return deficit;
+    }
+
+    void deficit(int newDeficit) {
+        this.deficit = newDeficit;
+    }
+
+    boolean scheduled() {
+        return scheduled;
+    }
+
+    void scheduled(boolean newScheduled) {
+        this.scheduled = newScheduled;
+    }
+
+    /**
+     * Marks this state as used, unless it has already been evicted.
+     *
+     * @return false if this state was evicted and must not be used
+     */
+    synchronized boolean touch(long nowNanos) {
+        if (retired) {
+            return false;
+        }
+        lastAccessNanos = nowNanos;
+        return true;
+    }
+
+    /**
+     * Returns true if this state has been evicted and must not be used.
+     */
+    synchronized boolean isRetired() {
+        return retired;
+    }
+
+    /**
+     * Evicts this state if it has not been used for {@code idleNanos} and has nothing queued.
+     *
+     * @return true if this state was evicted
+     */
+    synchronized boolean retireIfIdle(long nowNanos, long idleNanos) {
+        if (queuedMessages() == 0 && nowNanos - lastAccessNanos >= idleNanos) {
+            retired = true;
+        }
+        return retired;
+    }
+
+    /**
+     * Takes a permit from the rate limiter if one is available. Leases from a {@link RateLimitStore} are made without
+     * holding this state's lock.
+     *
+     * @return 0 if a permit was taken, otherwise how long until one will be available, in nanoseconds
+     */
+    long tryAcquirePermit(long nowNanos) {
+        return leases == null ? tryAcquireLocalPermit(nowNanos) : leases.tryAcquire(nowNanos);
+    }
+
+    private synchronized long tryAcquireLocalPermit(long nowNanos) {
+        return bucket.take(1, policy, nowNanos) == 1 ? 0L : bucket.nanosUntilPermit(policy, nowNanos);
+    }
+
+    /**
+     * The most recent failure to lease permits from the {@link RateLimitStore}, once
+     * {@link DeliveryPolicy#failureThreshold()} leases in a row have failed.
+     *
+     * @return an {@link Optional} containing the failure
+     */
+    Optional<RuntimeException> leaseFailure() {
+        return leases == null ? Optional.empty() : leases.failure();
+    }
+
+    /**
+     * Withholds permits until {@code untilNanos}, eg. when Slack asks for a {@code Retry-After} delay. Permits leased
+     * from a {@link RateLimitStore} are withheld in the store too.
+     */
+    void deferUntil(long nowNanos, long untilNanos) {
+        if (leases == null) {
+            deferLocalPermits(untilNanos);
+        } else {
+            leases.deferUntil(nowNanos, untilNanos);
+        }
+    }
+
+    private synchronized void deferLocalPermits(long untilNanos) {
+        bucket.deferUntil(untilNanos);
+    }
+
+    /**
+     * Returns true if the circuit is closed, or if it is half open and this caller may make the single trial delivery.
+     * Once the {@link DeliveryPolicy#openDuration()} has passed, exactly one caller is let through as the probe, and
+     * the circuit stays open for every other caller until the probe's outcome is recorded with {@link
+     * #recordSuccess()} or {@link #recordFailure(long)}. A probe that ends up not delivering must give up its turn
+     * with {@link #cancelProbe()}.
+     */
+    synchronized boolean allowsDelivery(long nowNanos) {
+        if (circuitDelayNanos(nowNanos) > 0) {
+            return false;
+        }
+        probing = isOpen();
+        return true;
+    }
+
+    /**
+     * Returns how long the circuit will stay open, in nanoseconds, or 0 if it allows deliveries. While a probe is in
+     * flight, this is how long to wait before checking again.
+     */
+    synchronized long circuitDelayNanos(long nowNanos) {
+        if (!isOpen()) {
+            return 0L;
+        }
+        if (nowNanos - openUntilNanos < 0) {
+            return openUntilNanos - nowNanos;
+        }
+        return probing ? PROBE_CHECK_NANOS : 0L;
+    }
+
+    private boolean isOpen() {
+        return consecutiveFailures >= policy.failureThreshold();
+    }
+
+    /**
+     * Gives up the trial delivery of a half open circuit, letting the next caller through as the probe instead.
+     */
+    synchronized void cancelProbe() {
+        probing = false;
+    }
+
+    synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        probing = false;
+    }
+
+    synchronized void recordFailure(long nowNanos) {
+        consecutiveFailures++;
+        if (isOpen()) {
+            openUntilNanos = nowNanos + policy.openDuration().toNanos();
+            probing = false;
+        }
+    }
+
+    /**
+     * Queues {@code delivery}, unless the queue is full or this state has been evicted.
+     *
+     * @return true if the delivery was queued
+     */
+    synchronized boolean offer(Delivery delivery) {
+        if (retired || queuedMessages() >= policy.maxQueuedMessages()) {
+            return false;
+        }
+        if (queue == null) {
+            queue = new ArrayDeque<>(Math.min(policy.maxQueuedMessages(), MAX_INITIAL_QUEUE_CAPACITY));
+        }
+        return queue.add(delivery);
+    }
+
+    /**
+     * Removes the next queued delivery, releasing the queue once it is empty.
+     *
+     * @return the next delivery, or null if there is none
+     */
+    @CheckForNull
+    synchronized Delivery poll() {
+        if (queue == null) {
+            return null;
+        }
+        Delivery delivery = queue.poll();
+        if (queue.isEmpty()) {
+            queue = null;
+        }
+        return delivery;
+    }
+
+}
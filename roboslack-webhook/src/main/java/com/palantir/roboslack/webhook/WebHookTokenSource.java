@@ -0,0 +1,300 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.roboslack.webhook;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.palantir.roboslack.webhook.api.model.WebHookToken;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.CheckForNull;
+
+/**
+ * A set of named {@link WebHookToken}s read from a file, and reloaded whenever the file changes, so web hook URLs can
+ * be rotated without a restart. Each line of the file is either {@code name=T00000000/B00000000/XXXXXXXX} or a bare
+ * token, which is named by itself; blank lines and lines starting with {@code #} are ignored. Changes are picked up
+ * once the file has been quiet for {@value #QUIET_PERIOD_MILLIS}ms; replace the file with an atomic move to avoid
+ * a reload ever seeing it half written.
+ * <p>
+ * The current tokens are an immutable snapshot that a reload replaces with a single reference swap, so looking up a
+ * token never waits on a reload. A reload only parses and registers the entries that changed, reusing the existing
+ * {@link WebHookToken}s of all others, and leaves the {@link WebHookRegistry} state of unchanged tokens, along with
+ * any sends in flight, untouched. A file that fails to parse, or names an entry twice, is rejected as a whole before
+ * anything is registered, and the previous snapshot stays current. Tokens are only unregistered if this source
+ * registered them, so tokens registered by other code are left alone.
+ *
+ * @since 1.1.0
+ */
+public final class WebHookTokenSource implements Closeable {
+
+    private static final String COMMENT_PREFIX = "#";
+    private static final char NAME_SEPARATOR = '=';
+    private static final long QUIET_PERIOD_MILLIS = 100;
+
+    private final Path file;
+    private final WebHookRegistry registry;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+    @CheckForNull
+    private final WatchService watchService;
+    private final Set<String> registeredTokens = new HashSet<>();
+    private volatile Exception lastFailure;
+
+    private WebHookTokenSource(Path file, WebHookRegistry registry, @CheckForNull WatchService watchService) {
+        this.file = file;
+        this.registry = registry;
+        this.watchService = watchService;
+    }
+
+    /**
+     * Loads the tokens in {@code file}, registering them with {@code registry}, without watching it for changes.
+     *
+     * @param file the {@link Path} of the token file
+     * @param registry the {@link WebHookRegistry} to register tokens with
+     * @return the {@link WebHookTokenSource}
+     * @throws IOException if {@code file} cannot be read
+     * @throws IllegalArgumentException if an entry is not a valid token or a name appears twice
+     */
+    public static WebHookTokenSource load(Path file, WebHookRegistry registry) throws IOException {
+        WebHookTokenSource source = new WebHookTokenSource(checkNotNull(file, "File cannot be null"),
+                checkNotNull(registry, "WebHookRegistry cannot be null"), null);
+        source.reload();
+        return source;
+    }
+
+    /**
+     * Loads the tokens in {@code file}, registering them with {@code registry}, and reloads them whenever the file is
+     * modified or replaced.
+     *
+     * @param file the {@link Path} of the token file
+     * @param registry the {@link WebHookRegistry} to register tokens with
+     * @return the {@link WebHookTokenSource}, which must be closed to stop watching
+     * @throws IOException if {@code file} cannot be read or watched
+     * @throws IllegalArgumentException if an entry is not a valid token or a name appears twice
+     */
+    public static WebHookTokenSource watch(Path file, WebHookRegistry registry) throws IOException {
+        Path absoluteFile = checkNotNull(file, "File cannot be null").toAbsolutePath();
+        WatchService watchService = absoluteFile.getFileSystem().newWatchService();
+        WebHookTokenSource source = new WebHookTokenSource(absoluteFile,
+                checkNotNull(registry, "WebHookRegistry cannot be null"), watchService);
+        try {
+            // Watch before the initial load, so a change made while loading is not missed
+            absoluteFile.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            source.reload();
+        } catch (IOException | RuntimeException e) {
+            watchService.close();
+            throw e;
+        }
+        new ThreadFactoryBuilder()
+                .setNameFormat("roboslack-token-watcher-%d")
+                .setDaemon(true)
+                .build()
+                .newThread(source::watchLoop)
+                .start();
+        return source;
+    }
+
+    /**
+     * The current tokens, by name.
+     *
+     * @return an immutable snapshot of the tokens
+     */
+    public Map<String, WebHookToken> tokens() {
+        return snapshot.get().tokens;
+    }
+
+    /**
+     * Looks up the current token named {@code name}.
+     *
+     * @param name the token's name
+     * @return an {@link Optional} containing the {@link WebHookToken}
+     */
+    public Optional<WebHookToken> token(String name) {
+        return Optional.ofNullable(snapshot.get().tokens.get(checkNotNull(name, "Name cannot be null")));
+    }
+
+    /**
+     * The failure of the most recent reload triggered by a file change, if it failed.
+     *
+     * @return an {@link Optional} containing the failure
+     */
+    public Optional<Exception> lastFailure() {
+        return Optional.ofNullable(lastFailure);
+    }
+
+    /**
+     * Re-reads the file and publishes a new snapshot if any entry changed.
+     *
+     * @return the number of entries that were added, changed or removed
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if an entry is not a valid token or a name appears twice, in which case the
+     *         current snapshot and registrations are kept
+     */
+    public synchronized int reload() throws IOException {
+        Map<String, String> entries = readEntries();
+        Snapshot previous = snapshot.get();
+        Map<String, String> changedEntries = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            if (!entry.getValue().equals(previous.rawTokens.get(entry.getKey()))) {
+                WebHookToken.fromString(entry.getValue());
+                changedEntries.put(entry.getKey(), entry.getValue());
+            }
+        }
+        int changed = changedEntries.size();
+        Set<String> displaced = new HashSet<>();
+        for (Map.Entry<String, String> entry : previous.rawTokens.entrySet()) {
+            String rawToken = entries.get(entry.getKey());
+            if (rawToken == null) {
+                changed++;
+            }
+            if (!entry.getValue().equals(rawToken)) {
+                displaced.add(entry.getValue());
+            }
+        }
+        if (changed == 0) {
+            return 0;
+        }
+        ImmutableMap.Builder<String, WebHookToken> tokens = ImmutableMap.builder();
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            String rawToken = changedEntries.get(entry.getKey());
+            tokens.put(entry.getKey(), rawToken == null ? previous.tokens.get(entry.getKey()) : register(rawToken));
+        }
+        unregister(displaced, entries.values());
+        snapshot.set(new Snapshot(tokens.build(), ImmutableMap.copyOf(entries)));
+        return changed;
+    }
+
+    private WebHookToken register(String rawToken) {
+        if (!registry.token(rawToken).isPresent()) {
+            registeredTokens.add(rawToken);
+        }
+        return registry.register(rawToken);
+    }
+
+    /**
+     * Unregisters the {@code displaced} tokens that this source registered and that no {@code current} entry uses.
+     */
+    private void unregister(Set<String> displaced, Collection<String> current) {
+        displaced.retainAll(registeredTokens);
+        if (!displaced.isEmpty()) {
+            displaced.removeAll(new HashSet<>(current));
+        }
+        for (String rawToken : displaced) {
+            registry.unregister(rawToken);
+            registeredTokens.remove(rawToken);
+        }
+    }
+
+    private Map<String, String> readEntries() throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String entry = line.trim();
+                if (!entry.isEmpty() && !entry.startsWith(COMMENT_PREFIX)) {
+                    int separator = entry.indexOf(NAME_SEPARATOR);
+                    String name = separator < 0 ? entry : entry.substring(0, separator).trim();
+                    checkArgument(!entries.containsKey(name), "Duplicate token name: %s", name);
+                    entries.put(name, separator < 0 ? entry : entry.substring(separator + 1).trim());
+                }
+            }
+        }
+        return entries;
+    }
+
+    private void watchLoop() {
+        Path fileName = file.getFileName();
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                while (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        changed |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                                || fileName.equals(event.context());
+                    }
+                    key.reset();
+                    key = watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                if (changed) {
+                    reloadQuietly();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Closed, stop watching
+        }
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+            lastFailure = null;
+        } catch (IOException | RuntimeException e) {
+            lastFailure = e;
+        }
+    }
+
+    /**
+     * Stops watching the file. The current snapshot stays available.
+     *
+     * @throws IOException if the underlying {@link WatchService} fails to close
+     */
+    @Override
+    public void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private static final class Snapshot {
+
+        private static final Snapshot EMPTY = new Snapshot(ImmutableMap.of(), ImmutableMap.of());
+
+        private final Map<String, WebHookToken> tokens;
+        private final Map<String, String> rawTokens;
+
+        Snapshot(Map<String, WebHookToken> tokens, Map<String, String> rawTokens) {
+            this.tokens = tokens;
+            this.rawTokens = rawTokens;
+        }
+
+    }
+
+}
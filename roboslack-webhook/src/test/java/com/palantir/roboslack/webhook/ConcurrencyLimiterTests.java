@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.roboslack.webhook;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ConcurrencyLimiterTests {
+
+    private static final long RTT = 100;
+
+    private static void complete(ConcurrencyLimiter limiter, int requests, long start, long rtt, boolean overloaded)
+            throws InterruptedException {
+        for (int i = 0; i < requests; i++) {
+            limiter.acquire();
+        }
+        for (int i = 0; i < requests; i++) {
+            limiter.release(start, start + rtt, overloaded);
+        }
+    }
+
+    @Test
+    void testLimitsRequestsInFlight() throws Exception {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.create(1, 2, 4);
+        limiter.acquire();
+        limiter.acquire();
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            try {
+                limiter.acquire();
+                acquired.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+        assertThat(acquired.await(100, TimeUnit.MILLISECONDS), is(false));
+        assertThat(limiter.inFlight(), is(2));
+        limiter.cancel();
+        assertThat(acquired.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(limiter.inFlight(), is(2));
+        assertThat(limiter.limit(), is(2));
+    }
+
+    @Test
+    void testGrowsAdditivelyWhileSaturated() throws InterruptedException {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.create(1, 4, 6);
+        complete(limiter, 4, 0, RTT, false);
+        assertThat(limiter.limit(), is(4));
+        complete(limiter, 4, 0, RTT, false);
+        assertThat(limiter.limit(), is(5));
+        for (int i = 0; i < 20; i++) {
+            complete(limiter, limiter.limit(), 0, RTT, false);
+        }
+        assertThat(limiter.limit(), is(6));
+    }
+
+    @Test
+    void testDoesNotGrowWhileIdle() throws InterruptedException {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.create(1, 4, 10);
+        for (int i = 0; i < 100; i++) {
+            complete(limiter, 1, 0, RTT, false);
+        }
+        assertThat(limiter.limit(), is(4));
+    }
+
+    @Test
+    void testBacksOffOncePerWindow() throws InterruptedException {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.create(2, 16, 16);
+        complete(limiter, 8, 0, RTT, true);
+        assertThat(limiter.limit(), is(12));
+        complete(limiter, 8, RTT + 1, RTT, true);
+        assertThat(limiter.limit(), is(9));
+        for (int i = 2; i < 10; i++) {
+            complete(limiter, 1, i * 10 * RTT, RTT, true);
+        }
+        assertThat(limiter.limit(), is(2));
+    }
+
+    @Test
+    void testBacksOffWhenLatencyRises() throws InterruptedException {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.create(1, 8, 8);
+        complete(limiter, 1, 0, RTT, false);
+        complete(limiter, 1, RTT, RTT * 3, false);
+        assertThat(limiter.limit(), is(6));
+    }
+
+    @Test
+    void testInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> ConcurrencyLimiter.create(0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> ConcurrencyLimiter.create(2, 2, 1));
+        assertThrows(IllegalArgumentException.class, () -> ConcurrencyLimiter.create(1, 3, 2));
+    }
+
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.roboslack.webhook;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.base.Ticker;
+import com.palantir.roboslack.api.MessageRequest;
+import com.palantir.roboslack.webhook.api.model.WebHookToken;
+import com.palantir.roboslack.webhook.api.model.response.ResponseCode;
+import com.palantir.roboslack.webhook.api.model.response.WebHookResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import retrofit2.Response;
+
+class DeliveryEngineTests {
+
+    private static final String NOISY = "T00000000/B00000000/XXXXXXXXXXXXXXXXXXXXXXXX";
+    private static final String QUIET = "T11111111/B11111111/YYYYYYYYYYYYYYYYYYYYYYYY";
+    private static final MessageRequest MESSAGE = MessageRequest.builder()
+            .username("robo-slack")
+            .text("Engine test")
+            .build();
+    private static final DeliveryPolicy UNLIMITED = DeliveryPolicy.builder()
+            .permitsPerSecond(1_000_000)
+            .burst(1_000)
+            .maxQueuedMessages(1_000)
+            .build();
+
+    private FakeWebHook webHook;
+    private DeliveryEngine engine;
+
+    @BeforeEach
+    void before() {
+        webHook = new FakeWebHook();
+    }
+
+    @AfterEach
+    void after() {
+        if (engine != null) {
+            engine.close();
+        }
+    }
+
+    private static WebHookResponse get(CompletableFuture<WebHookResponse> result) throws Exception {
+        return result.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testQuietTokenIsNotStarvedByNoisyToken() throws Exception {
+        WebHookRegistry registry = new WebHookRegistry(webHook, UNLIMITED, Ticker.systemTicker());
+        WebHookToken noisy = registry.register(NOISY);
+        WebHookToken quiet = registry.register(QUIET);
+        CountDownLatch firstSend = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        webHook.respondWith(path -> {
+            firstSend.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Response.success(ResponseCode.OK);
+        });
+        engine = DeliveryEngine.start(registry, 1);
+
+        List<CompletableFuture<WebHookResponse>> noisyResults = new ArrayList<>();
+        noisyResults.add(engine.submit(noisy, MESSAGE));
+        assertTrue(firstSend.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 100; i++) {
+            noisyResults.add(engine.submit(noisy, MESSAGE));
+        }
+        CompletableFuture<WebHookResponse> quietResult = engine.submit(quiet, MESSAGE);
+        release.countDown();
+
+        assertThat(get(quietResult).isOk(), is(true));
+        for (CompletableFuture<WebHookResponse> result : noisyResults) {
+            assertThat(get(result).isOk(), is(true));
+        }
+        assertThat(webHook.sent().indexOf(QUIET), is(lessThanOrEqualTo(3)));
+        assertThat(webHook.sent().size(), is(102));
+    }
+
+    @Test
+    void testRateLimitIsRespected() throws Exception {
+        DeliveryPolicy policy = DeliveryPolicy.builder().permitsPerSecond(20).burst(1).build();
+        WebHookRegistry registry = new WebHookRegistry(webHook, policy, Ticker.systemTicker());
+        WebHookToken token = registry.register(NOISY);
+        engine = DeliveryEngine.start(registry, 4);
+
+        long start = System.nanoTime();
+        List<CompletableFuture<WebHookResponse>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(engine.submit(token, MESSAGE));
+        }
+        for (CompletableFuture<WebHookResponse> result : results) {
+            get(result);
+        }
+        // The first message uses the burst permit, the other four wait 50ms each
+        assertThat(System.nanoTime() - start, is(greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(190))));
+    }
+
+    @Test
+    void testServerErrorsCutConcurrencyLimit() throws Exception {
+        DeliveryPolicy policy = DeliveryPolicy.builder()
+                .permitsPerSecond(1_000_000)
+                .burst(1_000)
+                .failureThreshold(1_000)
+                .build();
+        WebHookRegistry registry = new WebHookRegistry(webHook, policy, Ticker.systemTicker());
+        WebHookToken token = registry.register(NOISY);
+        webHook.respondWith(path -> FakeWebHook.error(503, "service_unavailable"));
+        engine = DeliveryEngine.start(registry, 8);
+        assertThat(engine.limiter().limit(), is(8));
+
+        get(engine.submit(token, MESSAGE));
+        assertThat(engine.limiter().limit(), is(6));
+        for (int i = 0; i < 20; i++) {
+            get(engine.submit(token, MESSAGE));
+        }
+        assertThat(engine.limiter().limit(), is(1));
+        // The dispatcher may already hold a slot while it waits for the next message
+        assertThat(engine.limiter().inFlight(), is(lessThanOrEqualTo(1)));
+    }
+
+    @Test
+    void testRateLimitingDoesNotCutConcurrencyLimit() throws Exception {
+        DeliveryPolicy policy = DeliveryPolicy.builder()
+                .permitsPerSecond(1_000_000)
+                .burst(1_000)
+                .failureThreshold(1_000)
+                .build();
+        // A ticker that stands still keeps round trip times from cutting the limit
+        WebHookRegistry registry = new WebHookRegistry(webHook, policy, new FakeWebHook.FakeTicker());
+        WebHookToken token = registry.register(NOISY);
+        webHook.respondWith(path -> FakeWebHook.error(429, "rate_limited"));
+        engine = DeliveryEngine.start(registry, 8);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(get(engine.submit(token, MESSAGE)).responseCode(), is(ResponseCode.RATE_LIMITED));
+        }
+        assertThat(engine.limiter().limit(), is(8));
+    }
+
+    @Test
+    void testFullQueueAndClosedEngineFail() {
+        DeliveryPolicy policy = DeliveryPolicy.builder().permitsPerSecond(0.001).burst(1).maxQueuedMessages(1).build();
+        WebHookRegistry registry = new WebHookRegistry(webHook, policy, Ticker.systemTicker());
+        WebHookToken token = registry.register(NOISY);
+        engine = DeliveryEngine.start(registry, 1);
+
+        engine.submit(token, MESSAGE);
+        // Wait for the first message to be taken off the queue, using up the only permit
+        Awaitility.await().atMost(10, TimeUnit.SECONDS).until(() ->
+                registry.state(token).queuedMessages() == 0 && !webHook.sent().isEmpty());
+        CompletableFuture<WebHookResponse> queued = engine.submit(token, MESSAGE);
+        CompletableFuture<WebHookResponse> rejected = engine.submit(token, MESSAGE);
+        assertThrows(ExecutionException.class, () -> get(rejected));
+
+        engine.close();
+        assertThrows(ExecutionException.class, () -> get(queued));
+        assertThrows(ExecutionException.class, () -> get(engine.submit(token, MESSAGE)));
+    }
+
+}
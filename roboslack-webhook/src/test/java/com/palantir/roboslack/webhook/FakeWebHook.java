@@ -0,0 +1,159 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.roboslack.webhook;
+
+import com.google.common.base.Ticker;
+import com.palantir.roboslack.api.MessageRequest;
+import com.palantir.roboslack.webhook.api.SlackWebHook;
+import com.palantir.roboslack.webhook.api.model.response.ResponseCode;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import javax.annotation.ParametersAreNonnullByDefault;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * An in-memory {@link SlackWebHook} that records each message it is sent and answers with a configurable response,
+ * along with a manually advanced {@link Ticker}.
+ */
+final class FakeWebHook implements SlackWebHook {
+
+    private static final MediaType TEXT_PLAIN = MediaType.parse("text/plain");
+
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private volatile Function<String, Response<ResponseCode>> responder = path -> Response.success(ResponseCode.OK);
+
+    static Response<ResponseCode> error(int httpStatus, String body, String... headers) {
+        okhttp3.Response.Builder raw = new okhttp3.Response.Builder()
+                .code(httpStatus)
+                .message("error")
+                .protocol(Protocol.HTTP_1_1)
+                .request(new Request.Builder().url("http://localhost/").build());
+        for (int i = 0; i + 1 < headers.length; i += 2) {
+            raw.addHeader(headers[i], headers[i + 1]);
+        }
+        return Response.error(ResponseBody.create(TEXT_PLAIN, body), raw.build());
+    }
+
+    /**
+     * The token paths, 'T/B/X', of the messages sent so far, in order.
+     */
+    List<String> sent() {
+        return sent;
+    }
+
+    void respondWith(Function<String, Response<ResponseCode>> newResponder) {
+        this.responder = newResponder;
+    }
+
+    @Override
+    public Call<ResponseCode> sendMessage(String tokenTPart, String tokenBPart, String tokenXPart,
+            MessageRequest messageRequest) {
+        return new FakeCall(tokenTPart + "/" + tokenBPart + "/" + tokenXPart);
+    }
+
+    @Override
+    public Call<ResponseCode> sendSerializedMessage(String tokenTPart, String tokenBPart, String tokenXPart,
+            RequestBody serializedMessage) {
+        return new FakeCall(tokenTPart + "/" + tokenBPart + "/" + tokenXPart);
+    }
+
+    static final class FakeTicker extends Ticker {
+
+        private final AtomicLong nanos = new AtomicLong();
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+
+        void advance(long duration, TimeUnit unit) {
+            nanos.addAndGet(unit.toNanos(duration));
+        }
+
+    }
+
+    private final class FakeCall implements Call<ResponseCode> {
+
+        private final String path;
+        private volatile boolean executed;
+        private volatile boolean canceled;
+
+        FakeCall(String path) {
+            this.path = path;
+        }
+
+        @Override
+        public Response<ResponseCode> execute() throws IOException {
+            executed = true;
+            sent.add(path);
+            return responder.apply(path);
+        }
+
+        @Override
+        @ParametersAreNonnullByDefault
+        public void enqueue(Callback<ResponseCode> callback) {
+            Response<ResponseCode> response;
+            try {
+                response = execute();
+            } catch (IOException | RuntimeException e) {
+                callback.onFailure(this, e);
+                return;
+            }
+            callback.onResponse(this, response);
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return executed;
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        @Override
+        @SuppressWarnings({"checkstyle:NoClone", "checkstyle:SuperClone"})
+        public Call<ResponseCode> clone() {
+            return new FakeCall(path);
+        }
+
+        @Override
+        public Request request() {
+            return new Request.Builder().url("http://localhost/" + path).build();
+        }
+
+    }
+
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.roboslack.webhook;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.palantir.roboslack.api.MessageRequest;
+import com.palantir.roboslack.webhook.api.model.WebHookToken;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RateLimitStoreTests {
+
+    private static final String TOKEN = "T00000000/B00000000/XXXXXXXXXXXXXXXXXXXXXXXX";
+    private static final DeliveryPolicy POLICY = DeliveryPolicy.builder()
+            .permitsPerSecond(1)
+            .burst(4)
+            .leaseSize(2)
+            .build();
+    private static final Instant NOW = Instant.parse("2017-06-01T12:00:00Z");
+
+    private Path directory;
+
+    @BeforeEach
+    void before() throws IOException {
+        directory = Files.createTempDirectory("buckets");
+    }
+
+    @AfterEach
+    void after() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private static FileRateLimitStore fileStore(Path directory, Instant now) {
+        return new FileRateLimitStore(directory, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static WebHookRegistry registry(DeliveryPolicy policy, RateLimitStore store, Ticker ticker) {
+        return new WebHookRegistry(new FakeWebHook(), policy, Optional.of(store), MoreExecutors.directExecutor(),
+                ticker);
+    }
+
+    @Test
+    void testRegistriesShareBudgetInBatches() {
+        FakeWebHook.FakeTicker ticker = new FakeWebHook.FakeTicker();
+        InMemoryRateLimitStore shared = new InMemoryRateLimitStore(ticker);
+        List<String> leases = new ArrayList<>();
+        RateLimitStore store = (key, requested, policy) -> {
+            leases.add(key);
+            return shared.lease(key, requested, policy);
+        };
+        WebHookRegistry first = registry(POLICY, store, ticker);
+        WebHookRegistry second = registry(POLICY, store, ticker);
+        WebHookState firstState = first.state(first.register(TOKEN));
+        WebHookState secondState = second.state(second.register(TOKEN));
+
+        long now = ticker.read();
+        assertThat(firstState.tryAcquirePermit(now), is(0L));
+        assertThat(secondState.tryAcquirePermit(now), is(0L));
+        assertThat(leases, contains("T00000000/B00000000", "T00000000/B00000000"));
+        // Spending half a batch leases the next one ahead of time, which comes up empty
+        assertThat(firstState.tryAcquirePermit(now), is(0L));
+        assertThat(secondState.tryAcquirePermit(now), is(0L));
+        assertThat(leases.size(), is(4));
+        assertThat(firstState.tryAcquirePermit(now), is(TimeUnit.SECONDS.toNanos(1)));
+        assertThat(leases.size(), is(4));
+
+        ticker.advance(2, TimeUnit.SECONDS);
+        assertThat(firstState.tryAcquirePermit(ticker.read()), is(0L));
+        assertThat(firstState.tryAcquirePermit(ticker.read()), is(0L));
+        assertThat(secondState.tryAcquirePermit(ticker.read()), is(greaterThan(0L)));
+    }
+
+    @Test
+    void testEmptyLeasesBackOff() {
+        FakeWebHook.FakeTicker ticker = new FakeWebHook.FakeTicker();
+        AtomicInteger leases = new AtomicInteger();
+        RateLimitStore store = (key, requested, policy) -> {
+            leases.incrementAndGet();
+            return 0;
+        };
+        WebHookState state = registry(POLICY, store, ticker).state(WebHookToken.fromString(TOKEN));
+        assertThat(state.tryAcquirePermit(ticker.read()), is(TimeUnit.SECONDS.toNanos(1)));
+        ticker.advance(1, TimeUnit.SECONDS);
+        assertThat(state.tryAcquirePermit(ticker.read()), is(TimeUnit.SECONDS.toNanos(2)));
+        ticker.advance(2, TimeUnit.SECONDS);
+        assertThat(state.tryAcquirePermit(ticker.read()), is(TimeUnit.SECONDS.toNanos(POLICY.burst())));
+        ticker.advance(POLICY.burst(), TimeUnit.SECONDS);
+        assertThat(state.tryAcquirePermit(ticker.read()), is(TimeUnit.SECONDS.toNanos(POLICY.burst())));
+        assertThat(leases.get(), is(4));
+    }
+
+    @Test
+    void testLeasedPermitsExpire() {
+        FakeWebHook.FakeTicker ticker = new FakeWebHook.FakeTicker();
+        AtomicInteger leases = new AtomicInteger();
+        RateLimitStore store = (key, requested, policy) -> {
+            leases.incrementAndGet();
+            return requested;
+        };
+        WebHookState state = registry(POLICY, store, ticker).state(WebHookToken.fromString(TOKEN));
+        assertThat(state.tryAcquirePermit(ticker.read()), is(0L));
+        ticker.advance(POLICY.burst(), TimeUnit.SECONDS);
+        assertThat(state.tryAcquirePermit(ticker.read()), is(0L));
+        assertThat(leases.get(), is(2));
+    }
+
+    @Test
+    void testLeasesWithoutBlockingSenders() throws Exception {
+        CountDownLatch storeReached = new CountDownLatch(1);
+        CountDownLatch storeReleased = new CountDownLatch(1);
+        RateLimitStore store = (key, requested, policy) -> {
+            storeReached.countDown();
+            try {
+                storeReleased.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return requested;
+        };
+        WebHookRegistry registry = new WebHookRegistry(new FakeWebHook(), POLICY, Optional.of(store),
+                Ticker.systemTicker());
+        WebHookState state = registry.state(registry.register(TOKEN));
+        assertThat(state.tryAcquirePermit(System.nanoTime()), is(greaterThan(0L)));
+        assertThat(storeReached.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(state.tryAcquirePermit(System.nanoTime()), is(greaterThan(0L)));
+
+        storeReleased.countDown();
+        Awaitility.await().atMost(10, TimeUnit.SECONDS).until(() -> state.tryAcquirePermit(System.nanoTime()) == 0L);
+    }
+
+    @Test
+    void testFailingStoreFailsSendsAfterThreshold() {
+        FakeWebHook.FakeTicker ticker = new FakeWebHook.FakeTicker();
+        IllegalStateException unavailable = new IllegalStateException("Store unavailable");
+        RateLimitStore store = (key, requested, policy) -> {
+            throw unavailable;
+        };
+        DeliveryPolicy policy = DeliveryPolicy.builder().permitsPerSecond(1).burst(4).failureThreshold(2).build();
+        WebHookRegistry registry = registry(policy, store, ticker);
+        WebHookToken token = registry.register(TOKEN);
+        MessageRequest message = MessageRequest.builder().username("roboslack").text("Hello").build();
+        WebHookState state = registry.state(token);
+        assertThat(state.tryAcquirePermit(ticker.read()), is(greaterThan(0L)));
+        assertThat(state.leaseFailure(), is(Optional.empty()));
+
+        ticker.advance(1, TimeUnit.SECONDS);
+        assertThat(state.tryAcquirePermit(ticker.read()), is(greaterThan(0L)));
+        assertThat(state.leaseFailure(), is(Optional.of(unavailable)));
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> registry.sendMessage(token, message));
+        assertThat(thrown.getCause(), is(sameInstance(unavailable)));
+    }
+
+    @Test
+    void testRetryAfterDefersEveryRegistrySharingTheStore() {
+        FakeWebHook.FakeTicker ticker = new FakeWebHook.FakeTicker();
+        InMemoryRateLimitStore store = new InMemoryRateLimitStore(ticker);
+        FakeWebHook rateLimited = new FakeWebHook();
+        rateLimited.respondWith(path -> FakeWebHook.error(429, "rate_limited", "Retry-After", "5"));
+        WebHookRegistry first = new WebHookRegistry(rateLimited, POLICY, Optional.of(store),
+                MoreExecutors.directExecutor(), ticker);
+        WebHookRegistry second = registry(POLICY, store, ticker);
+        MessageRequest message = MessageRequest.builder().username("roboslack").text("Hello").build();
+        first.sendMessage(first.register(TOKEN), message);
+
+        // Half of the burst is still in the store, but the Retry-After emptied it for everyone
+        WebHookState secondState = second.state(second.register(TOKEN));
+        assertThat(secondState.tryAcquirePermit(ticker.read()), is(greaterThan(0L)));
+        ticker.advance(4, TimeUnit.SECONDS);
+        assertThat(secondState.tryAcquirePermit(ticker.read()), is(greaterThan(0L)));
+        ticker.advance(2, TimeUnit.SECONDS);
+        assertThat(secondState.tryAcquirePermit(ticker.read()), is(0L));
+    }
+
+    @Test
+    void testFileStoreDefersBudget() {
+        String key = WebHookToken.fromString(TOKEN).partT() + "/" + WebHookToken.fromString(TOKEN).partB();
+        fileStore(directory, NOW).defer(key, Duration.ofSeconds(5), POLICY);
+        assertThat(fileStore(directory, NOW).lease(key, 3, POLICY), is(0));
+        assertThat(fileStore(directory, NOW.plusSeconds(4)).lease(key, 3, POLICY), is(0));
+        assertThat(fileStore(directory, NOW.plusSeconds(7)).lease(key, 3, POLICY), is(2));
+    }
+
+    @Test
+    void testFileStoreSharesBudgetBetweenInstances() {
+        String key = WebHookToken.fromString(TOKEN).partT() + "/" + WebHookToken.fromString(TOKEN).partB();
+        assertThat(fileStore(directory, NOW).lease(key, 3, POLICY), is(3));
+        assertThat(fileStore(directory, NOW).lease(key, 3, POLICY), is(1));
+        assertThat(fileStore(directory, NOW).lease(key, 3, POLICY), is(0));
+        assertThat(fileStore(directory, NOW.plusSeconds(2)).lease(key, 3, POLICY), is(2));
+        assertThat(fileStore(directory, NOW.plusSeconds(60)).lease(key, 8, POLICY), is(4));
+    }
+
+    @Test
+    void testFileStoreIsSafeAcrossThreads() throws Exception {
+        FileRateLimitStore store = fileStore(directory, NOW);
+        DeliveryPolicy policy = DeliveryPolicy.builder().permitsPerSecond(1).burst(50).build();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> granted = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                granted.add(executor.submit(() -> fileStore(directory, NOW).lease("T1/B1", 1, policy)
+                        + store.lease("T1/B1", 1, policy)));
+            }
+            int total = 0;
+            for (Future<Integer> result : granted) {
+                total += result.get(10, TimeUnit.SECONDS);
+            }
+            assertThat(total, is(50));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
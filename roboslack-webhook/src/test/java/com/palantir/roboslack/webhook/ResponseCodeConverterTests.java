@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.roboslack.webhook;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.base.Strings;
+import com.palantir.roboslack.webhook.api.model.response.ResponseCode;
+import com.palantir.roboslack.webhook.api.model.response.WebHookResponse;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.time.Duration;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import retrofit2.Converter;
+import retrofit2.Response;
+
+class ResponseCodeConverterTests {
+
+    private static final MediaType TEXT_PLAIN = MediaType.parse("text/plain");
+
+    @SuppressWarnings("unchecked")
+    private static final Converter<ResponseBody, ResponseCode> CONVERTER =
+            (Converter<ResponseBody, ResponseCode>) ResponseCodeConverter.factory()
+                    .responseBodyConverter(ResponseCode.class, new Annotation[0], null);
+
+    private static ResponseCode convert(String body) throws IOException {
+        return CONVERTER.convert(ResponseBody.create(TEXT_PLAIN, body));
+    }
+
+    private static Response<ResponseCode> errorResponse(int status, String body, String retryAfter) {
+        okhttp3.Response.Builder raw = new okhttp3.Response.Builder()
+                .code(status)
+                .message("error")
+                .protocol(Protocol.HTTP_1_1)
+                .request(new Request.Builder().url("https://hooks.slack.com/services/").build());
+        if (retryAfter != null) {
+            raw.header("Retry-After", retryAfter);
+        }
+        return Response.error(ResponseBody.create(TEXT_PLAIN, body), raw.build());
+    }
+
+    @ParameterizedTest
+    @EnumSource(ResponseCode.class)
+    void testConvertsEveryCode(ResponseCode code) throws IOException {
+        assertThat(convert(code.toString()), is(equalTo(code)));
+        assertThat(convert(code.toString().toUpperCase()), is(equalTo(code)));
+        assertThat(convert(" " + code.toString() + "\n"), is(equalTo(code)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "   ",
+            "invalid_payload",
+            "ok_",
+            "o",
+            "<html>Service Unavailable</html>"})
+    void testUnknownBodies(String body) throws IOException {
+        assertThat(convert(body), is(equalTo(ResponseCode.UNKNOWN)));
+    }
+
+    @Test
+    void testOversizedBody() throws IOException {
+        assertThat(convert(Strings.repeat("ok", 10_000)), is(equalTo(ResponseCode.UNKNOWN)));
+    }
+
+    @Test
+    void testErrorBodyResponse() throws IOException {
+        WebHookResponse response = ResponseCodeConverter.toWebHookResponse(
+                errorResponse(404, "channel_not_found", null));
+        assertThat(response.responseCode(), is(equalTo(ResponseCode.CHANNEL_NOT_FOUND)));
+        assertThat(response.httpStatus(), is(equalTo(404)));
+        assertFalse(response.retryAfter().isPresent());
+        assertFalse(response.isOk());
+    }
+
+    @Test
+    void testRateLimitedResponse() throws IOException {
+        WebHookResponse response = ResponseCodeConverter.toWebHookResponse(
+                errorResponse(429, "", "30"));
+        assertThat(response.responseCode(), is(equalTo(ResponseCode.RATE_LIMITED)));
+        assertThat(response.retryAfter().get(), is(equalTo(Duration.ofSeconds(30))));
+    }
+
+    @Test
+    void testSuccessfulResponse() throws IOException {
+        WebHookResponse response = ResponseCodeConverter.toWebHookResponse(Response.success(ResponseCode.OK));
+        assertThat(response.responseCode(), is(equalTo(ResponseCode.OK)));
+        assertThat(response.httpStatus(), is(equalTo(200)));
+        assertTrue(response.isOk());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "soon",
+            "1234567890123456789012"})
+    void testInvalidRetryAfter(String value) {
+        assertFalse(ResponseCodeConverter.parseRetryAfter(value).isPresent());
+    }
+
+    @Test
+    void testRetryAfterDate() {
+        assertThat(ResponseCodeConverter.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT").get(),
+                is(equalTo(Duration.ZERO)));
+    }
+
+}
@@ -18,6 +18,7 @@ package com.palantir.roboslack.webhook;
 
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -47,11 +48,14 @@ import java.time.OffsetDateTime;
 import java.time.OffsetTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInfo;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -64,6 +68,12 @@ import retrofit2.Response;
 
 class SlackWebHookServiceTests {
 
+    private static final String TOKEN = "T00000000/B00000000/XXXXXXXXXXXXXXXXXXXXXXXX";
+    private static final MessageRequest MESSAGE = MessageRequest.builder()
+            .username("robo-slack")
+            .text("Limited")
+            .build();
+
     private static WebHookToken assumingEnvironmentWebHookToken() {
         try {
             return WebHookToken.fromEnvironment();
@@ -107,6 +117,45 @@ class SlackWebHookServiceTests {
         Awaitility.await().atMost(5, TimeUnit.SECONDS).untilTrue(submitted);
     }
 
+    @Test
+    void testAsyncSendsReleaseTheirSlotBeforeTheCallback() {
+        FakeWebHook webHook = new FakeWebHook();
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.create(1, 4, 4);
+        SlackWebHookService service = new SlackWebHookService(WebHookToken.fromString(TOKEN), webHook, limiter,
+                new FakeWebHook.FakeTicker());
+        webHook.respondWith(path -> FakeWebHook.error(503, "service unavailable"));
+        List<Integer> inFlight = new ArrayList<>();
+        service.sendMessageAsync(MESSAGE, new Callback<ResponseCode>() {
+            @Override
+            @ParametersAreNonnullByDefault
+            public void onResponse(Call<ResponseCode> call, Response<ResponseCode> response) {
+                inFlight.add(limiter.inFlight());
+            }
+
+            @Override
+            @ParametersAreNonnullByDefault
+            public void onFailure(Call<ResponseCode> call, Throwable throwable) {
+                fail(throwable);
+            }
+        });
+        assertThat(inFlight, contains(0));
+        assertThat(limiter.limit(), is(3));
+    }
+
+    @Test
+    void testSyncSendsAreLimited() {
+        FakeWebHook webHook = new FakeWebHook();
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.create(1, 4, 4);
+        SlackWebHookService service = new SlackWebHookService(WebHookToken.fromString(TOKEN), webHook, limiter,
+                new FakeWebHook.FakeTicker());
+        assertThat(service.sendMessage(MESSAGE), is(equalTo(ResponseCode.OK)));
+        assertThat(limiter.limit(), is(4));
+        webHook.respondWith(path -> FakeWebHook.error(500, "internal error"));
+        service.sendMessageForResponse(MESSAGE);
+        assertThat(limiter.limit(), is(3));
+        assertThat(limiter.inFlight(), is(0));
+    }
+
     static class MessageRequestProvider implements ArgumentsProvider {
 
         private static final MessageRequest MESSAGE_SIMPLE = MessageRequest.builder()
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.roboslack.webhook;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.palantir.roboslack.api.MessageRequest;
+import com.palantir.roboslack.webhook.api.model.WebHookToken;
+import com.palantir.roboslack.webhook.api.model.response.ResponseCode;
+import com.palantir.roboslack.webhook.api.model.response.WebHookResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import retrofit2.Response;
+
+class WebHookRegistryTests {
+
+    private static final String TOKEN_A = "T00000000/B00000000/XXXXXXXXXXXXXXXXXXXXXXXX";
+    private static final String TOKEN_B = "T11111111/B11111111/YYYYYYYYYYYYYYYYYYYYYYYY";
+    private static final MessageRequest MESSAGE = MessageRequest.builder()
+            .username("robo-slack")
+            .text("Registry test")
+            .build();
+
+    private FakeWebHook webHook;
+    private FakeWebHook.FakeTicker ticker;
+
+    @BeforeEach
+    void before() {
+        webHook = new FakeWebHook();
+        ticker = new FakeWebHook.FakeTicker();
+    }
+
+    private WebHookRegistry registry(DeliveryPolicy policy) {
+        return new WebHookRegistry(webHook, policy, ticker);
+    }
+
+    @Test
+    void testRegisterParsesOnce() throws IOException {
+        WebHookRegistry registry = registry(DeliveryPolicy.defaults());
+        WebHookToken token = registry.register(TOKEN_A);
+        assertThat(registry.register(TOKEN_A), is(sameInstance(token)));
+        assertThat(registry.token(TOKEN_A), is(equalTo(Optional.of(token))));
+        assertThat(registry.token(TOKEN_B), is(equalTo(Optional.empty())));
+        assertThrows(IllegalArgumentException.class, () -> registry.register("not a token"));
+
+        Path file = Files.createTempFile("tokens", ".txt");
+        try {
+            Files.write(file, Arrays.asList("# team tokens", TOKEN_B, "", "  " + TOKEN_A + "  "),
+                    StandardCharsets.UTF_8);
+            assertThat(registry.registerAll(file), contains(WebHookToken.fromString(TOKEN_B), token));
+        } finally {
+            Files.delete(file);
+        }
+        assertThat(registry.tokens().size(), is(2));
+    }
+
+    @Test
+    void testStateIsCreatedLazilyAndEvictedWhenIdle() {
+        WebHookRegistry registry = registry(DeliveryPolicy.builder().idleTimeout(Duration.ofMinutes(1)).build());
+        WebHookToken idle = registry.register(TOKEN_A);
+        WebHookToken busy = registry.register(TOKEN_B);
+        assertThat(registry.activeStates(), is(0));
+        WebHookState state = registry.state(idle);
+        assertThat(registry.state(idle), is(sameInstance(state)));
+        registry.enqueue(busy, new Delivery(MESSAGE));
+        assertThat(registry.activeStates(), is(2));
+
+        ticker.advance(59, TimeUnit.SECONDS);
+        assertThat(registry.evictIdle(), is(0));
+        ticker.advance(1, TimeUnit.SECONDS);
+        assertThat(registry.evictIdle(), is(1));
+        assertThat(registry.activeStates(), is(1));
+        assertThat(registry.state(busy).queuedMessages(), is(1));
+        assertThat(registry.state(idle), is(not(sameInstance(state))));
+    }
+
+    @Test
+    void testIdleStatesAreSweptAsTokensAreUsed() {
+        WebHookRegistry registry = registry(DeliveryPolicy.builder().idleTimeout(Duration.ofMinutes(1)).build());
+        registry.state(registry.register(TOKEN_A));
+        ticker.advance(2, TimeUnit.MINUTES);
+        registry.state(registry.register(TOKEN_B));
+        assertThat(registry.activeStates(), is(1));
+    }
+
+    @Test
+    void testRateLimiter() {
+        WebHookState state = registry(DeliveryPolicy.builder().permitsPerSecond(2).burst(2).build())
+                .state(WebHookToken.fromString(TOKEN_A));
+        assertThat(state.tryAcquirePermit(ticker.read()), is(0L));
+        assertThat(state.tryAcquirePermit(ticker.read()), is(0L));
+        assertThat(state.tryAcquirePermit(ticker.read()), is(TimeUnit.MILLISECONDS.toNanos(500)));
+        ticker.advance(500, TimeUnit.MILLISECONDS);
+        assertThat(state.tryAcquirePermit(ticker.read()), is(0L));
+
+        state.deferUntil(ticker.read(), ticker.read() + TimeUnit.SECONDS.toNanos(3));
+        ticker.advance(1, TimeUnit.SECONDS);
+        assertThat(state.tryAcquirePermit(ticker.read()), is(TimeUnit.MILLISECONDS.toNanos(2500)));
+    }
+
+    @Test
+    void testSendsThroughSharedTransport() {
+        WebHookRegistry registry = registry(DeliveryPolicy.defaults());
+        assertThat(registry.sendMessage(registry.register(TOKEN_A), MESSAGE).isOk(), is(true));
+        assertThat(registry.sendMessage(registry.register(TOKEN_B), MESSAGE).isOk(), is(true));
+        assertThat(webHook.sent(), contains(TOKEN_A, TOKEN_B));
+    }
+
+    @Test
+    void testCircuitOpensAfterRepeatedFailures() {
+        WebHookRegistry registry = registry(DeliveryPolicy.builder()
+                .failureThreshold(2)
+                .openDuration(Duration.ofSeconds(30))
+                .permitsPerSecond(1000)
+                .build());
+        WebHookToken token = registry.register(TOKEN_A);
+        webHook.respondWith(path -> FakeWebHook.error(503, "unavailable"));
+        registry.sendMessage(token, MESSAGE);
+        registry.sendMessage(token, MESSAGE);
+        assertThat(registry.state(token).consecutiveFailures(), is(2));
+        assertThrows(IllegalStateException.class, () -> registry.sendMessage(token, MESSAGE));
+        assertThat(webHook.sent().size(), is(2));
+
+        ticker.advance(30, TimeUnit.SECONDS);
+        webHook.respondWith(path -> Response.success(ResponseCode.OK));
+        registry.sendMessage(token, MESSAGE);
+        assertThat(registry.state(token).consecutiveFailures(), is(0));
+    }
+
+    @Test
+    void testHalfOpenCircuitLetsOneConcurrentProbeThrough() throws Exception {
+        WebHookRegistry registry = registry(DeliveryPolicy.builder()
+                .failureThreshold(2)
+                .openDuration(Duration.ofSeconds(30))
+                .permitsPerSecond(1000)
+                .build());
+        WebHookToken token = registry.register(TOKEN_A);
+        webHook.respondWith(path -> FakeWebHook.error(503, "unavailable"));
+        registry.sendMessage(token, MESSAGE);
+        registry.sendMessage(token, MESSAGE);
+        ticker.advance(30, TimeUnit.SECONDS);
+
+        CountDownLatch probeAnswered = new CountDownLatch(1);
+        webHook.respondWith(path -> {
+            Uninterruptibles.awaitUninterruptibly(probeAnswered);
+            return Response.success(ResponseCode.OK);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<WebHookResponse>> sends = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                sends.add(executor.submit(() -> registry.sendMessage(token, MESSAGE)));
+            }
+            Awaitility.await().atMost(10, TimeUnit.SECONDS)
+                    .until(() -> sends.stream().filter(Future::isDone).count() == 7);
+            Future<WebHookResponse> probe = null;
+            for (Future<WebHookResponse> send : sends) {
+                if (send.isDone()) {
+                    ExecutionException thrown = assertThrows(ExecutionException.class, send::get);
+                    assertThat(thrown.getCause().getMessage(), containsString("Circuit open"));
+                } else {
+                    probe = send;
+                }
+            }
+            Awaitility.await().atMost(10, TimeUnit.SECONDS).until(() -> webHook.sent().size() == 3);
+
+            probeAnswered.countDown();
+            assertThat(probe.get(10, TimeUnit.SECONDS).responseCode(), is(ResponseCode.OK));
+            assertThat(registry.state(token).consecutiveFailures(), is(0));
+            assertThat(registry.sendMessage(token, MESSAGE).responseCode(), is(ResponseCode.OK));
+        } finally {
+            probeAnswered.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailedProbeReopensCircuit() {
+        DeliveryPolicy policy = DeliveryPolicy.builder()
+                .failureThreshold(1)
+                .openDuration(Duration.ofSeconds(30))
+                .build();
+        WebHookState state = registry(policy).state(WebHookToken.fromString(TOKEN_A));
+        state.recordFailure(ticker.read());
+        assertThat(state.allowsDelivery(ticker.read()), is(false));
+
+        ticker.advance(30, TimeUnit.SECONDS);
+        assertThat(state.allowsDelivery(ticker.read()), is(true));
+        assertThat(state.allowsDelivery(ticker.read()), is(false));
+        assertThat(state.circuitDelayNanos(ticker.read()), is(greaterThan(0L)));
+        state.recordFailure(ticker.read());
+        assertThat(state.circuitDelayNanos(ticker.read()), is(TimeUnit.SECONDS.toNanos(30)));
+
+        ticker.advance(30, TimeUnit.SECONDS);
+        assertThat(state.allowsDelivery(ticker.read()), is(true));
+        state.cancelProbe();
+        assertThat(state.allowsDelivery(ticker.read()), is(true));
+        state.recordSuccess();
+        assertThat(state.allowsDelivery(ticker.read()), is(true));
+        assertThat(state.allowsDelivery(ticker.read()), is(true));
+    }
+
+    @Test
+    void testRetryAfterDefersPermits() {
+        WebHookRegistry registry = registry(DeliveryPolicy.defaults());
+        WebHookToken token = registry.register(TOKEN_A);
+        webHook.respondWith(path -> FakeWebHook.error(429, "rate_limited", "Retry-After", "5"));
+        assertThat(registry.sendMessage(token, MESSAGE).responseCode(), is(ResponseCode.RATE_LIMITED));
+        assertThat(registry.state(token).tryAcquirePermit(ticker.read()), is(greaterThan(TimeUnit.SECONDS.toNanos(5))));
+        assertThat(registry.state(token).consecutiveFailures(), is(0));
+    }
+
+}
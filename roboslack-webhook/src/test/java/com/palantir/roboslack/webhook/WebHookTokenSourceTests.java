@@ -0,0 +1,158 @@
+/*
+ * Copyright 2017 Palantir Technologies, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.roboslack.webhook;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.roboslack.webhook.api.model.WebHookToken;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class WebHookTokenSourceTests {
+
+    private static final String TOKEN_A = "T00000000/B00000000/XXXXXXXXXXXXXXXXXXXXXXXX";
+    private static final String TOKEN_B = "T11111111/B11111111/YYYYYYYYYYYYYYYYYYYYYYYY";
+    private static final String TOKEN_C = "T22222222/B22222222/ZZZZZZZZZZZZZZZZZZZZZZZZ";
+
+    private Path directory;
+    private Path file;
+    private WebHookRegistry registry;
+
+    @BeforeEach
+    void before() throws IOException {
+        directory = Files.createTempDirectory("tokens");
+        file = directory.resolve("tokens.txt");
+        registry = new WebHookRegistry(new FakeWebHook(), DeliveryPolicy.defaults(), new FakeWebHook.FakeTicker());
+    }
+
+    @AfterEach
+    void after() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory.resolve("tokens.tmp"));
+        Files.delete(directory);
+    }
+
+    private void write(String... lines) throws IOException {
+        Files.write(file, Arrays.asList(lines), StandardCharsets.UTF_8);
+    }
+
+    private void replace(String... lines) throws IOException {
+        Path replacement = directory.resolve("tokens.tmp");
+        Files.write(replacement, Arrays.asList(lines), StandardCharsets.UTF_8);
+        Files.move(replacement, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Test
+    void testLoadsNamedAndBareEntries() throws IOException {
+        write("# team tokens", "alerts = " + TOKEN_A, "", TOKEN_B);
+        WebHookTokenSource source = WebHookTokenSource.load(file, registry);
+        assertThat(source.tokens(), is(equalTo(ImmutableMap.of(
+                "alerts", WebHookToken.fromString(TOKEN_A),
+                TOKEN_B, WebHookToken.fromString(TOKEN_B)))));
+        assertThat(source.token("alerts"), is(equalTo(Optional.of(WebHookToken.fromString(TOKEN_A)))));
+        assertThat(source.token("missing"), is(equalTo(Optional.empty())));
+        assertThat(registry.token(TOKEN_A).isPresent(), is(true));
+    }
+
+    @Test
+    void testReloadOnlyReplacesChangedEntries() throws IOException {
+        write("alerts=" + TOKEN_A, "builds=" + TOKEN_B);
+        WebHookTokenSource source = WebHookTokenSource.load(file, registry);
+        Map<String, WebHookToken> before = source.tokens();
+        WebHookState alertsState = registry.state(before.get("alerts"));
+
+        assertThat(source.reload(), is(0));
+        assertThat(source.tokens(), is(sameInstance(before)));
+
+        write("alerts=" + TOKEN_A, "builds=" + TOKEN_C);
+        assertThat(source.reload(), is(1));
+        Map<String, WebHookToken> after = source.tokens();
+        assertThat(after.get("alerts"), is(sameInstance(before.get("alerts"))));
+        assertThat(after.get("builds"), is(equalTo(WebHookToken.fromString(TOKEN_C))));
+        assertThat(registry.state(after.get("alerts")), is(sameInstance(alertsState)));
+        assertThat(registry.token(TOKEN_B), is(equalTo(Optional.empty())));
+        assertThat(before.get("builds"), is(equalTo(WebHookToken.fromString(TOKEN_B))));
+
+        write("builds=" + TOKEN_C);
+        assertThat(source.reload(), is(1));
+        assertThat(source.tokens().keySet(), is(equalTo(ImmutableSet.of("builds"))));
+        assertThat(registry.tokens(), is(equalTo(ImmutableSet.of(WebHookToken.fromString(TOKEN_C)))));
+    }
+
+    @Test
+    void testInvalidFileKeepsSnapshot() throws IOException {
+        write("alerts=" + TOKEN_A);
+        WebHookTokenSource source = WebHookTokenSource.load(file, registry);
+        Map<String, WebHookToken> before = source.tokens();
+        write("alerts=" + TOKEN_B, "builds=not a token");
+        assertThrows(IllegalArgumentException.class, source::reload);
+        assertThat(source.tokens(), is(sameInstance(before)));
+        assertThat(registry.tokens(), is(equalTo(ImmutableSet.of(WebHookToken.fromString(TOKEN_A)))));
+    }
+
+    @Test
+    void testDuplicateNamesAreRejected() throws IOException {
+        write("alerts=" + TOKEN_A, "alerts=" + TOKEN_B);
+        assertThrows(IllegalArgumentException.class, () -> WebHookTokenSource.load(file, registry));
+        assertThat(registry.tokens(), is(equalTo(ImmutableSet.of())));
+    }
+
+    @Test
+    void testKeepsTokensRegisteredElsewhere() throws IOException {
+        WebHookToken shared = registry.register(TOKEN_A);
+        write("alerts=" + TOKEN_A, "builds=" + TOKEN_B);
+        WebHookTokenSource source = WebHookTokenSource.load(file, registry);
+        assertThat(source.token("alerts"), is(equalTo(Optional.of(shared))));
+
+        write("builds=" + TOKEN_C);
+        assertThat(source.reload(), is(2));
+        assertThat(registry.tokens(), is(equalTo(ImmutableSet.of(shared, WebHookToken.fromString(TOKEN_C)))));
+    }
+
+    @Test
+    void testWatchReloadsReplacedFile() throws IOException {
+        write("alerts=" + TOKEN_A);
+        try (WebHookTokenSource source = WebHookTokenSource.watch(file, registry)) {
+            replace("alerts=" + TOKEN_B);
+            Awaitility.await().atMost(10, TimeUnit.SECONDS).until(() ->
+                    source.token("alerts").equals(Optional.of(WebHookToken.fromString(TOKEN_B))));
+
+            replace("alerts=" + TOKEN_C, "builds=not a token");
+            Awaitility.await().atMost(10, TimeUnit.SECONDS).until(() -> source.lastFailure().isPresent());
+            assertThat(source.tokens(), is(equalTo(ImmutableMap.of("alerts", WebHookToken.fromString(TOKEN_B)))));
+        }
+    }
+
+}